@@ -1,8 +1,13 @@
 package tinyjvm;
 
+import tinyjvm.runtime.JvmThread;
+
 import java.util.Arrays;
 
 public class Cmd {
+    public static final int DEFAULT_XMX = 64 << 20;
+    public static final String DEFAULT_SHARED_ARCHIVE_FILE = "tinyjvm.jsa";
+    private static final long MAX_XMX = 1L << 30; // 堆外内存是一个 ByteBuffer，大小不能超过 int 范围
 
     private boolean helpFlag;
     private boolean versionFlag;
@@ -10,6 +15,17 @@ public class Cmd {
     private String mainClass;
     private String[] appArgs; // 传递给目标Java程序的参数
     private String xjreOption;
+    private String xtraceOption = "none"; // 执行跟踪模式: none | opcodes | full | ring | sequences
+    private String xengineOption = "reference"; // 执行引擎: reference | fast
+    private String xjitOption = "off"; // 是否把热点方法编译成宿主类: off | on
+    private int xssOption = JvmThread.DEFAULT_MAX_DEPTH; // 每个线程最多的栈帧数
+    private String xheapOption = "onheap"; // 对象放在哪里: onheap | offheap
+    private int xmxOption = DEFAULT_XMX; // offheap 堆的大小 (字节)，两个半空间各占一半
+    private boolean verboseGcFlag; // 打印每次 GC 和结束时的堆统计
+    private String xpreloadOption = "off"; // 启动前是否并行预加载主类能引用到的类: off | on
+    private String xshareOption = "off"; // 类共享归档: off | dump (结束时写归档) | on (从归档加载)
+    private String sharedArchiveFile = DEFAULT_SHARED_ARCHIVE_FILE;
+    private String xverifyOption = "remote"; // 字节码校验: none | remote (只校验用户类路径上的类) | all
 
     private Cmd() {
     }
@@ -42,6 +58,10 @@ public class Cmd {
                         return cmd;
                     }
                     break;
+                case "-verbose:gc":
+                    cmd.verboseGcFlag = true;
+                    i++;
+                    break;
                 case "-cp":
                 case "-classpath":
                     if (i + 1 < args.length) {
@@ -54,6 +74,71 @@ public class Cmd {
                     }
                     break;
                 default:
+                    if (arg.startsWith("-Xtrace:")) {
+                        cmd.xtraceOption = arg.substring("-Xtrace:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xengine:")) {
+                        cmd.xengineOption = arg.substring("-Xengine:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xjit:")) {
+                        cmd.xjitOption = arg.substring("-Xjit:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xshare:")) {
+                        cmd.xshareOption = arg.substring("-Xshare:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-XX:SharedArchiveFile=")) {
+                        cmd.sharedArchiveFile = arg.substring("-XX:SharedArchiveFile=".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xverify:")) {
+                        cmd.xverifyOption = arg.substring("-Xverify:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xpreload:")) {
+                        cmd.xpreloadOption = arg.substring("-Xpreload:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xheap:")) {
+                        cmd.xheapOption = arg.substring("-Xheap:".length());
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xmx")) {
+                        long size = parseSize(arg.substring("-Xmx".length()));
+                        if (size <= 0 || size > MAX_XMX) {
+                            System.err.println("Error: Invalid heap size: " + arg);
+                            cmd.helpFlag = true;
+                            return cmd;
+                        }
+                        cmd.xmxOption = (int) size;
+                        i++;
+                        break;
+                    }
+                    if (arg.startsWith("-Xss")) {
+                        try {
+                            cmd.xssOption = Integer.parseInt(arg.substring("-Xss".length()));
+                        } catch (NumberFormatException e) {
+                            cmd.xssOption = 0;
+                        }
+                        if (cmd.xssOption <= 0) {
+                            System.err.println("Error: Invalid stack depth: " + arg);
+                            cmd.helpFlag = true;
+                            return cmd;
+                        }
+                        i++;
+                        break;
+                    }
                     // 第一个不是JVM选项的参数就是主类名
                     cmd.mainClass = arg;
                     if (i + 1 < args.length) {
@@ -73,6 +158,28 @@ public class Cmd {
         return cmd;
     }
 
+    // 解析 -Xmx 的大小，可以带 k/m/g 后缀，格式错误时返回 -1
+    private static long parseSize(String value) {
+        if (value.isEmpty()) {
+            return -1;
+        }
+        long unit = 1;
+        switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+            case 'k': unit = 1L << 10; break;
+            case 'm': unit = 1L << 20; break;
+            case 'g': unit = 1L << 30; break;
+            default: break;
+        }
+        if (unit != 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * unit;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     // --- Getters ---
     public boolean isHelpFlag() { return helpFlag; }
     public boolean isVersionFlag() { return versionFlag; }
@@ -80,12 +187,35 @@ public class Cmd {
     public String getMainClass() { return mainClass; }
     public String[] getAppArgs() { return appArgs; }
     public String getXjreOption() { return xjreOption; }
+    public String getXtraceOption() { return xtraceOption; }
+    public String getXengineOption() { return xengineOption; }
+    public String getXjitOption() { return xjitOption; }
+    public int getXssOption() { return xssOption; }
+    public String getXheapOption() { return xheapOption; }
+    public int getXmxOption() { return xmxOption; }
+    public boolean isVerboseGcFlag() { return verboseGcFlag; }
+    public String getXpreloadOption() { return xpreloadOption; }
+    public String getXshareOption() { return xshareOption; }
+    public String getSharedArchiveFile() { return sharedArchiveFile; }
+    public String getXverifyOption() { return xverifyOption; }
     public String getCpOption() { return classpath; }
 
     public static void printUsage() {
         System.out.println("Usage: java [-options] class [args...]");
         System.out.println("    -cp <dir> or -classpath <dir>   Specify where to find user class files");
         System.out.println("    -Xjre <dir>                     Specify where to find jre");
+        System.out.println("    -Xtrace:<none|opcodes|full|ring|sequences>");
+        System.out.println("                                    Trace executed instructions (default: none)");
+        System.out.println("    -Xengine:<reference|fast>       Select the execution engine (default: reference)");
+        System.out.println("    -Xjit:<off|on>                  Compile hot methods to host classes (default: off)");
+        System.out.println("    -Xss<depth>                     Maximum stack depth in frames (default: " + JvmThread.DEFAULT_MAX_DEPTH + ")");
+        System.out.println("    -Xheap:<onheap|offheap>         Allocate objects on the host heap or in off-heap memory (default: onheap)");
+        System.out.println("    -Xmx<size>                      Off-heap size, split into two semispaces (default: 64m)");
+        System.out.println("    -Xpreload:<off|on>              Load classes reachable from the main class in parallel at startup (default: off)");
+        System.out.println("    -Xshare:<off|dump|on>           Write loaded classes to a shared archive at exit, or load classes from it (default: off)");
+        System.out.println("    -XX:SharedArchiveFile=<file>    Shared archive location (default: " + DEFAULT_SHARED_ARCHIVE_FILE + ")");
+        System.out.println("    -Xverify:<none|remote|all>      Verify bytecode of user classpath classes, all classes, or none (default: remote)");
+        System.out.println("    -verbose:gc                     Print off-heap collections and heap statistics");
         System.out.println("    -help or -?                     Print this help message");
         System.out.println("    -version                        Print version and exit");
     }
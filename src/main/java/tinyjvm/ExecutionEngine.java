@@ -0,0 +1,19 @@
+package tinyjvm;
+
+import tinyjvm.runtime.heap.RtMethod;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 执行引擎：从给定的方法开始解释执行，直到它返回。
+ * Interpreter 是基于 Instruction 对象的参考实现，FastInterpreter 是面向吞吐量的 switch 实现，
+ * 由 -Xengine 选择；-Xjit:on 时两者都会把热点方法交给 TierUpCompiler 编译成宿主类。
+ * 同一个引擎可以同时在多个宿主线程上执行，每个客体线程有自己的槽位数组。
+ */
+public interface ExecutionEngine {
+    void interpret(RtMethod method);
+
+    /**
+     * 在当前宿主线程上执行一个客体线程：调用线程对象的 run 方法，直到它返回。由 Thread.start 在新的虚拟线程里调用
+     */
+    void runThread(RtMethod runMethod, RtObject thread);
+}
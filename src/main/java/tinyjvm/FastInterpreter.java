@@ -0,0 +1,791 @@
+package tinyjvm;
+
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.instructions.FastCode;
+import tinyjvm.instructions.UnsupportedInstruction;
+import tinyjvm.instructions.references.ATHROW;
+import tinyjvm.jit.CompiledMethod;
+import tinyjvm.jit.TierUpCompiler;
+import tinyjvm.natives.NativeMethod;
+import tinyjvm.runtime.JvmThread;
+import tinyjvm.runtime.heap.Heap;
+import tinyjvm.runtime.heap.ObjectMonitor;
+import tinyjvm.runtime.heap.RtArray;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtConstantPool;
+import tinyjvm.runtime.heap.RtField;
+import tinyjvm.runtime.heap.RtMethod;
+import tinyjvm.runtime.heap.RtMethodRef;
+import tinyjvm.runtime.heap.RtObject;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * 快速执行引擎。
+ * 方法的字节码先被翻译成 FastCode 的 int[] 指令流，执行时用一个 switch 循环直接分派，
+ * 局部变量表和操作数栈放在同一个 int[] 里 (局部变量在前，操作数栈在后)，栈顶指针 sp 和指令指针 ip
+ * 都是本方法的局部变量，整个循环里没有接口调用，也没有 Frame -> OperandStack 的间接访问，便于宿主 JIT 优化。
+ * 槽位布局和 LocalVars/OperandStack 一致：long/double 占两个槽位，低 32 位在前；引用放在并行的 Object[] 中。
+ * 和 JvmThread 一样，所有调用共享同一段槽位数组，被调用方法的局部变量表从调用者栈顶的参数处开始。
+ * 客体方法之间的调用不占用宿主的栈：execute 在同一个循环里执行整条调用链，调用者的 ip、sp 等保存在显式的
+ * Activation 栈上，被调用者返回时恢复；只有类初始化 (&lt;clinit&gt;) 会嵌套执行一次 execute。
+ * 所以调用深度只受 -Xss 限制，超过时抛出客体的 StackOverflowError，而不是耗尽宿主的栈。
+ * 基于 Instruction 对象的 Interpreter 仍然是参考实现，本引擎不支持 -Xtrace。
+ * 分层编译用的回边计数只在向后的 goto 上统计，javac 生成的循环都以 goto 回到循环头。
+ */
+public class FastInterpreter implements ExecutionEngine {
+    private static final int SEGMENT_SLOTS = 4096; // 每段槽位数组的大小
+    private static final VarHandle CODE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final TierUpCompiler compiler; // 为 null 时不编译热点方法
+    private final int maxDepth;
+
+    public FastInterpreter() {
+        this(null, JvmThread.DEFAULT_MAX_DEPTH);
+    }
+
+    public FastInterpreter(TierUpCompiler compiler, int maxDepth) {
+        this.compiler = compiler;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void interpret(RtMethod method) {
+        int[] s = new int[SEGMENT_SLOTS];
+        Object[] r = new Object[SEGMENT_SLOTS];
+        RtClass rtClass = method.getRtClass();
+        // 槽位数组里的引用是 GC 的根，执行结束后注销
+        Heap heap = rtClass.getLoader().getHeap();
+        heap.addRoots(r);
+        try {
+            if (!rtClass.isInitialized()) {
+                initClass(rtClass, s, r, 0, 0);
+            }
+            invoke(method, s, r, 0, 1);
+        } finally {
+            heap.removeRoots(r);
+        }
+    }
+
+    /**
+     * 类初始化 (JVMS 5.5)：标记为已开始，先初始化父类，再执行本类的 &lt;clinit&gt;，栈帧从 sp 开始。
+     * 类正由其他线程初始化时等它完成，由本线程初始化时 (递归请求) 直接返回。
+     * 和 JvmThread.initClass 一样，触发初始化的指令在初始化完成后继续执行。
+     */
+    private void initClass(RtClass rtClass, int[] s, Object[] r, int sp, int depth) {
+        if (!rtClass.startInit()) {
+            rtClass.awaitInit();
+            return;
+        }
+        try {
+            RtClass superClass = rtClass.getSuperClass();
+            if (superClass != null && !superClass.isInitialized()) {
+                initClass(superClass, s, r, sp, depth);
+            }
+            RtMethod clinit = rtClass.getClinit();
+            if (clinit != null) {
+                invoke(clinit, s, r, sp, depth + 1);
+            }
+        } catch (RuntimeException | Error e) {
+            rtClass.failInit();
+            throw e;
+        }
+        rtClass.finishInit();
+    }
+
+    @Override
+    public void runThread(RtMethod runMethod, RtObject thread) {
+        int[] s = new int[SEGMENT_SLOTS];
+        Object[] r = new Object[SEGMENT_SLOTS];
+        r[0] = thread;
+        Heap heap = runMethod.getRtClass().getLoader().getHeap();
+        heap.addRoots(r);
+        try {
+            invoke(runMethod, s, r, 0, 1);
+        } finally {
+            heap.removeRoots(r);
+        }
+    }
+
+    /**
+     * 调用方法：参数已经在 s/r 中从 base 开始的槽位里，返回值写回 base 处。
+     * synchronized 方法在执行期间持有 this (静态方法是类) 的锁。
+     */
+    private void invoke(RtMethod method, int[] s, Object[] r, int base, int depth) {
+        if (depth > maxDepth) {
+            throw new StackOverflowError("Stack depth exceeds " + maxDepth + " frames");
+        }
+        NativeMethod nativeMethod = method.getNativeMethod();
+        if (nativeMethod != null) {
+            nativeMethod.invoke(s, r, base);
+            return;
+        }
+        if (compiler != null) {
+            CompiledMethod compiled = compiler.onInvoke(method);
+            if (compiled != null) {
+                compiled.invoke(s, r, base);
+                return;
+            }
+        }
+        if (!method.isSynchronized()) {
+            enterFrame(method, s, r, base, depth);
+            return;
+        }
+        Object monitor = ObjectMonitor.enterMethod(method, r[base]);
+        try {
+            enterFrame(method, s, r, base, depth);
+        } finally {
+            ObjectMonitor.exitMethod(monitor);
+        }
+    }
+
+    /**
+     * 为解释执行的方法建立栈帧并执行。
+     * 当前数组放不下被调用方法的栈帧时换一段新数组，把参数复制过去，返回后再把返回值复制回来；新数组在使用期间注册为 GC 的根。
+     */
+    private void enterFrame(RtMethod method, int[] s, Object[] r, int base, int depth) {
+        CodeAttribute codeAttribute = method.getCodeAttribute();
+        if (codeAttribute == null) {
+            throw new UnsupportedOperationException("Native or abstract method: " + method.getName() + method.getDescriptor());
+        }
+        int frameSize = codeAttribute.getMaxLocals() + codeAttribute.getMaxStack();
+        if (base + frameSize <= s.length) {
+            execute(method, s, r, base, depth);
+            return;
+        }
+
+        int size = Math.max(SEGMENT_SLOTS, frameSize);
+        int[] segment = new int[size];
+        Object[] segmentRefs = new Object[size];
+        int args = method.getArgSlotCount();
+        System.arraycopy(s, base, segment, 0, args);
+        System.arraycopy(r, base, segmentRefs, 0, args);
+        Heap heap = method.getRtClass().getLoader().getHeap();
+        heap.addRoots(segmentRefs);
+        try {
+            execute(method, segment, segmentRefs, 0, depth);
+        } finally {
+            heap.removeRoots(segmentRefs);
+        }
+        int results = method.getReturnSlotCount();
+        System.arraycopy(segment, 0, s, base, results);
+        System.arraycopy(segmentRefs, 0, r, base, results);
+    }
+
+    /**
+     * 执行 method 以及它调用的所有解释执行的方法，method 返回时结束。
+     * 局部变量表从 base 开始，操作数栈紧随其后；depth 是当前的调用深度。
+     * 调用指令把被调用者的参数位置留在 callee/sp 里，跳出 switch 到循环末尾的调用序列；
+     * 返回指令把返回值写到 base 处，跳到返回序列
+     */
+    private void execute(RtMethod method, int[] s, Object[] r, int base, int depth) {
+        FastCode fastCode = method.getFastCode();
+        RtConstantPool cp = method.getRtClass().getConstantPool();
+        int[] code = fastCode.getCode();
+        int sp = base + method.getCodeAttribute().getMaxLocals();
+        int ip = 0;
+        long backedges = 0; // 回边计数先累加在局部变量里，方法返回时再写回 RtMethod
+
+        Activation[] stack = new Activation[16]; // stack[0] 是 method 自己，stack[top] 是正在执行的方法
+        int top = 0;
+        stack[0] = new Activation();
+        RtMethod callee = null;
+        try {
+            while (true) {
+                call:
+                {
+                    exit:
+                    {
+                        switch (code[ip]) {
+                            // Constants
+                            case 0x01: r[sp++] = null; ip++; break;                                  // aconst_null
+                            case 0x09:                                                               // lconst
+                            case 0x0e: s[sp] = code[ip + 1]; s[sp + 1] = code[ip + 2]; sp += 2; ip += 3; break; // dconst
+                            case 0x0b:                                                               // fconst
+                            case 0x10: s[sp++] = code[ip + 1]; ip += 2; break;                        // iconst/bipush/sipush
+                            // Loads
+                            case 0x15:                                                               // iload
+                            case 0x17: s[sp++] = s[base + code[ip + 1]]; ip += 2; break;                     // fload
+                            case 0x16:                                                               // lload
+                            case 0x18: {                                                             // dload
+                                int index = base + code[ip + 1];
+                                s[sp] = s[index];
+                                s[sp + 1] = s[index + 1];
+                                sp += 2;
+                                ip += 2;
+                                break;
+                            }
+                            case 0x19: r[sp++] = r[base + code[ip + 1]]; ip += 2; break;                     // aload
+                            // 数组元素：按类型直接读写宿主数组，越界和空引用由宿主检查
+                            case 0x2e: sp--; s[sp - 1] = ((RtArray) r[sp - 1]).ints()[s[sp]]; r[sp - 1] = null; ip++; break;       // iaload
+                            case 0x2f: setLong(s, sp - 2, ((RtArray) r[sp - 2]).longs()[s[sp - 1]]); r[sp - 2] = null; ip++; break; // laload
+                            case 0x30: sp--; setFloat(s, sp - 1, ((RtArray) r[sp - 1]).floats()[s[sp]]); r[sp - 1] = null; ip++; break; // faload
+                            case 0x31: setDouble(s, sp - 2, ((RtArray) r[sp - 2]).doubles()[s[sp - 1]]); r[sp - 2] = null; ip++; break; // daload
+                            case 0x32: sp--; r[sp - 1] = ((RtArray) r[sp - 1]).refs()[s[sp]]; ip++; break;                         // aaload
+                            case 0x33: sp--; s[sp - 1] = ((RtArray) r[sp - 1]).bytes()[s[sp]]; r[sp - 1] = null; ip++; break;      // baload
+                            case 0x34: sp--; s[sp - 1] = ((RtArray) r[sp - 1]).chars()[s[sp]]; r[sp - 1] = null; ip++; break;      // caload
+                            case 0x35: sp--; s[sp - 1] = ((RtArray) r[sp - 1]).shorts()[s[sp]]; r[sp - 1] = null; ip++; break;     // saload
+                            // Stores
+                            // 数值写进局部变量时清掉槽位里原来的引用，和 LocalVars 一致
+                            case 0x36:                                                               // istore
+                            case 0x38: {                                                             // fstore
+                                int index = base + code[ip + 1];
+                                s[index] = s[--sp];
+                                r[index] = null;
+                                ip += 2;
+                                break;
+                            }
+                            case 0x37:                                                               // lstore
+                            case 0x39: {                                                             // dstore
+                                int index = base + code[ip + 1];
+                                sp -= 2;
+                                s[index] = s[sp];
+                                s[index + 1] = s[sp + 1];
+                                r[index] = null;
+                                r[index + 1] = null;
+                                ip += 2;
+                                break;
+                            }
+                            case 0x3a: sp--; r[base + code[ip + 1]] = r[sp]; r[sp] = null; ip += 2; break;   // astore
+                            case 0x4f: sp -= 3; ((RtArray) r[sp]).ints()[s[sp + 1]] = s[sp + 2]; r[sp] = null; ip++; break;                // iastore
+                            case 0x50: sp -= 4; ((RtArray) r[sp]).longs()[s[sp + 1]] = getLong(s, sp + 2); r[sp] = null; ip++; break;      // lastore
+                            case 0x51: sp -= 3; ((RtArray) r[sp]).floats()[s[sp + 1]] = getFloat(s, sp + 2); r[sp] = null; ip++; break;    // fastore
+                            case 0x52: sp -= 4; ((RtArray) r[sp]).doubles()[s[sp + 1]] = getDouble(s, sp + 2); r[sp] = null; ip++; break;  // dastore
+                            case 0x53: sp -= 3; ((RtArray) r[sp]).refs()[s[sp + 1]] = r[sp + 2]; clearRefs(r, sp, 3); ip++; break;         // aastore
+                            case 0x54: sp -= 3; ((RtArray) r[sp]).bytes()[s[sp + 1]] = (byte) s[sp + 2]; r[sp] = null; ip++; break;        // bastore
+                            case 0x55: sp -= 3; ((RtArray) r[sp]).chars()[s[sp + 1]] = (char) s[sp + 2]; r[sp] = null; ip++; break;        // castore
+                            case 0x56: sp -= 3; ((RtArray) r[sp]).shorts()[s[sp + 1]] = (short) s[sp + 2]; r[sp] = null; ip++; break;      // sastore
+                            // Stack
+                            case 0x57: sp--; clearRefs(r, sp, 1); ip++; break;                       // pop
+                            case 0x58: sp -= 2; clearRefs(r, sp, 2); ip++; break;                    // pop2
+                            case 0x59: dup(s, r, sp, 1, 0); sp += 1; ip++; break;                    // dup
+                            case 0x5a: dup(s, r, sp, 1, 1); sp += 1; ip++; break;                    // dup_x1
+                            case 0x5b: dup(s, r, sp, 1, 2); sp += 1; ip++; break;                    // dup_x2
+                            case 0x5c: dup(s, r, sp, 2, 0); sp += 2; ip++; break;                    // dup2
+                            case 0x5d: dup(s, r, sp, 2, 1); sp += 2; ip++; break;                    // dup2_x1
+                            case 0x5e: dup(s, r, sp, 2, 2); sp += 2; ip++; break;                    // dup2_x2
+                            case 0x5f: swap(s, r, sp); ip++; break;                                  // swap
+                            // Math
+                            case 0x60: sp--; s[sp - 1] += s[sp]; ip++; break;                                              // iadd
+                            case 0x61: sp -= 2; setLong(s, sp - 2, getLong(s, sp - 2) + getLong(s, sp)); ip++; break;      // ladd
+                            case 0x62: sp--; setFloat(s, sp - 1, getFloat(s, sp - 1) + getFloat(s, sp)); ip++; break;      // fadd
+                            case 0x63: sp -= 2; setDouble(s, sp - 2, getDouble(s, sp - 2) + getDouble(s, sp)); ip++; break; // dadd
+                            case 0x64: sp--; s[sp - 1] -= s[sp]; ip++; break;                                              // isub
+                            case 0x65: sp -= 2; setLong(s, sp - 2, getLong(s, sp - 2) - getLong(s, sp)); ip++; break;      // lsub
+                            case 0x66: sp--; setFloat(s, sp - 1, getFloat(s, sp - 1) - getFloat(s, sp)); ip++; break;      // fsub
+                            case 0x67: sp -= 2; setDouble(s, sp - 2, getDouble(s, sp - 2) - getDouble(s, sp)); ip++; break; // dsub
+                            case 0x68: sp--; s[sp - 1] *= s[sp]; ip++; break;                                              // imul
+                            case 0x69: sp -= 2; setLong(s, sp - 2, getLong(s, sp - 2) * getLong(s, sp)); ip++; break;      // lmul
+                            case 0x6a: sp--; setFloat(s, sp - 1, getFloat(s, sp - 1) * getFloat(s, sp)); ip++; break;      // fmul
+                            case 0x6b: sp -= 2; setDouble(s, sp - 2, getDouble(s, sp - 2) * getDouble(s, sp)); ip++; break; // dmul
+                            case 0x6c: sp--; s[sp - 1] /= s[sp]; ip++; break;                                              // idiv
+                            case 0x6d: sp -= 2; setLong(s, sp - 2, getLong(s, sp - 2) / getLong(s, sp)); ip++; break;      // ldiv
+                            case 0x6e: sp--; setFloat(s, sp - 1, getFloat(s, sp - 1) / getFloat(s, sp)); ip++; break;      // fdiv
+                            case 0x6f: sp -= 2; setDouble(s, sp - 2, getDouble(s, sp - 2) / getDouble(s, sp)); ip++; break; // ddiv
+                            case 0x70: sp--; s[sp - 1] %= s[sp]; ip++; break;                                              // irem
+                            case 0x71: sp -= 2; setLong(s, sp - 2, getLong(s, sp - 2) % getLong(s, sp)); ip++; break;      // lrem
+                            case 0x72: sp--; setFloat(s, sp - 1, getFloat(s, sp - 1) % getFloat(s, sp)); ip++; break;      // frem
+                            case 0x73: sp -= 2; setDouble(s, sp - 2, getDouble(s, sp - 2) % getDouble(s, sp)); ip++; break; // drem
+                            case 0x74: s[sp - 1] = -s[sp - 1]; ip++; break;                                                // ineg
+                            case 0x75: setLong(s, sp - 2, -getLong(s, sp - 2)); ip++; break;                               // lneg
+                            case 0x76: setFloat(s, sp - 1, -getFloat(s, sp - 1)); ip++; break;                             // fneg
+                            case 0x77: setDouble(s, sp - 2, -getDouble(s, sp - 2)); ip++; break;                           // dneg
+                            case 0x78: sp--; s[sp - 1] <<= s[sp]; ip++; break;                                             // ishl
+                            case 0x79: sp--; setLong(s, sp - 2, getLong(s, sp - 2) << s[sp]); ip++; break;                 // lshl
+                            case 0x7a: sp--; s[sp - 1] >>= s[sp]; ip++; break;                                             // ishr
+                            case 0x7b: sp--; setLong(s, sp - 2, getLong(s, sp - 2) >> s[sp]); ip++; break;                 // lshr
+                            case 0x7c: sp--; s[sp - 1] >>>= s[sp]; ip++; break;                                            // iushr
+                            case 0x7d: sp--; setLong(s, sp - 2, getLong(s, sp - 2) >>> s[sp]); ip++; break;                // lushr
+                            case 0x7e: sp--; s[sp - 1] &= s[sp]; ip++; break;                                              // iand
+                            case 0x7f: sp -= 2; s[sp - 2] &= s[sp]; s[sp - 1] &= s[sp + 1]; ip++; break;                   // land
+                            case 0x80: sp--; s[sp - 1] |= s[sp]; ip++; break;                                              // ior
+                            case 0x81: sp -= 2; s[sp - 2] |= s[sp]; s[sp - 1] |= s[sp + 1]; ip++; break;                   // lor
+                            case 0x82: sp--; s[sp - 1] ^= s[sp]; ip++; break;                                              // ixor
+                            case 0x83: sp -= 2; s[sp - 2] ^= s[sp]; s[sp - 1] ^= s[sp + 1]; ip++; break;                   // lxor
+                            case 0x84: s[base + code[ip + 1]] += code[ip + 2]; ip += 3; break;                                    // iinc
+                            // Conversions
+                            case 0x85: setLong(s, sp - 1, s[sp - 1]); sp++; ip++; break;                                   // i2l
+                            case 0x86: setFloat(s, sp - 1, s[sp - 1]); ip++; break;                                        // i2f
+                            case 0x87: setDouble(s, sp - 1, s[sp - 1]); sp++; ip++; break;                                 // i2d
+                            case 0x88: sp--; s[sp - 1] = (int) getLong(s, sp - 1); ip++; break;                           // l2i
+                            case 0x89: sp--; setFloat(s, sp - 1, getLong(s, sp - 1)); ip++; break;                         // l2f
+                            case 0x8a: setDouble(s, sp - 2, getLong(s, sp - 2)); ip++; break;                              // l2d
+                            case 0x8b: s[sp - 1] = (int) getFloat(s, sp - 1); ip++; break;                                 // f2i
+                            case 0x8c: setLong(s, sp - 1, (long) getFloat(s, sp - 1)); sp++; ip++; break;                  // f2l
+                            case 0x8d: setDouble(s, sp - 1, getFloat(s, sp - 1)); sp++; ip++; break;                       // f2d
+                            case 0x8e: sp--; s[sp - 1] = (int) getDouble(s, sp - 1); ip++; break;                         // d2i
+                            case 0x8f: setLong(s, sp - 2, (long) getDouble(s, sp - 2)); ip++; break;                       // d2l
+                            case 0x90: sp--; setFloat(s, sp - 1, (float) getDouble(s, sp - 1)); ip++; break;               // d2f
+                            case 0x91: s[sp - 1] = (byte) s[sp - 1]; ip++; break;                                          // i2b
+                            case 0x92: s[sp - 1] = (char) s[sp - 1]; ip++; break;                                          // i2c
+                            case 0x93: s[sp - 1] = (short) s[sp - 1]; ip++; break;                                         // i2s
+                            // Comparisons
+                            case 0x94: sp -= 3; s[sp - 1] = Long.compare(getLong(s, sp - 1), getLong(s, sp + 1)); ip++; break;       // lcmp
+                            case 0x95: sp--; s[sp - 1] = compare(getFloat(s, sp - 1), getFloat(s, sp), -1); ip++; break;              // fcmpl
+                            case 0x96: sp--; s[sp - 1] = compare(getFloat(s, sp - 1), getFloat(s, sp), 1); ip++; break;               // fcmpg
+                            case 0x97: sp -= 3; s[sp - 1] = compare(getDouble(s, sp - 1), getDouble(s, sp + 1), -1); ip++; break;     // dcmpl
+                            case 0x98: sp -= 3; s[sp - 1] = compare(getDouble(s, sp - 1), getDouble(s, sp + 1), 1); ip++; break;      // dcmpg
+                            case 0x99: ip = s[--sp] == 0 ? code[ip + 1] : ip + 2; break;                                   // ifeq
+                            case 0x9a: ip = s[--sp] != 0 ? code[ip + 1] : ip + 2; break;                                   // ifne
+                            case 0x9b: ip = s[--sp] < 0 ? code[ip + 1] : ip + 2; break;                                    // iflt
+                            case 0x9c: ip = s[--sp] >= 0 ? code[ip + 1] : ip + 2; break;                                   // ifge
+                            case 0x9d: ip = s[--sp] > 0 ? code[ip + 1] : ip + 2; break;                                    // ifgt
+                            case 0x9e: ip = s[--sp] <= 0 ? code[ip + 1] : ip + 2; break;                                   // ifle
+                            case 0x9f: sp -= 2; ip = s[sp] == s[sp + 1] ? code[ip + 1] : ip + 2; break;                    // if_icmpeq
+                            case 0xa0: sp -= 2; ip = s[sp] != s[sp + 1] ? code[ip + 1] : ip + 2; break;                    // if_icmpne
+                            case 0xa1: sp -= 2; ip = s[sp] < s[sp + 1] ? code[ip + 1] : ip + 2; break;                     // if_icmplt
+                            case 0xa2: sp -= 2; ip = s[sp] >= s[sp + 1] ? code[ip + 1] : ip + 2; break;                    // if_icmpge
+                            case 0xa3: sp -= 2; ip = s[sp] > s[sp + 1] ? code[ip + 1] : ip + 2; break;                     // if_icmpgt
+                            case 0xa4: sp -= 2; ip = s[sp] <= s[sp + 1] ? code[ip + 1] : ip + 2; break;                    // if_icmple
+                            case 0xa5: {                                                                                   // if_acmpeq
+                                sp -= 2;
+                                boolean same = r[sp] == r[sp + 1];
+                                clearRefs(r, sp, 2);
+                                ip = same ? code[ip + 1] : ip + 2;
+                                break;
+                            }
+                            case 0xa6: {                                                                                   // if_acmpne
+                                sp -= 2;
+                                boolean same = r[sp] == r[sp + 1];
+                                clearRefs(r, sp, 2);
+                                ip = !same ? code[ip + 1] : ip + 2;
+                                break;
+                            }
+                            case 0xc6: sp--; ip = r[sp] == null ? code[ip + 1] : ip + 2; r[sp] = null; break;              // ifnull
+                            case 0xc7: sp--; ip = r[sp] != null ? code[ip + 1] : ip + 2; r[sp] = null; break;              // ifnonnull
+                            // Control
+                            case 0xa7:                                                                                     // goto
+                                if (code[ip + 1] <= ip) {
+                                    backedges++;
+                                }
+                                ip = code[ip + 1];
+                                break;
+                            case 0xac:                                                                                     // ireturn
+                            case 0xae: s[base] = s[sp - 1]; break exit;                                                    // freturn
+                            case 0xad:                                                                                     // lreturn
+                            case 0xaf: s[base] = s[sp - 2]; s[base + 1] = s[sp - 1]; break exit;                           // dreturn
+                            case 0xb0: r[base] = r[sp - 1]; break exit;                                                    // areturn
+                            case 0xb1: break exit;                                                                         // return
+                            // References
+                            case 0xb2: sp = getStatic(cp.getFieldRef(code[ip + 1]).resolvedStaticField(), s, r, sp, depth); ip += 2; break; // getstatic
+                            case 0xb3: sp = putStatic(cp.getFieldRef(code[ip + 1]).resolvedStaticField(), s, r, sp, depth); ip += 2; break; // putstatic
+                            case 0xb4:                                                                                     // getfield
+                            case 0xb5: quickenField(code, ip, cp.getFieldRef(code[ip + 1]).resolvedInstanceField()); break; // putfield
+                            case FastCode.GETFIELD_NUM:
+                                s[sp - 1] = object(r[sp - 1]).getInt(slotOf(code, ip));
+                                r[sp - 1] = null;
+                                ip += 3;
+                                break;
+                            case FastCode.GETFIELD_WIDE: {
+                                RtObject object = object(r[sp - 1]);
+                                int slot = slotOf(code, ip);
+                                s[sp - 1] = object.getInt(slot);
+                                s[sp] = object.getInt(slot + 1);
+                                r[sp - 1] = null;
+                                sp++;
+                                ip += 3;
+                                break;
+                            }
+                            case FastCode.GETFIELD_REF: r[sp - 1] = object(r[sp - 1]).getRef(slotOf(code, ip)); ip += 3; break;
+                            case FastCode.PUTFIELD_NUM:
+                                sp -= 2;
+                                object(r[sp]).setInt(slotOf(code, ip), s[sp + 1]);
+                                r[sp] = null;
+                                ip += 3;
+                                break;
+                            case FastCode.PUTFIELD_WIDE: {
+                                sp -= 3;
+                                RtObject object = object(r[sp]);
+                                int slot = slotOf(code, ip);
+                                object.setInt(slot, s[sp + 1]);
+                                object.setInt(slot + 1, s[sp + 2]);
+                                r[sp] = null;
+                                ip += 3;
+                                break;
+                            }
+                            case FastCode.PUTFIELD_REF:
+                                sp -= 2;
+                                object(r[sp]).setRef(slotOf(code, ip), r[sp + 1]);
+                                clearRefs(r, sp, 2);
+                                ip += 3;
+                                break;
+                            case 0xb6: {                                                                                   // invokevirtual
+                                RtMethodRef methodRef = cp.getMethodRef(code[ip + 1]);
+                                sp -= methodRef.resolvedMethod().getArgSlotCount();
+                                RtObject receiver = (RtObject) r[sp];
+                                if (receiver == null) {
+                                    throw new NullPointerException("Cannot invoke " + methodRef + " on null");
+                                }
+                                callee = methodRef.selectVirtualMethod(receiver.getRtClass());
+                                ip += 2;
+                                break call;
+                            }
+                            case 0xb7: {                                                                                   // invokespecial
+                                callee = cp.getMethodRef(code[ip + 1]).specialMethod();
+                                sp -= callee.getArgSlotCount();
+                                if (r[sp] == null) {
+                                    throw new NullPointerException("Cannot invoke " + callee + " on null");
+                                }
+                                ip += 2;
+                                break call;
+                            }
+                            case 0xb8: {                                                                                   // invokestatic
+                                callee = cp.getMethodRef(code[ip + 1]).resolvedStaticMethod();
+                                if (!callee.getRtClass().isInitialized()) {
+                                    initClass(callee.getRtClass(), s, r, sp, depth);
+                                }
+                                sp -= callee.getArgSlotCount();
+                                ip += 2;
+                                break call;
+                            }
+                            case 0xb9: {                                                                                   // invokeinterface
+                                RtMethodRef methodRef = cp.getMethodRef(code[ip + 1]);
+                                sp -= methodRef.resolvedMethod().getArgSlotCount();
+                                RtObject receiver = (RtObject) r[sp];
+                                if (receiver == null) {
+                                    throw new NullPointerException("Cannot invoke " + methodRef + " on null");
+                                }
+                                callee = fastCode.getInlineCache(code[ip + 2]).lookup(methodRef, receiver.getRtClass());
+                                ip += 3;
+                                break call;
+                            }
+                            case 0xbb: {                                                                                   // new
+                                RtClass rtClass = cp.getClassRef(code[ip + 1]).resolvedClass();
+                                if (!rtClass.isInitialized()) {
+                                    initClass(rtClass, s, r, sp, depth);
+                                }
+                                r[sp++] = rtClass.newObject();
+                                ip += 2;
+                                break;
+                            }
+                            case 0xbc:                                                                                     // newarray
+                                r[sp - 1] = method.getRtClass().getLoader().loadPrimitiveArrayClass(code[ip + 1]).newArray(s[sp - 1]);
+                                ip += 2;
+                                break;
+                            case 0xbd:                                                                                     // anewarray
+                                r[sp - 1] = cp.getClassRef(code[ip + 1]).resolvedClass().arrayClass().newArray(s[sp - 1]);
+                                ip += 2;
+                                break;
+                            case 0xbe: s[sp - 1] = ((RtArray) r[sp - 1]).length(); r[sp - 1] = null; ip++; break;         // arraylength
+                            case 0xbf: throw ATHROW.uncaught(r[sp - 1]);                                                  // athrow
+                            case 0xc2: sp--; ObjectMonitor.enter(monitor(r[sp])); r[sp] = null; ip++; break;                // monitorenter
+                            case 0xc3: sp--; ObjectMonitor.exit(monitor(r[sp])); r[sp] = null; ip++; break;                 // monitorexit
+                            case 0xc5: {                                                                                   // multianewarray
+                                int dimensions = code[ip + 2];
+                                sp -= dimensions;
+                                int[] counts = Arrays.copyOfRange(s, sp, sp + dimensions);
+                                r[sp++] = cp.getClassRef(code[ip + 1]).resolvedClass().newMultiArray(counts);
+                                ip += 3;
+                                break;
+                            }
+                            case FastCode.UNSUPPORTED:
+                                throw UnsupportedInstruction.unsupported(code[ip + 1]);
+                            default:
+                                throw new IllegalStateException("Unexpected opcode in fast code: " + String.format("0x%x", code[ip]));
+                        }
+                        continue;
+                    }
+
+                    // 返回序列：返回值已经在 base 处，回到调用者
+                    method.addBackedges(backedges);
+                    if (top == 0) {
+                        return;
+                    }
+                    Activation done = stack[top];
+                    leave(done);
+                    int results = method.getReturnSlotCount();
+                    Activation caller = stack[--top];
+                    if (done.segment) {
+                        System.arraycopy(s, 0, caller.s, caller.sp, results);
+                        System.arraycopy(r, 0, caller.r, caller.sp, results);
+                    }
+                    done.clear();
+                    method = caller.method;
+                    fastCode = caller.fastCode;
+                    cp = caller.cp;
+                    code = fastCode.getCode();
+                    s = caller.s;
+                    r = caller.r;
+                    base = caller.base;
+                    sp = caller.sp + results;
+                    ip = caller.ip;
+                    backedges = caller.backedges;
+                    depth--;
+                    continue;
+                }
+
+                // 调用序列：参数在 s/r 中从 sp 开始，ip 已经指向调用指令的下一条。
+                // native 方法和编译过的方法直接在宿主上调用，解释执行的方法压入 Activation 栈，在这个循环里接着执行
+                RtMethod target = callee;
+                callee = null;
+                if (depth + 1 > maxDepth) {
+                    throw new StackOverflowError("Stack depth exceeds " + maxDepth + " frames");
+                }
+                NativeMethod nativeMethod = target.getNativeMethod();
+                if (nativeMethod != null) {
+                    nativeMethod.invoke(s, r, sp);
+                    sp += target.getReturnSlotCount();
+                    continue;
+                }
+                if (compiler != null) {
+                    CompiledMethod compiled = compiler.onInvoke(target);
+                    if (compiled != null) {
+                        compiled.invoke(s, r, sp);
+                        sp += target.getReturnSlotCount();
+                        continue;
+                    }
+                }
+                CodeAttribute codeAttribute = target.getCodeAttribute();
+                if (codeAttribute == null) {
+                    throw new UnsupportedOperationException("Native or abstract method: " + target.getName() + target.getDescriptor());
+                }
+
+                Activation caller = stack[top];
+                caller.method = method;
+                caller.fastCode = fastCode;
+                caller.cp = cp;
+                caller.s = s;
+                caller.r = r;
+                caller.base = base;
+                caller.ip = ip;
+                caller.sp = sp;
+                caller.backedges = backedges;
+                if (++top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                Activation frame = stack[top];
+                if (frame == null) {
+                    frame = new Activation();
+                    stack[top] = frame;
+                }
+
+                // 当前数组放不下被调用方法的栈帧时换一段新数组，把参数复制过去，返回时再把返回值复制回来；新数组在使用期间注册为 GC 的根
+                int frameSize = codeAttribute.getMaxLocals() + codeAttribute.getMaxStack();
+                if (sp + frameSize > s.length) {
+                    int size = Math.max(SEGMENT_SLOTS, frameSize);
+                    int[] segment = new int[size];
+                    Object[] segmentRefs = new Object[size];
+                    int args = target.getArgSlotCount();
+                    System.arraycopy(s, sp, segment, 0, args);
+                    System.arraycopy(r, sp, segmentRefs, 0, args);
+                    target.getRtClass().getLoader().getHeap().addRoots(segmentRefs);
+                    frame.segment = true;
+                    s = segment;
+                    r = segmentRefs;
+                    sp = 0;
+                }
+                frame.method = target;
+                frame.s = s;
+                frame.r = r;
+                if (target.isSynchronized()) {
+                    frame.monitor = ObjectMonitor.enterMethod(target, r[sp]);
+                }
+                method = target;
+                fastCode = target.getFastCode();
+                cp = target.getRtClass().getConstantPool();
+                code = fastCode.getCode();
+                base = sp;
+                sp = base + codeAttribute.getMaxLocals();
+                ip = 0;
+                backedges = 0;
+                depth++;
+            }
+        } finally {
+            // 宿主异常穿过这里时，释放还没有返回的方法持有的锁和换出的槽位数组；stack[0] 由 invoke/enterFrame 负责
+            for (int i = top; i > 0; i--) {
+                leave(stack[i]);
+                stack[i].clear();
+            }
+        }
+    }
+
+    // 被调用者返回或者异常穿过它时：释放 synchronized 方法的锁，注销换出的槽位数组
+    private static void leave(Activation frame) {
+        if (frame.monitor != null) {
+            ObjectMonitor.exitMethod(frame.monitor);
+        }
+        if (frame.segment) {
+            frame.method.getRtClass().getLoader().getHeap().removeRoots(frame.r);
+        }
+    }
+
+    /**
+     * execute 循环里一个还没有返回的方法。
+     * 它调用其他方法时，ip、sp 等局部状态保存在这里，被调用者返回时恢复；对象按调用深度复用，不是每次调用都分配
+     */
+    private static final class Activation {
+        RtMethod method;
+        FastCode fastCode;
+        RtConstantPool cp;
+        int[] s;
+        Object[] r;
+        int base;
+        int ip; // 调用指令的下一条
+        int sp; // 被调用者的参数开始处，返回值写回这里
+        long backedges;
+        Object monitor; // synchronized 方法持有的锁，没有时为 null
+        boolean segment; // 栈帧在新换的一段槽位数组里
+
+        // 返回后清掉引用，复用的对象不会让已经返回的方法的槽位数组一直可达
+        void clear() {
+            method = null;
+            fastCode = null;
+            cp = null;
+            s = null;
+            r = null;
+            monitor = null;
+            segment = false;
+        }
+    }
+
+    // ---- 字段访问 ----
+
+    /**
+     * 把 getfield/putfield 改写成按字段类别区分的快速形式：先填槽位号，再改 opcode，ip 不变，接着执行快速形式
+     */
+    private static void quickenField(int[] code, int ip, RtField field) {
+        boolean get = code[ip] == 0xb4;
+        code[ip + 2] = field.getSlotId();
+        int quick;
+        if (field.isReference()) {
+            quick = get ? FastCode.GETFIELD_REF : FastCode.PUTFIELD_REF;
+        } else if (field.isLongOrDouble()) {
+            quick = get ? FastCode.GETFIELD_WIDE : FastCode.PUTFIELD_WIDE;
+        } else {
+            quick = get ? FastCode.GETFIELD_NUM : FastCode.PUTFIELD_NUM;
+        }
+        // 指令流被所有客体线程共享：release 写保证其他线程看到快速形式时也看到填好的槽位号，读的一方见 slotOf
+        CODE.setRelease(code, ip, quick);
+    }
+
+    /**
+     * 快速形式的槽位号。分派时 opcode 是普通读，这里的 acquire 屏障让之后的读不会早于它，
+     * 和 quickenField 的 release 写配对，其他线程刚改写的指令不会读到还没填好的槽位号
+     */
+    private static int slotOf(int[] code, int ip) {
+        VarHandle.acquireFence();
+        return code[ip + 2];
+    }
+
+    private static RtObject object(Object ref) {
+        if (ref == null) {
+            throw new NullPointerException("Cannot access a field of null");
+        }
+        return (RtObject) ref;
+    }
+
+    private static RtObject monitor(Object ref) {
+        if (ref == null) {
+            throw new NullPointerException("Cannot synchronize on null");
+        }
+        return (RtObject) ref;
+    }
+
+    // getstatic：声明字段的类还没有初始化时先初始化，返回新的 sp
+    private int getStatic(RtField field, int[] s, Object[] r, int sp, int depth) {
+        RtClass rtClass = field.getRtClass();
+        if (!rtClass.isInitialized()) {
+            initClass(rtClass, s, r, sp, depth);
+        }
+        int slot = field.getSlotId();
+        if (field.isReference()) {
+            r[sp] = rtClass.getStaticRefs()[slot];
+            return sp + 1;
+        }
+        int[] nums = rtClass.getStaticNums();
+        s[sp] = nums[slot];
+        if (field.isLongOrDouble()) {
+            s[sp + 1] = nums[slot + 1];
+            return sp + 2;
+        }
+        return sp + 1;
+    }
+
+    // putstatic：声明字段的类还没有初始化时先初始化，返回新的 sp
+    private int putStatic(RtField field, int[] s, Object[] r, int sp, int depth) {
+        RtClass rtClass = field.getRtClass();
+        if (!rtClass.isInitialized()) {
+            initClass(rtClass, s, r, sp, depth);
+        }
+        int slot = field.getSlotId();
+        if (field.isReference()) {
+            rtClass.getStaticRefs()[slot] = r[sp - 1];
+            r[sp - 1] = null;
+            return sp - 1;
+        }
+        int[] nums = rtClass.getStaticNums();
+        if (field.isLongOrDouble()) {
+            nums[slot] = s[sp - 2];
+            nums[slot + 1] = s[sp - 1];
+            return sp - 2;
+        }
+        nums[slot] = s[sp - 1];
+        return sp - 1;
+    }
+
+    // ---- 槽位读写，布局和 LocalVars/OperandStack 相同 ----
+
+    private static long getLong(int[] s, int i) {
+        return ((long) s[i + 1] << 32) | (s[i] & 0xFFFFFFFFL);
+    }
+
+    private static void setLong(int[] s, int i, long value) {
+        s[i] = (int) value;
+        s[i + 1] = (int) (value >>> 32);
+    }
+
+    private static float getFloat(int[] s, int i) {
+        return Float.intBitsToFloat(s[i]);
+    }
+
+    private static void setFloat(int[] s, int i, float value) {
+        s[i] = Float.floatToRawIntBits(value);
+    }
+
+    private static double getDouble(int[] s, int i) {
+        return Double.longBitsToDouble(getLong(s, i));
+    }
+
+    private static void setDouble(int[] s, int i, double value) {
+        setLong(s, i, Double.doubleToRawLongBits(value));
+    }
+
+    // fcmp<op>/dcmp<op>：有 NaN 时压入 nanResult
+    private static int compare(double v1, double v2, int nanResult) {
+        if (v1 > v2) {
+            return 1;
+        } else if (v1 == v2) {
+            return 0;
+        } else if (v1 < v2) {
+            return -1;
+        }
+        return nanResult;
+    }
+
+    // ---- 栈操作，和 OperandStack 的同名方法语义相同 ----
+
+    private static void dup(int[] s, Object[] r, int sp, int n, int depth) {
+        int base = sp - n - depth;
+        System.arraycopy(s, base, s, base + n, n + depth);
+        System.arraycopy(s, base + depth + n, s, base, n);
+        System.arraycopy(r, base, r, base + n, n + depth);
+        System.arraycopy(r, base + depth + n, r, base, n);
+    }
+
+    private static void swap(int[] s, Object[] r, int sp) {
+        int num = s[sp - 1];
+        s[sp - 1] = s[sp - 2];
+        s[sp - 2] = num;
+        Object ref = r[sp - 1];
+        r[sp - 1] = r[sp - 2];
+        r[sp - 2] = ref;
+    }
+
+    private static void clearRefs(Object[] r, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            r[i] = null;
+        }
+    }
+}
@@ -1,27 +1,98 @@
 package tinyjvm;
 
-import tinyjvm.classfile.MemberInfo;
+import tinyjvm.instructions.DecodedCode;
+import tinyjvm.instructions.Instruction;
+import tinyjvm.jit.TierUpCompiler;
 import tinyjvm.runtime.Frame;
 import tinyjvm.runtime.JvmThread;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtMethod;
+import tinyjvm.runtime.heap.RtObject;
+import tinyjvm.trace.Tracer;
 
-public class Interpreter {
-    public void interpret(MemberInfo method) {
-        // 创建一个线程
-        JvmThread thread = new JvmThread();
+import java.util.function.Supplier;
 
-        // 为要执行的方法创建一个栈帧
-        Frame frame = new Frame(thread, method);
+public class Interpreter implements ExecutionEngine {
+    // 为 null 时不跟踪，解释循环里只多一次判空；跟踪时每个客体线程用它创建自己的 Tracer，Tracer 不需要线程安全
+    private final Supplier<Tracer> tracerFactory;
+    // 为 null 时不编译热点方法
+    private final TierUpCompiler compiler;
+    private final int maxDepth;
 
-        // 将栈帧推入线程的虚拟机栈
-        thread.pushFrame(frame);
+    public Interpreter(Supplier<Tracer> tracerFactory) {
+        this(tracerFactory, null, JvmThread.DEFAULT_MAX_DEPTH);
+    }
+
+    public Interpreter(Supplier<Tracer> tracerFactory, TierUpCompiler compiler, int maxDepth) {
+        this.tracerFactory = tracerFactory;
+        this.compiler = compiler;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void interpret(RtMethod method) {
+        // 创建一个线程，对象分配在加载主类的类加载器的堆上
+        RtClass rtClass = method.getRtClass();
+        JvmThread thread = new JvmThread(maxDepth, compiler, rtClass.getLoader().getHeap());
+        Tracer tracer = tracerFactory == null ? null : tracerFactory.get();
+        try {
+            // 方法所在的类还没有初始化时，先执行 <clinit>
+            if (!rtClass.isInitialized()) {
+                thread.initClass(rtClass);
+                loop(thread, tracer);
+            }
+
+            // 为要执行的方法创建栈帧并推入线程的虚拟机栈 (方法已经编译时直接执行完)
+            thread.invokeEntry(method);
+
+            // 开始执行循环
+            loop(thread, tracer);
+        } finally {
+            thread.terminate();
+            finishTrace(tracer);
+        }
+    }
+
+    @Override
+    public void runThread(RtMethod runMethod, RtObject threadObject) {
+        JvmThread thread = new JvmThread(maxDepth, compiler, runMethod.getRtClass().getLoader().getHeap());
+        Tracer tracer = tracerFactory == null ? null : tracerFactory.get();
+        try {
+            thread.invokeEntry(runMethod, threadObject);
+            loop(thread, tracer);
+        } finally {
+            thread.terminate();
+            finishTrace(tracer);
+        }
+    }
 
-        // 开始执行循环
-        loop(thread);
+    // 线程结束 (包括异常结束) 时输出它的跟踪结果；多个线程的结果不交错
+    private static void finishTrace(Tracer tracer) {
+        if (tracer != null) {
+            synchronized (System.out) {
+                tracer.finish();
+            }
+        }
     }
 
-    private void loop(JvmThread thread) {
-        // 这是一个简化的实现，真正的实现应该在 loop 方法内部
-        // BytecodeReader reader = new BytecodeReader();
-        // ... loop logic ...
+    private void loop(JvmThread thread, Tracer tracer) {
+        // 指令流在方法第一次执行时预解码并缓存，循环中只按 PC 取出现成的指令对象。
+        // 不跟踪时使用融合了超级指令的指令流；跟踪时使用原始指令流，保证每条字节码都被看到
+        while (!thread.isStackEmpty()) {
+            Frame frame = thread.currentFrame();
+            int pc = frame.getNextPC();
+            thread.setPC(pc);
+
+            RtMethod method = frame.getMethod();
+            DecodedCode code = tracer == null ? method.getFusedCode() : method.getDecodedCode();
+            Instruction instruction = code.getInstruction(pc);
+            frame.setNextPC(code.getNextPC(pc));
+
+            if (tracer != null) {
+                tracer.beforeExecute(frame, pc, code.getOpcode(pc), instruction);
+            }
+
+            instruction.execute(frame);
+        }
     }
 }
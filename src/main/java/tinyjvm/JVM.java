@@ -1,14 +1,19 @@
 package tinyjvm;
 
-import tinyjvm.classfile.ClassFile;
-import tinyjvm.classfile.MemberInfo;
+import tinyjvm.classpath.ClassArchive;
 import tinyjvm.classpath.Classpath;
-import tinyjvm.instructions.BytecodeReader;
-import tinyjvm.instructions.Instruction;
-import tinyjvm.instructions.InstructionFactory;
+import tinyjvm.jit.TierUpCompiler;
+import tinyjvm.natives.ThreadNatives;
 import tinyjvm.runtime.ClassLoader;
-import tinyjvm.runtime.Frame;
-import tinyjvm.runtime.JvmThread;
+import tinyjvm.runtime.heap.Heap;
+import tinyjvm.runtime.heap.HostHeap;
+import tinyjvm.runtime.heap.OffHeap;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtMethod;
+import tinyjvm.trace.Tracer;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 public class JVM {
     public static void main(String[] args) {
@@ -23,68 +28,122 @@ public class JVM {
     }
 
     private void start(Cmd cmd) {
-        // 2. 初始化 Classpath 和 ClassLoader
-        Classpath cp = new Classpath(cmd.getXjreOption(), cmd.getCpOption());
-        ClassLoader classLoader = new ClassLoader(cp);
-
-        // 3. 加载主类
-        String mainClassName = cmd.getMainClass().replace('.', '/'); // 将 a.b.c 格式转换为 a/b/c
-        ClassFile mainClassFile = classLoader.loadClass(mainClassName);
-        if (mainClassFile == null) {
-            System.err.println("Could not load main class: " + cmd.getMainClass());
-            return;
+        // 2. 初始化 Classpath、堆和 ClassLoader；虚拟机结束时关闭 Classpath，释放打开的 JAR 文件
+        try (Classpath cp = new Classpath(cmd.getXjreOption(), cmd.getCpOption())) {
+            Heap heap = createHeap(cmd);
+            ClassLoader classLoader = new ClassLoader(cp, heap, openArchive(cmd, cp), verifyMode(cmd));
+
+            // 3. 加载主类，-Xpreload:on 时先在 fork-join 池上并行加载主类能引用到的所有类
+            String mainClassName = cmd.getMainClass().replace('.', '/'); // 将 a.b.c 格式转换为 a/b/c
+            preload(cmd, classLoader, mainClassName);
+            RtClass mainClass = classLoader.loadClass(mainClassName);
+            if (mainClass == null) {
+                System.err.println("Could not load main class: " + cmd.getMainClass());
+                return;
+            }
+
+            // 4. 查找 main 方法
+            RtMethod mainMethod = mainClass.getMainMethod();
+            if (mainMethod == null) {
+                System.err.println("Main method not found in class " + cmd.getMainClass());
+                return;
+            }
+
+            // --- 整合所有组件，启动解释器 ---
+            System.out.println("Starting JVM to run: " + cmd.getMainClass());
+
+            // 5. 创建执行引擎并开始执行，-Xengine 选择引擎，-Xtrace 决定是否跟踪每条指令，-Xjit 决定是否编译热点方法，-Xss 限制栈深度
+            ExecutionEngine engine = createEngine(cmd);
+            ThreadNatives.setEngine(engine);
+            engine.interpret(mainMethod);
+            // 和真实的 JVM 一样，等所有客体线程结束后才退出
+            ThreadNatives.joinAll();
+
+            if (cmd.isVerboseGcFlag()) {
+                heap.printStatistics(System.out);
+            }
+            // -Xshare:dump：把这次运行加载过、并且通过校验的类写进共享归档，之后用 -Xshare:on 启动
+            if ("dump".equals(cmd.getXshareOption())) {
+                int count = ClassArchive.dump(Paths.get(cmd.getSharedArchiveFile()), cp, classLoader.getArchivableClassNames());
+                System.out.println("Dumped " + count + " classes to " + cmd.getSharedArchiveFile());
+            }
+            System.out.println("JVM finished execution.");
         }
+    }
 
-        // 4. 查找 main 方法
-        MemberInfo mainMethod = mainClassFile.getMainMethod();
-        if (mainMethod == null) {
-            System.err.println("Main method not found in class " + cmd.getMainClass());
-            return;
+    // -Xshare:on 时映射共享归档；归档不存在或已经过期时返回 null，类从类路径加载
+    private ClassArchive openArchive(Cmd cmd, Classpath cp) {
+        switch (cmd.getXshareOption()) {
+            case "off":
+            case "dump":
+                return null;
+            case "on":
+                return ClassArchive.open(Paths.get(cmd.getSharedArchiveFile()), cp);
+            default:
+                throw new IllegalArgumentException("Unknown -Xshare option: " + cmd.getXshareOption());
         }
-
-        // --- 整合所有组件，启动解释器 ---
-        System.out.println("Starting JVM to run: " + cmd.getMainClass());
-
-        // 5. 创建一个线程和初始栈帧
-        JvmThread thread = new JvmThread();
-        Frame initialFrame = new Frame(thread, mainMethod);
-        thread.pushFrame(initialFrame);
-
-        // 6. 开始解释执行
-        // 注意：在实际应用中，Interpreter 应该是被注入或创建的，而不是直接在 loop 中写逻辑
-        // 但为了简单，我们假设 Interpreter 的逻辑在某个地方被调用
-        // 我们直接在这里调用解释循环
-        loop(thread);
-
-        System.out.println("JVM finished execution.");
     }
 
-    // 这个 loop 方法就是我们之前在 Interpreter.java 中设计的核心循环
-    private void loop(JvmThread thread) {
-        // 实现与阶段四中 Interpreter.loop() 完全相同
-        // 你可以把那里的代码直接复制过来，或者创建一个 Interpreter 对象并调用它的 interpret 方法
-        // 这里为了完整性，我们再写一遍
-        BytecodeReader reader = new BytecodeReader();
-
-        while (!thread.isStackEmpty()) {
-            Frame frame = thread.currentFrame();
-            int pc = frame.getNextPC();
-            thread.setPC(pc);
-
-            reader.reset(frame.getMethod().getCodeAttribute().getCode(), pc);
-            int opcode = reader.readUint8();
+    // -Xverify：第一次执行一个类的字节码之前是否校验它
+    private int verifyMode(Cmd cmd) {
+        switch (cmd.getXverifyOption()) {
+            case "none":
+                return ClassLoader.VERIFY_NONE;
+            case "remote":
+                return ClassLoader.VERIFY_REMOTE;
+            case "all":
+                return ClassLoader.VERIFY_ALL;
+            default:
+                throw new IllegalArgumentException("Unknown -Xverify option: " + cmd.getXverifyOption());
+        }
+    }
 
-            Instruction instruction =
-                    InstructionFactory.create(opcode);
+    private void preload(Cmd cmd, ClassLoader classLoader, String mainClassName) {
+        switch (cmd.getXpreloadOption()) {
+            case "off":
+                return;
+            case "on":
+                classLoader.preload(mainClassName, ForkJoinPool.commonPool());
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown -Xpreload option: " + cmd.getXpreloadOption());
+        }
+    }
 
-            instruction.fetchOperands(reader);
-            frame.setNextPC(reader.getPC());
+    private Heap createHeap(Cmd cmd) {
+        switch (cmd.getXheapOption()) {
+            case "onheap":
+                return HostHeap.INSTANCE;
+            case "offheap":
+                return new OffHeap(cmd.getXmxOption() / 2, cmd.isVerboseGcFlag());
+            default:
+                throw new IllegalArgumentException("Unknown -Xheap option: " + cmd.getXheapOption());
+        }
+    }
 
-            System.out.printf("PC: %2d | Opcode: 0x%02x | Inst: %-15s | OperandStack: %-30s | LocalVars: %s\n",
-                    pc, opcode, instruction.getClass().getSimpleName(),
-                    frame.getOperandStack(), frame.getLocalVars());
+    private ExecutionEngine createEngine(Cmd cmd) {
+        TierUpCompiler compiler;
+        switch (cmd.getXjitOption()) {
+            case "off":
+                compiler = null;
+                break;
+            case "on":
+                compiler = new TierUpCompiler();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown -Xjit option: " + cmd.getXjitOption());
+        }
 
-            instruction.execute(frame);
+        switch (cmd.getXengineOption()) {
+            case "reference":
+                return new Interpreter(Tracer.factory(cmd.getXtraceOption()), compiler, cmd.getXssOption());
+            case "fast":
+                if (!"none".equals(cmd.getXtraceOption())) {
+                    System.err.println("Warning: -Xtrace is not supported by the fast engine, ignored");
+                }
+                return new FastInterpreter(compiler, cmd.getXssOption());
+            default:
+                throw new IllegalArgumentException("Unknown execution engine: " + cmd.getXengineOption());
         }
     }
 }
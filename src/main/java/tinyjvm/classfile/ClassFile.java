@@ -1,8 +1,11 @@
 package tinyjvm.classfile;
 
-// We will create these classes in the next steps
 import tinyjvm.classfile.constantpool.ConstantPool;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 public class ClassFile {
     // Magic number, must be 0xCAFEBABE
     public int magic;
@@ -18,7 +21,10 @@ public class ClassFile {
     public MemberInfo[] fields;
     public MemberInfo[] methods;
 
-    // We'll skip attributes at the ClassFile level for now to keep it simple
+    // Built on the first getMethod call, so parsing itself never decodes member names
+    private volatile MemberTable<MemberInfo> methodTable;
+
+    // Class-level attributes are not kept; a ClassFileVisitor can ask for them
     private ClassFile() {}
 
     /**
@@ -27,54 +33,160 @@ public class ClassFile {
      * @return A parsed ClassFile object.
      */
     public static ClassFile parse(byte[] classData) {
-        ClassReader reader = new ClassReader(classData);
+        return parse(ByteBuffer.wrap(classData));
+    }
+
+    /**
+     * Parses class data held in a ByteBuffer, e.g. a slice of a memory-mapped file.
+     * Only the constant pool index and the member tables are built: each member just records where its
+     * attributes start, and decodes them (e.g. the Code attribute) the first time they are asked for.
+     * Method code is kept as a view into this buffer rather than copied.
+     * @param classData The class file bytes, from position to limit.
+     * @return A parsed ClassFile object.
+     */
+    public static ClassFile parse(ByteBuffer classData) {
         ClassFile cf = new ClassFile();
+        accept(classData, cf.new Builder());
+        return cf;
+    }
+
+    /**
+     * Streams a class file through a visitor in a single pass without building a ClassFile.
+     * Attributes the visitor does not ask for are skipped by their length.
+     * @param classData The class file bytes, from position to limit.
+     */
+    public static void accept(ByteBuffer classData, ClassFileVisitor visitor) {
+        ClassReader reader = new ClassReader(classData);
 
         // 1. Read Magic Number & Versions
-        cf.readAndCheckMagic(reader);
-        cf.readAndCheckVersion(reader);
+        if (reader.readU4() != 0xCAFEBABE) {
+            throw new ClassFormatError("Invalid magic number!");
+        }
+        int minorVersion = reader.readU2();
+        int majorVersion = reader.readU2();
+        visitor.visitHeader(minorVersion, majorVersion);
 
-        // 2. Read Constant Pool (The most complex part)
-        // This will be implemented in the next steps
-         cf.constantPool = ConstantPool.read(reader);
+        // 2. Index the Constant Pool; entries are decoded lazily
+        ConstantPool constantPool = ConstantPool.read(reader);
+        visitor.visitConstantPool(constantPool);
 
         // 3. Read Access Flags, This/Super Class, Interfaces
-         cf.accessFlags = reader.readU2();
-         cf.thisClass = reader.readU2();
-         cf.superClass = reader.readU2();
-         cf.interfaces = reader.readU2Array();
-
-        // 4. Read Fields and Methods
-        // These will be implemented in later steps
-         cf.fields = MemberInfo.readMembers(reader, cf.constantPool);
-         cf.methods = MemberInfo.readMembers(reader, cf.constantPool);
-
-        // For now, let's just parse the magic and version to test
-        System.out.println("Magic: " + String.format("0x%X", cf.magic));
-        System.out.println("Major Version: " + cf.majorVersion);
-        System.out.println("Minor Version: " + cf.minorVersion);
-        // ---- NEW TEST CODE ----
-        System.out.println("Constant pool count: " + cf.constantPool.getInfos().length);
-        return cf;
+        int accessFlags = reader.readU2();
+        int thisClass = reader.readU2();
+        int superClass = reader.readU2();
+        visitor.visitClass(accessFlags, thisClass, superClass, reader.readU2Array());
+
+        // 4. Fields and Methods
+        int fieldCount = reader.readU2();
+        for (int i = 0; i < fieldCount; i++) {
+            int flags = reader.readU2();
+            int nameIndex = reader.readU2();
+            int descriptorIndex = reader.readU2();
+            boolean report = visitor.visitField(flags, nameIndex, descriptorIndex, reader.at(reader.position()));
+            acceptAttributes(reader, constantPool, visitor, report);
+        }
+        int methodCount = reader.readU2();
+        for (int i = 0; i < methodCount; i++) {
+            int flags = reader.readU2();
+            int nameIndex = reader.readU2();
+            int descriptorIndex = reader.readU2();
+            boolean report = visitor.visitMethod(flags, nameIndex, descriptorIndex, reader.at(reader.position()));
+            acceptAttributes(reader, constantPool, visitor, report);
+        }
+
+        // 5. Class attributes (SourceFile, InnerClasses, ...)
+        acceptAttributes(reader, constantPool, visitor, visitor.visitClassAttributes());
+        visitor.visitEnd();
     }
 
-    private void readAndCheckMagic(ClassReader reader) {
-        this.magic = reader.readU4();
-        if (this.magic != 0xCAFEBABE) {
-            throw new ClassFormatError("Invalid magic number!");
+    // Reports each attribute to the visitor, or just steps over the whole table
+    private static void acceptAttributes(ClassReader reader, ConstantPool constantPool, ClassFileVisitor visitor, boolean report) {
+        int count = reader.readU2();
+        for (int i = 0; i < count; i++) {
+            int nameIndex = reader.readU2();
+            int length = reader.readU4();
+            if (report) {
+                visitor.visitAttribute(constantPool.getUtf8(nameIndex), new ClassReader(reader.readSlice(length)));
+            } else {
+                reader.skip(length);
+            }
         }
     }
 
-    private void readAndCheckVersion(ClassReader reader) {
-        this.minorVersion = reader.readU2();
-        this.majorVersion = reader.readU2();
-        // You can add checks here, e.g., majorVersion must be between 45 and 61 (Java 1.1 to 17)
+    // Fills in a ClassFile from the visitor callbacks; members keep only the offset of their attributes
+    private final class Builder implements ClassFileVisitor {
+        private final List<MemberInfo> fieldList = new ArrayList<>();
+        private final List<MemberInfo> methodList = new ArrayList<>();
+
+        @Override
+        public void visitHeader(int minor, int major) {
+            magic = 0xCAFEBABE;
+            minorVersion = minor;
+            majorVersion = major;
+        }
+
+        @Override
+        public void visitConstantPool(ConstantPool pool) {
+            constantPool = pool;
+        }
+
+        @Override
+        public void visitClass(int flags, int thisIndex, int superIndex, int[] interfaceIndexes) {
+            accessFlags = flags;
+            thisClass = thisIndex;
+            superClass = superIndex;
+            interfaces = interfaceIndexes;
+        }
+
+        @Override
+        public boolean visitField(int flags, int nameIndex, int descriptorIndex, ClassReader attributes) {
+            fieldList.add(new MemberInfo(constantPool, flags, nameIndex, descriptorIndex, attributes));
+            return false;
+        }
+
+        @Override
+        public boolean visitMethod(int flags, int nameIndex, int descriptorIndex, ClassReader attributes) {
+            methodList.add(new MemberInfo(constantPool, flags, nameIndex, descriptorIndex, attributes));
+            return false;
+        }
+
+        @Override
+        public void visitEnd() {
+            fields = fieldList.toArray(new MemberInfo[0]);
+            methods = methodList.toArray(new MemberInfo[0]);
+        }
     }
 
-    // Helper methods to get class names, etc. (we'll add these later)
+    // Helper methods to get class names, etc.
     public String getClassName() {
-        // return this.constantPool.getClassName(this.thisClass);
-        return "Not implemented yet";
+        return this.constantPool.getClassName(this.thisClass);
+    }
+
+    // Internal name of the superclass, or null for java/lang/Object
+    public String getSuperClassName() {
+        return this.superClass == 0 ? null : this.constantPool.getClassName(this.superClass);
+    }
+
+    // Internal names of the direct superinterfaces
+    public String[] getInterfaceNames() {
+        String[] names = new String[interfaces.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = this.constantPool.getClassName(interfaces[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Finds a method declared in this class (not its superclasses).
+     * @return the method, or null if there is none with this name and descriptor
+     */
+    public MemberInfo getMethod(String name, String descriptor) {
+        MemberTable<MemberInfo> table = methodTable;
+        if (table == null) {
+            table = new MemberTable<>(methods, MemberInfo::getName, MemberInfo::getDescriptor);
+            methodTable = table;
+        }
+        return table.get(name, descriptor);
     }
 
     /**
@@ -83,12 +195,6 @@ public class ClassFile {
      * @return 如果找到，返回对应的 MemberInfo 对象；否则返回 null。
      */
     public MemberInfo getMainMethod() {
-        for (MemberInfo method : methods) {
-            // 同时检查方法名和描述符
-            if ("main".equals(method.getName()) && "([Ljava/lang/String;)V".equals(method.getDescriptor())) {
-                return method;
-            }
-        }
-        return null; // 没有找到 main 方法
+        return getMethod("main", "([Ljava/lang/String;)V"); // 同时检查方法名和描述符
     }
 }
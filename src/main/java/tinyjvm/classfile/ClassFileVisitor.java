@@ -0,0 +1,56 @@
+package tinyjvm.classfile;
+
+import tinyjvm.classfile.constantpool.ConstantPool;
+
+/**
+ * Callbacks for {@link ClassFile#accept}, made in class file order while the bytes are scanned once.
+ * Every callback has an empty default, so a visitor only overrides what it needs.
+ * Member and class attributes are skipped by length unless the visitor asks for them,
+ * so a visitor that only looks at names never decodes a single attribute.
+ */
+public interface ClassFileVisitor {
+
+    default void visitHeader(int minorVersion, int majorVersion) {
+    }
+
+    // The pool is indexed but not decoded; entries are decoded on first access
+    default void visitConstantPool(ConstantPool constantPool) {
+    }
+
+    default void visitClass(int accessFlags, int thisClass, int superClass, int[] interfaces) {
+    }
+
+    /**
+     * @param attributes a reader positioned at the field's attributes_count, usable after the call returns
+     * @return true to have each of the field's attributes reported through visitAttribute
+     */
+    default boolean visitField(int accessFlags, int nameIndex, int descriptorIndex, ClassReader attributes) {
+        return false;
+    }
+
+    /**
+     * @param attributes a reader positioned at the method's attributes_count, usable after the call returns
+     * @return true to have each of the method's attributes reported through visitAttribute
+     */
+    default boolean visitMethod(int accessFlags, int nameIndex, int descriptorIndex, ClassReader attributes) {
+        return false;
+    }
+
+    /**
+     * Called after all members, before the class's own attributes.
+     * @return true to have each class attribute reported through visitAttribute
+     */
+    default boolean visitClassAttributes() {
+        return false;
+    }
+
+    /**
+     * An attribute of the member just visited, or of the class after visitClassAttributes.
+     * @param info a reader over exactly the attribute's info bytes
+     */
+    default void visitAttribute(String name, ClassReader info) {
+    }
+
+    default void visitEnd() {
+    }
+}
@@ -1,56 +1,90 @@
 package tinyjvm.classfile;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
+import tinyjvm.classfile.constantpool.SymbolTable;
 
+import java.nio.ByteBuffer;
+
+/**
+ * Reads big-endian class file data from a ByteBuffer (heap or memory-mapped).
+ * All reads use absolute offsets into the buffer, so the buffer's own position is never touched,
+ * and every read is bounds-checked against the end of the class data.
+ */
 public class ClassReader {
 
-    private DataInputStream dis;
+    private final ByteBuffer buffer;
+    private int position;
 
     public ClassReader(byte[] classData) {
-        // Wrap the byte array in streams for easy reading
-        this.dis = new DataInputStream(new ByteArrayInputStream(classData));
+        this(ByteBuffer.wrap(classData));
+    }
+
+    public ClassReader(ByteBuffer classData) {
+        // slice() gives us a view whose offset 0 is the first byte of the class
+        this.buffer = classData.slice();
+    }
+
+    private ClassReader(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    // A new reader over the same data, positioned at an absolute offset (used for lazy decoding)
+    public ClassReader at(int position) {
+        return new ClassReader(buffer, position);
     }
 
     // Read an unsigned 8-bit integer (u1)
     public int readU1() {
-        try {
-            return dis.readUnsignedByte();
-        } catch (IOException e) {
-            throw new ClassFormatError("Failed to read U1");
-        }
+        ensureAvailable(1);
+        return buffer.get(position++) & 0xFF;
     }
 
     // Read an unsigned 16-bit integer (u2)
     public int readU2() {
-        try {
-            return dis.readUnsignedShort();
-        } catch (IOException e) {
-            throw new ClassFormatError("Failed to read U2");
-        }
+        ensureAvailable(2);
+        int value = buffer.getShort(position) & 0xFFFF;
+        position += 2;
+        return value;
     }
 
     // Read a signed 32-bit integer (used for u4 as well)
-    // Java doesn't have an unsigned int, but readInt() reads 4 bytes, which is what we need.
-    // For values > 2^31-1, it will be negative, but for offsets and counts, this is fine.
+    // Java doesn't have an unsigned int, but for offsets and counts this is fine.
     public int readU4() {
-        try {
-            return dis.readInt();
-        } catch (IOException e) {
-            throw new ClassFormatError("Failed to read U4");
-        }
+        ensureAvailable(4);
+        int value = buffer.getInt(position);
+        position += 4;
+        return value;
     }
 
-    // Read a specified number of bytes
+    // Read a specified number of bytes into a new array (copies)
     public byte[] readBytes(int length) {
-        try {
-            byte[] bytes=  new byte[length];
-            dis.readFully(bytes);
-            return bytes;
-        } catch (IOException e) {
-            throw new ClassFormatError("Failed to read bytes");
-        }
+        ensureAvailable(length);
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        position += length;
+        return bytes;
+    }
+
+    // Return a view of the next `length` bytes without copying them
+    public ByteBuffer readSlice(int length) {
+        ensureAvailable(length);
+        ByteBuffer slice = buffer.slice(position, length);
+        position += length;
+        return slice;
+    }
+
+    // Read the next `length` bytes of modified UTF-8 as an interned symbol string
+    public String readSymbol(int length) {
+        ensureAvailable(length);
+        String value = SymbolTable.intern(buffer, position, length);
+        position += length;
+        return value;
+    }
+
+    // Skip over data we don't need, e.g. unparsed attributes
+    public void skip(int length) {
+        ensureAvailable(length);
+        position += length;
     }
 
     // A helper for reading arrays like interfaces, fields, methods
@@ -62,5 +96,15 @@ public class ClassReader {
         }
         return array;
     }
-}
 
+    public int position() {
+        return position;
+    }
+
+    private void ensureAvailable(int length) {
+        if (length < 0 || length > buffer.limit() - position) { // no overflow for huge lengths
+            throw new ClassFormatError("Truncated class file: need " + length
+                    + " bytes at offset " + position + ", size is " + buffer.limit());
+        }
+    }
+}
@@ -3,20 +3,30 @@ package tinyjvm.classfile;
 import tinyjvm.classfile.constantpool.ConstantPool;
 import tinyjvm.classfile.constantpool.attributes.AttributeInfo;
 import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.classfile.constantpool.attributes.ConstantValueAttribute;
 
+/**
+ * class 文件中的字段或方法，只是解析结果。
+ * 执行时使用的是 runtime.heap 包中链接后的 RtMethod/RtField，它们在创建时从这里取出需要的信息。
+ * 解析类时只记下属性表的位置，属性 (主要是 Code) 在第一次被访问时才解码，
+ * 大的 JRE 类里从来不执行的方法永远不会被解码。
+ */
 public class MemberInfo {
-    private ConstantPool constantPool; // 持有常量池的引用，方便查找
-    private int accessFlags;
-    private int nameIndex;
-    private int descriptorIndex;
-    private AttributeInfo[] attributes;
+    private final ConstantPool constantPool; // 持有常量池的引用，方便查找
+    private final int accessFlags;
+    private final int nameIndex;
+    private final int descriptorIndex;
+    private final ClassReader attributeReader; // 指向属性表开头 (attributes_count)
+    private volatile AttributeInfo[] attributes; // 第一次访问时解码；并发解码的结果相同，不需要加锁
+    private CodeAttribute codeAttribute; // 第一次 getCodeAttribute 时找到并缓存，之后不再遍历属性表
+    private volatile boolean codeResolved; // 在 codeAttribute 之后写，看到 true 时一定也能看到 codeAttribute
 
-    public MemberInfo(ClassReader reader, ConstantPool constantPool) {
+    public MemberInfo(ConstantPool constantPool, int accessFlags, int nameIndex, int descriptorIndex, ClassReader attributeReader) {
         this.constantPool = constantPool;
-        this.accessFlags = reader.readU2();
-        this.nameIndex = reader.readU2();
-        this.descriptorIndex = reader.readU2();
-        this.attributes = AttributeInfo.readAttributes(reader, constantPool); // 委托给 AttributeInfo 去解析
+        this.accessFlags = accessFlags;
+        this.nameIndex = nameIndex;
+        this.descriptorIndex = descriptorIndex;
+        this.attributeReader = attributeReader;
     }
 
     // 提供一些方便的 getter 方法
@@ -24,9 +34,27 @@ public class MemberInfo {
     public String getName() { return constantPool.getUtf8(nameIndex); }
     public String getDescriptor() { return constantPool.getUtf8(descriptorIndex); }
 
+    private AttributeInfo[] getAttributes() {
+        AttributeInfo[] attrs = attributes;
+        if (attrs == null) {
+            // 委托给 AttributeInfo 去解析，每次都从记下的位置重新开始读
+            attrs = AttributeInfo.readAttributes(attributeReader.at(attributeReader.position()), constantPool);
+            attributes = attrs;
+        }
+        return attrs;
+    }
+
     // 这个方法是连接阶段二和阶段三的桥梁！
     public CodeAttribute getCodeAttribute() {
-        for (AttributeInfo attr : attributes) {
+        if (!codeResolved) {
+            codeAttribute = findCodeAttribute();
+            codeResolved = true;
+        }
+        return codeAttribute;
+    }
+
+    private CodeAttribute findCodeAttribute() {
+        for (AttributeInfo attr : getAttributes()) {
             if (attr instanceof CodeAttribute) {
                 return (CodeAttribute) attr;
             }
@@ -34,13 +62,13 @@ public class MemberInfo {
         return null; // 抽象方法或 native 方法没有 CodeAttribute
     }
 
-    // 静态工厂方法，用于在 ClassFile 解析器中调用
-    public static MemberInfo[] readMembers(ClassReader reader, ConstantPool constantPool) {
-        int memberCount = reader.readU2();
-        MemberInfo[] members = new MemberInfo[memberCount];
-        for (int i = 0; i < memberCount; i++) {
-            members[i] = new MemberInfo(reader, constantPool);
+    // 字段的初始值，只有 static final 常量字段才有
+    public ConstantValueAttribute getConstantValueAttribute() {
+        for (AttributeInfo attr : getAttributes()) {
+            if (attr instanceof ConstantValueAttribute) {
+                return (ConstantValueAttribute) attr;
+            }
         }
-        return members;
+        return null;
     }
 }
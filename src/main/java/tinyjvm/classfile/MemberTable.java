@@ -0,0 +1,61 @@
+package tinyjvm.classfile;
+
+import java.util.function.Function;
+
+/**
+ * An immutable hash table from (name, descriptor) to a field or method, built once per class.
+ * Member names and descriptors come from the SymbolTable, so a lookup with symbols from another
+ * class's constant pool usually matches by reference and String.equals returns on its first check.
+ * Open addressing with linear probing over parallel arrays: a lookup allocates nothing.
+ * If a class declares the same (name, descriptor) twice the first one wins, as a linear scan would.
+ */
+public final class MemberTable<T> {
+    private final String[] names;
+    private final String[] descriptors;
+    private final Object[] members;
+    private final int mask;
+
+    public MemberTable(T[] declared, Function<? super T, String> nameOf, Function<? super T, String> descriptorOf) {
+        // At most half full, so probe sequences stay short and always reach an empty slot
+        int capacity = Integer.highestOneBit(Math.max(1, declared.length) * 2 - 1) << 1;
+        this.names = new String[capacity];
+        this.descriptors = new String[capacity];
+        this.members = new Object[capacity];
+        this.mask = capacity - 1;
+
+        for (T member : declared) {
+            String name = nameOf.apply(member);
+            String descriptor = descriptorOf.apply(member);
+            int i = hash(name, descriptor) & mask;
+            while (names[i] != null && !(names[i].equals(name) && descriptors[i].equals(descriptor))) {
+                i = (i + 1) & mask;
+            }
+            if (names[i] == null) {
+                names[i] = name;
+                descriptors[i] = descriptor;
+                members[i] = member;
+            }
+        }
+    }
+
+    /**
+     * @return the member declared with exactly this name and descriptor, or null
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String name, String descriptor) {
+        int i = hash(name, descriptor) & mask;
+        String n;
+        while ((n = names[i]) != null) {
+            if (n.equals(name) && descriptors[i].equals(descriptor)) {
+                return (T) members[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(String name, String descriptor) {
+        int h = name.hashCode() * 31 + descriptor.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,19 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+// Takes up two constant pool slots
+public class ConstantDoubleInfo implements ConstantInfo {
+    private double value;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        long high = reader.readU4();
+        long low = reader.readU4() & 0xFFFFFFFFL;
+        this.value = Double.longBitsToDouble((high << 32) | low);
+    }
+
+    public double getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,15 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+// CONSTANT_Dynamic_info; also the base class for CONSTANT_InvokeDynamic_info, which has the same layout
+public class ConstantDynamicInfo implements ConstantInfo {
+    public int bootstrapMethodAttrIndex; // index into the BootstrapMethods attribute
+    public int nameAndTypeIndex;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.bootstrapMethodAttrIndex = reader.readU2();
+        this.nameAndTypeIndex = reader.readU2();
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+public class ConstantFloatInfo implements ConstantInfo {
+    private float value;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.value = Float.intBitsToFloat(reader.readU4());
+    }
+
+    public float getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+public class ConstantIntegerInfo implements ConstantInfo {
+    private int value;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.value = reader.readU4();
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,4 @@
+package tinyjvm.classfile.constantpool;
+
+public class ConstantInvokeDynamicInfo extends ConstantDynamicInfo {
+}
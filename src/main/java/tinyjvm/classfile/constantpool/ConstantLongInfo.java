@@ -0,0 +1,19 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+// Takes up two constant pool slots
+public class ConstantLongInfo implements ConstantInfo {
+    private long value;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        long high = reader.readU4();
+        long low = reader.readU4() & 0xFFFFFFFFL;
+        this.value = (high << 32) | low;
+    }
+
+    public long getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+public class ConstantMethodHandleInfo implements ConstantInfo {
+    public int referenceKind; // 1..9, e.g. REF_invokeStatic = 6
+    public int referenceIndex;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.referenceKind = reader.readU1();
+        this.referenceIndex = reader.readU2();
+    }
+}
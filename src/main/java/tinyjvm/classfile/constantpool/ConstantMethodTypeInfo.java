@@ -0,0 +1,12 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+public class ConstantMethodTypeInfo implements ConstantInfo {
+    public int descriptorIndex;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.descriptorIndex = reader.readU2();
+    }
+}
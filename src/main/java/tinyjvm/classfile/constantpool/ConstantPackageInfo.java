@@ -0,0 +1,13 @@
+package tinyjvm.classfile.constantpool;
+
+import tinyjvm.classfile.ClassReader;
+
+// Only appears in module-info.class
+public class ConstantPackageInfo implements ConstantInfo {
+    public int nameIndex;
+
+    @Override
+    public void readInfo(ClassReader reader) {
+        this.nameIndex = reader.readU2();
+    }
+}
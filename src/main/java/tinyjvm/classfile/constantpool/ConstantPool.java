@@ -2,36 +2,84 @@ package tinyjvm.classfile.constantpool;
 
 import tinyjvm.classfile.ClassReader;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A lazily decoded constant pool.
+ * Reading the class only scans the pool once, recording each slot's tag and the offset of its data;
+ * a ConstantInfo object is created the first time a slot is actually used.
+ * Most entries of a typical JRE class are never touched by a small program, so they are never decoded.
+ * Several threads may use the same class, so a decoded entry is published with a CAS and read with
+ * acquire semantics: a thread that sees an entry also sees its fields, and all threads share one object.
+ */
 public class ConstantPool {
+    private static final VarHandle INFOS = MethodHandles.arrayElementVarHandle(ConstantInfo[].class);
 
-    private ConstantInfo[] infos;
+    private final ClassReader reader; // positioned anywhere; used only to create readers at slot offsets
+    private final byte[] tags;        // tag of each slot, 0 for unused slots (index 0, second half of long/double)
+    private final int[] offsets;      // absolute offset of each slot's data, just after the tag byte
+    private final ConstantInfo[] infos; // decoded entries, filled in on first access
 
-    private ConstantPool(ConstantInfo[] infos) {
-        this.infos = infos;
+    private ConstantPool(ClassReader reader, byte[] tags, int[] offsets) {
+        this.reader = reader;
+        this.tags = tags;
+        this.offsets = offsets;
+        this.infos = new ConstantInfo[tags.length];
     }
 
     public static ConstantPool read(ClassReader reader) {
         int cpCount = reader.readU2();
         // The constant_pool table is indexed from 1 to constant_pool_count - 1.
-        ConstantInfo[] infos = new ConstantInfo[cpCount];
+        byte[] tags = new byte[cpCount];
+        int[] offsets = new int[cpCount];
 
         for (int i = 1; i < cpCount; i++) {
-            infos[i] = readConstantInfo(reader);
+            int tag = reader.readU1();
+            tags[i] = (byte) tag;
+            offsets[i] = reader.position();
+            skipInfo(reader, tag);
             // Long and Double take up two slots
-            int tag = infos[i].getClass().getSimpleName().equals("ConstantLongInfo") ||
-                    infos[i].getClass().getSimpleName().equals("ConstantDoubleInfo") ? 1 : 0;
-            if(tag == 1) {
+            if (tag == ConstantTag.LONG || tag == ConstantTag.DOUBLE) {
                 i++;
             }
         }
-        return new ConstantPool(infos);
+        return new ConstantPool(reader, tags, offsets);
     }
 
-    private static ConstantInfo readConstantInfo(ClassReader reader) {
-        int tag = reader.readU1();
-        ConstantInfo info = newConstantInfo(tag);
-        info.readInfo(reader);
-        return info;
+    // Skips the body of one entry; we only need to know where it starts
+    private static void skipInfo(ClassReader reader, int tag) {
+        switch (tag) {
+            case ConstantTag.UTF8:
+                reader.skip(reader.readU2());
+                break;
+            case ConstantTag.CLASS:
+            case ConstantTag.STRING:
+            case ConstantTag.METHOD_TYPE:
+            case ConstantTag.MODULE:
+            case ConstantTag.PACKAGE:
+                reader.skip(2);
+                break;
+            case ConstantTag.METHOD_HANDLE:
+                reader.skip(3);
+                break;
+            case ConstantTag.INTEGER:
+            case ConstantTag.FLOAT:
+            case ConstantTag.FIELD_REF:
+            case ConstantTag.METHOD_REF:
+            case ConstantTag.INTERFACE_METHOD_REF:
+            case ConstantTag.NAME_AND_TYPE:
+            case ConstantTag.DYNAMIC:
+            case ConstantTag.INVOKE_DYNAMIC:
+                reader.skip(4);
+                break;
+            case ConstantTag.LONG:
+            case ConstantTag.DOUBLE:
+                reader.skip(8);
+                break;
+            default:
+                throw new ClassFormatError("Invalid constant pool tag: " + tag);
+        }
     }
 
     private static ConstantInfo newConstantInfo(int tag) {
@@ -41,42 +89,103 @@ public class ConstantPool {
             case ConstantTag.METHOD_REF: return new ConstantMethodRefInfo();
             case ConstantTag.INTERFACE_METHOD_REF: return new ConstantInterfaceMethodRefInfo();
             case ConstantTag.STRING: return new ConstantStringInfo();
+            case ConstantTag.INTEGER: return new ConstantIntegerInfo();
+            case ConstantTag.FLOAT: return new ConstantFloatInfo();
+            case ConstantTag.LONG: return new ConstantLongInfo();
+            case ConstantTag.DOUBLE: return new ConstantDoubleInfo();
             case ConstantTag.NAME_AND_TYPE: return new ConstantNameAndTypeInfo();
             case ConstantTag.UTF8: return new ConstantUtf8Info();
-            // We will add other types like Integer, Long, etc. later
+            case ConstantTag.METHOD_HANDLE: return new ConstantMethodHandleInfo();
+            case ConstantTag.METHOD_TYPE: return new ConstantMethodTypeInfo();
+            case ConstantTag.DYNAMIC: return new ConstantDynamicInfo();
+            case ConstantTag.INVOKE_DYNAMIC: return new ConstantInvokeDynamicInfo();
+            case ConstantTag.MODULE: return new ConstantModuleInfo();
+            case ConstantTag.PACKAGE: return new ConstantPackageInfo();
             default:
-                // For now, let's create a dummy for unsupported types
-                return new UnsupportedConstantInfo(tag);
+                throw new ClassFormatError("Invalid constant pool tag: " + tag);
         }
     }
 
-    // A little helper class for constants we don't support yet
-    static class UnsupportedConstantInfo implements ConstantInfo {
-        private int tag;
-        UnsupportedConstantInfo(int tag) { this.tag = tag; }
-        @Override public void readInfo(ClassReader reader) {
-            // For now, we do nothing. A more robust implementation might skip bytes
-            // based on the constant type, but this is simpler for now.
-            System.err.println("Warning: Unsupported constant pool tag: " + tag);
+    /**
+     * Returns the entry at the given index, decoding it on first access.
+     */
+    public ConstantInfo getConstantInfo(int index) {
+        ConstantInfo info = (ConstantInfo) INFOS.getAcquire(infos, checkIndex(index));
+        if (info == null) {
+            info = newConstantInfo(tags[index]);
+            info.readInfo(reader.at(offsets[index]));
+            // Another thread may have decoded the same slot meanwhile; keep whichever was published first
+            ConstantInfo published = (ConstantInfo) INFOS.compareAndExchange(infos, index, null, info);
+            if (published != null) {
+                info = published;
+            }
         }
+        return info;
+    }
+
+    public int getTag(int index) {
+        return tags[checkIndex(index)];
+    }
+
+    // Number of slots, including the unused slot 0 (i.e. constant_pool_count)
+    public int size() {
+        return tags.length;
     }
 
     // Utility method to get a UTF8 string from the pool
     public String getUtf8(int index) {
-        if (index == 0 || index >= infos.length) {
-            throw new IllegalArgumentException("Invalid constant pool index: " + index);
+        if (getTag(index) != ConstantTag.UTF8) {
+            throw new ClassFormatError("Constant pool entry " + index + " is not a Utf8 entry");
         }
-        ConstantUtf8Info utf8Info = (ConstantUtf8Info) infos[index];
+        ConstantUtf8Info utf8Info = (ConstantUtf8Info) getConstantInfo(index);
         return utf8Info.getValue();
     }
 
+    // Primitive getters for ldc / ldc2_w, so numeric constants never get boxed
+    public int getInt(int index) {
+        return ((ConstantIntegerInfo) getConstantInfo(index)).getValue();
+    }
+
+    public float getFloat(int index) {
+        return ((ConstantFloatInfo) getConstantInfo(index)).getValue();
+    }
+
+    public long getLong(int index) {
+        return ((ConstantLongInfo) getConstantInfo(index)).getValue();
+    }
+
+    public double getDouble(int index) {
+        return ((ConstantDoubleInfo) getConstantInfo(index)).getValue();
+    }
+
     // Add more getters as needed, for example:
     public String getClassName(int index) {
-        ConstantClassInfo classInfo = (ConstantClassInfo) infos[index];
+        ConstantClassInfo classInfo = (ConstantClassInfo) getConstantInfo(index);
         return getUtf8(classInfo.nameIndex);
     }
 
-    public ConstantInfo[] getInfos() {
-        return infos;
+    // Class, name and descriptor of a Fieldref, Methodref or InterfaceMethodref entry
+    public String getMemberClassName(int index) {
+        return getClassName(((ConstantMemberRefInfo) getConstantInfo(index)).classIndex);
+    }
+
+    public String getMemberName(int index) {
+        return getUtf8(getNameAndType(index).nameIndex);
+    }
+
+    public String getMemberDescriptor(int index) {
+        return getUtf8(getNameAndType(index).descriptorIndex);
+    }
+
+    private ConstantNameAndTypeInfo getNameAndType(int memberRefIndex) {
+        ConstantMemberRefInfo memberRef = (ConstantMemberRefInfo) getConstantInfo(memberRefIndex);
+        return (ConstantNameAndTypeInfo) getConstantInfo(memberRef.nameAndTypeIndex);
+    }
+
+    private int checkIndex(int index) {
+        if (index <= 0 || index >= tags.length || tags[index] == 0) {
+            throw new IllegalArgumentException("Invalid constant pool index: " + index);
+        }
+        return index;
     }
-}
\ No newline at end of file
+}
@@ -18,5 +18,8 @@ public class ConstantTag {
     public static final int UTF8 = 1;
     public static final int METHOD_HANDLE = 15;
     public static final int METHOD_TYPE = 16;
+    public static final int DYNAMIC = 17;
     public static final int INVOKE_DYNAMIC = 18;
+    public static final int MODULE = 19;
+    public static final int PACKAGE = 20;
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package tinyjvm.classfile.constantpool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VM-wide table of interned symbol strings (class names, member names, descriptors...).
+ * Lookups hash the raw modified UTF-8 bytes in place, so a symbol that is already known
+ * (e.g. "java/lang/Object", which appears in almost every class) costs no copy and no decoding;
+ * only the first occurrence is decoded into a String.
+ * Classes are loaded from several threads at once (guest threads, -Xpreload workers), so the table
+ * is a ConcurrentHashMap: lookups take no lock, and a racing first insert keeps a single String.
+ */
+public final class SymbolTable {
+
+    /**
+     * A key is either a stored symbol (its own copy of the bytes) or a lookup probe that views the
+     * bytes in the class file buffer. Both hash and compare by content, so a probe finds a stored key.
+     */
+    private static final class Key {
+        final byte[] bytes;       // stored key
+        final ByteBuffer buffer;  // probe
+        final int offset;
+        final int length;
+        final int hash;
+
+        Key(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.buffer = null;
+            this.offset = 0;
+            this.length = bytes.length;
+            this.hash = hash;
+        }
+
+        Key(ByteBuffer buffer, int offset, int length, int hash) {
+            this.bytes = null;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        byte byteAt(int i) {
+            return bytes != null ? bytes[i] : buffer.get(offset + i);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            if (other.hash != hash || other.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (byteAt(i) != other.byteAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final ConcurrentHashMap<Key, String> symbols = new ConcurrentHashMap<>(4096);
+
+    private SymbolTable() {
+    }
+
+    /**
+     * Returns the interned String for the modified UTF-8 bytes at [offset, offset + length) of the buffer.
+     */
+    public static String intern(ByteBuffer buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        String value = symbols.get(new Key(buffer, offset, length, hash));
+        if (value != null) {
+            return value;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        value = decodeModifiedUtf8(bytes);
+        String raced = symbols.putIfAbsent(new Key(bytes, hash), value);
+        return raced != null ? raced : value;
+    }
+
+    public static int size() {
+        return symbols.size();
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Decodes the class file's "modified UTF-8": NUL is encoded as 0xC0 0x80 and supplementary
+     * characters as two 3-byte surrogates, so plain UTF-8 decoding is not correct here.
+     * See: https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.4.7
+     */
+    static String decodeModifiedUtf8(byte[] bytes) {
+        char[] chars = new char[bytes.length];
+        int count = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            int c = bytes[i] & 0xFF;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+                i++;
+            } else if ((c & 0xE0) == 0xC0) {
+                int c2 = continuation(bytes, i + 1);
+                chars[count++] = (char) (((c & 0x1F) << 6) | c2);
+                i += 2;
+            } else if ((c & 0xF0) == 0xE0) {
+                int c2 = continuation(bytes, i + 1);
+                int c3 = continuation(bytes, i + 2);
+                chars[count++] = (char) (((c & 0x0F) << 12) | (c2 << 6) | c3);
+                i += 3;
+            } else {
+                throw new ClassFormatError("Malformed modified UTF-8 byte 0x" + Integer.toHexString(c) + " at " + i);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int continuation(byte[] bytes, int i) {
+        if (i >= bytes.length || (bytes[i] & 0xC0) != 0x80) {
+            throw new ClassFormatError("Malformed modified UTF-8 sequence at " + i);
+        }
+        return bytes[i] & 0x3F;
+    }
+}
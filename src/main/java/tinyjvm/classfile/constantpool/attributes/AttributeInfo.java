@@ -24,11 +24,16 @@ public interface AttributeInfo {
         switch (attrName) {
             case "Code":
                 return new CodeAttribute(cp, attrNameIndex, attrLen, reader);
-            // case "ConstantValue": return new ConstantValueAttribute(...);
+            case "ConstantValue":
+                return new ConstantValueAttribute(reader);
+            case "StackMapTable":
+                return new StackMapTableAttribute(reader, attrLen);
             // ... 其他属性
             default:
                 // 对于我们不支持的属性，直接跳过
-                return new UnparsedAttribute(attrName, attrLen);
+                UnparsedAttribute attr = new UnparsedAttribute(attrName, attrLen);
+                attr.readInfo(reader);
+                return attr;
         }
     }
 }
\ No newline at end of file
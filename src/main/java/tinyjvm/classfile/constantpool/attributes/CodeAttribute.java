@@ -3,12 +3,20 @@ package tinyjvm.classfile.constantpool.attributes;
 import tinyjvm.classfile.ClassReader;
 import tinyjvm.classfile.constantpool.ConstantPool;
 
+import java.nio.ByteBuffer;
+
 public class CodeAttribute implements AttributeInfo {
-    private ConstantPool constantPool;
-    private int maxStack;
-    private int maxLocals;
-    private byte[] code;
-    // 还可以有 exceptionTable, attributes 等，初期可忽略
+    private static final int[] NO_HANDLERS = new int[0];
+
+    // 字段都是 final 的：方法的 CodeAttribute 在第一次调用时才解码，会被不加锁地发布给其他客体线程
+    private final ConstantPool constantPool;
+    private final int maxStack;
+    private final int maxLocals;
+    private final ByteBuffer code; // class 数据的只读视图，不复制字节码
+    private final int exceptionTableLength;
+    // 异常表，每项 4 个 int：start_pc, end_pc, handler_pc, catch_type。执行引擎还不支持异常处理，只有校验器使用
+    private final int[] exceptionTable;
+    private final StackMapTableAttribute stackMapTable; // 没有时为 null (版本 50 以前的 class 文件，或者方法里没有跳转)
 
     // 注意构造函数的变化，它在工厂方法中被调用
     public CodeAttribute(ConstantPool cp, int attrNameIndex, long attrLen, ClassReader reader) {
@@ -16,33 +24,36 @@ public class CodeAttribute implements AttributeInfo {
         // 传统的 readInfo 逻辑放在这里
         this.maxStack = reader.readU2();
         this.maxLocals = reader.readU2();
-        int codeLength = (int) reader.readU4();
-        this.code = reader.readBytes(codeLength);
-
-        // 跳过异常表和子属性
-        skipExceptionTable(reader);
-        skipAttributes(reader);
-    }
-
-    // readInfo 方法可以空着，因为逻辑移到了构造函数里
-    @Override public void readInfo(ClassReader reader) { /* no-op */ }
+        int codeLength = reader.readU4();
+        this.code = reader.readSlice(codeLength).asReadOnlyBuffer();
 
-    private void skipExceptionTable(ClassReader reader) {
-        int exceptionTableLength = reader.readU2();
-        reader.readBytes(exceptionTableLength * 8); // 每个异常表项占8字节
-    }
+        this.exceptionTableLength = reader.readU2();
+        this.exceptionTable = exceptionTableLength == 0 ? NO_HANDLERS : new int[exceptionTableLength * 4];
+        for (int i = 0; i < exceptionTable.length; i++) {
+            exceptionTable[i] = reader.readU2();
+        }
 
-    private void skipAttributes(ClassReader reader) {
+        // 子属性只保留 StackMapTable，LineNumberTable 等都跳过
+        StackMapTableAttribute stackMap = null;
         int attributesCount = reader.readU2();
         for (int i = 0; i < attributesCount; i++) {
-            int nameIndex = reader.readU2();
-            long len = reader.readU4();
-            reader.readBytes((int) len);
+            AttributeInfo attr = AttributeInfo.readAttribute(reader, cp);
+            if (attr instanceof StackMapTableAttribute) {
+                stackMap = (StackMapTableAttribute) attr;
+            }
         }
+        this.stackMapTable = stackMap;
     }
 
+    // readInfo 方法可以空着，因为逻辑移到了构造函数里
+    @Override public void readInfo(ClassReader reader) { /* no-op */ }
+
     // Getters
+    public ConstantPool getConstantPool() { return constantPool; }
     public int getMaxStack() { return maxStack; }
     public int getMaxLocals() { return maxLocals; }
-    public byte[] getCode() { return code; }
+    public ByteBuffer getCode() { return code; }
+    public int getExceptionTableLength() { return exceptionTableLength; }
+    public int[] getExceptionTable() { return exceptionTable; }
+    public StackMapTableAttribute getStackMapTable() { return stackMapTable; }
 }
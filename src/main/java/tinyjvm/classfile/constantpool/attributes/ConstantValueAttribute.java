@@ -0,0 +1,21 @@
+package tinyjvm.classfile.constantpool.attributes;
+
+import tinyjvm.classfile.ClassReader;
+
+/**
+ * 字段的 ConstantValue 属性，只有一个指向常量池的索引 (Integer/Long/Float/Double/String 常量)。
+ * 类准备阶段用它给 static final 字段赋初值。
+ */
+public class ConstantValueAttribute implements AttributeInfo {
+    private final int constantValueIndex;
+
+    public ConstantValueAttribute(ClassReader reader) {
+        this.constantValueIndex = reader.readU2();
+    }
+
+    // 和 CodeAttribute 一样，读取在构造函数里完成
+    @Override
+    public void readInfo(ClassReader reader) { /* no-op */ }
+
+    public int getConstantValueIndex() { return constantValueIndex; }
+}
@@ -0,0 +1,26 @@
+package tinyjvm.classfile.constantpool.attributes;
+
+import tinyjvm.classfile.ClassReader;
+
+/**
+ * Code 的 StackMapTable 子属性 (JVMS 4.7.4)：方法中若干位置上局部变量表和操作数栈的类型。
+ * 这里只记下帧的个数和帧数据的位置，帧由校验器 (见 verifier.Verifier) 一边读一边解释，
+ * 从来不校验的方法 (例如 JRE 的类) 不需要解码它。
+ */
+public class StackMapTableAttribute implements AttributeInfo {
+    private final int numberOfEntries;
+    private final ClassReader entries; // 只覆盖本属性的数据，读过头时抛出 ClassFormatError
+
+    public StackMapTableAttribute(ClassReader reader, long attrLen) {
+        ClassReader data = new ClassReader(reader.readSlice((int) attrLen));
+        this.numberOfEntries = data.readU2();
+        this.entries = data;
+    }
+
+    @Override public void readInfo(ClassReader reader) { /* no-op */ }
+
+    public int getNumberOfEntries() { return numberOfEntries; }
+
+    // 每次都返回一个新的读取器，从第一个帧开始
+    public ClassReader getEntries() { return entries.at(entries.position()); }
+}
@@ -20,7 +20,7 @@ public class UnparsedAttribute implements AttributeInfo {
     @Override
     public void readInfo(ClassReader reader) {
         // 跳过 length 长度的字节
-        reader.readBytes((int) this.length);
+        reader.skip((int) this.length);
     }
 
     // 你也可以把跳过逻辑直接放在工厂方法里，让这个类更简单。
@@ -0,0 +1,232 @@
+package tinyjvm.classpath;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 类共享归档 (-Xshare)：把一次运行中加载过的类的字节码连续存放在一个文件里，之后的运行把文件映射到内存，
+ * 直接在映射上解析类，不再建立类路径索引、打开 JAR、解压和复制。
+ * ClassFile 本身就是在 ByteBuffer 上延迟解析的 (常量池按需解码，方法字节码是缓冲区的视图)，
+ * 所以从归档"物化"一个类只是对映射的一个切片做一次扫描。打开归档时只读文件头并检查类表的每一项都落在映射之内，
+ * 类表按类名排序、每项定长，查找时在映射上二分，没有用到的类永远不会被读取。
+ * <p>
+ * 文件格式 (大端，偏移都相对文件开头)：
+ * <pre>
+ * magic u4, version u4, classpath
+ * sourceCount u4, sources[sourceCount]: path, lastModified u8, size u8   -- 类文件来自的 JAR 或类文件
+ * classCount u4, classes[classCount]: nameOffset u4, nameLength u4, offset u4, length u4
+ * 类名 (UTF-8) 和类文件的字节
+ * </pre>
+ * 字符串写成 u4 长度加 UTF-8 字节。展开后的类路径变了，或者任何一个来源文件的修改时间或大小变了，
+ * 整个归档都视为过期。
+ */
+public final class ClassArchive {
+    private static final int MAGIC = 0x544A5341; // "TJSA"
+    // 格式变化时加一，旧版本的归档视为过期
+    private static final int VERSION = 1;
+    private static final int CLASS_ENTRY_SIZE = 16;
+    // 类表的排序方式，查找时用同一个比较方式二分
+    private static final Comparator<byte[]> NAME_ORDER = (a, b) -> ByteBuffer.wrap(a).compareTo(ByteBuffer.wrap(b));
+
+    private final ByteBuffer buffer; // 整个文件的只读映射
+    private final int classTable; // 类表在文件中的偏移
+    private final int classCount;
+
+    private ClassArchive(ByteBuffer buffer, int classTable, int classCount) {
+        this.buffer = buffer;
+        this.classTable = classTable;
+        this.classCount = classCount;
+    }
+
+    /**
+     * 映射归档文件。文件不存在、版本不对、已经过期、被截断或损坏时打印原因并返回 null，调用方退回正常加载
+     */
+    public static ClassArchive open(Path file, Classpath classpath) {
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Warning: shared archive " + file + " not found, classes are loaded from the classpath");
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map shared archive " + file, e);
+        }
+
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            System.err.println("Warning: " + file + " is not a shared archive of this version, ignored");
+            return null;
+        }
+        // 文件头之后的内容被截断或损坏时同样忽略整个归档：所有长度和个数都先和映射的大小比较，
+        // 越界的读取 (BufferUnderflowException 等) 只作为最后的保险
+        try {
+            if (!classpath.toString().equals(getString(buffer))) {
+                System.err.println("Warning: shared archive " + file + " was dumped with a different classpath, ignored");
+                return null;
+            }
+            int sourceCount = getCount(buffer, 4 + 16);
+            for (int i = 0; i < sourceCount; i++) {
+                String source = getString(buffer);
+                long lastModified = buffer.getLong();
+                long size = buffer.getLong();
+                if (!matches(Paths.get(source), lastModified, size)) {
+                    System.err.println("Warning: shared archive " + file + " is stale (" + source + " changed), ignored");
+                    return null;
+                }
+            }
+            int classCount = getCount(buffer, CLASS_ENTRY_SIZE);
+            int classTable = buffer.position();
+            for (int i = 0; i < classCount; i++) {
+                int entry = classTable + i * CLASS_ENTRY_SIZE;
+                checkRange(buffer, buffer.getInt(entry), buffer.getInt(entry + 4));
+                checkRange(buffer, buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+            }
+            return new ClassArchive(buffer, classTable, classCount);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            System.err.println("Warning: shared archive " + file + " is truncated or corrupt, ignored");
+            return null;
+        }
+    }
+
+    /**
+     * 把类写进归档。先写临时文件再改名，写到一半失败不会留下损坏的归档
+     * @param classNames 要归档的类，类路径上找不到的类 (例如数组类) 被跳过
+     * @return 归档的类数
+     */
+    public static int dump(Path file, Classpath classpath, Collection<String> classNames) {
+        Set<String> sources = new LinkedHashSet<>();
+        TreeMap<byte[], byte[]> classes = new TreeMap<>(NAME_ORDER); // 类名 -> 类文件
+        try {
+            for (String name : classNames) {
+                Path source = classpath.getSource(name);
+                byte[] bytes = source == null ? null : classpath.readClass(name);
+                if (bytes != null) {
+                    sources.add(source.toString());
+                    classes.put(name.getBytes(StandardCharsets.UTF_8), bytes);
+                }
+            }
+
+            String cp = classpath.toString();
+            int size = 8 + stringSize(cp) + 4 + 4;
+            for (String source : sources) {
+                size += stringSize(source) + 16;
+            }
+            for (Map.Entry<byte[], byte[]> entry : classes.entrySet()) {
+                size += CLASS_ENTRY_SIZE + entry.getKey().length + entry.getValue().length;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            putString(buffer, cp);
+            buffer.putInt(sources.size());
+            for (String source : sources) {
+                Path path = Paths.get(source);
+                putString(buffer, source);
+                buffer.putLong(Files.getLastModifiedTime(path).toMillis()).putLong(Files.size(path));
+            }
+            buffer.putInt(classes.size());
+            int offset = buffer.position() + classes.size() * CLASS_ENTRY_SIZE; // 类名和类文件从类表后面开始
+            for (Map.Entry<byte[], byte[]> entry : classes.entrySet()) {
+                int nameLength = entry.getKey().length;
+                buffer.putInt(offset).putInt(nameLength).putInt(offset + nameLength).putInt(entry.getValue().length);
+                offset += nameLength + entry.getValue().length;
+            }
+            for (Map.Entry<byte[], byte[]> entry : classes.entrySet()) {
+                buffer.put(entry.getKey()).put(entry.getValue());
+            }
+            buffer.flip();
+
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "tinyjvm", ".jsa.tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return classes.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write shared archive " + file, e);
+        }
+    }
+
+    /**
+     * 归档中类文件的字节，是映射的一个只读切片
+     * @return 归档里没有这个类时返回 null
+     */
+    public ByteBuffer find(String className) {
+        ByteBuffer name = ByteBuffer.wrap(className.getBytes(StandardCharsets.UTF_8));
+        int low = 0;
+        int high = classCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = classTable + mid * CLASS_ENTRY_SIZE;
+            int cmp = buffer.slice(buffer.getInt(entry), buffer.getInt(entry + 4)).compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return buffer.slice(buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(Path source, long lastModified, long size) {
+        try {
+            return Files.getLastModifiedTime(source).toMillis() == lastModified && Files.size(source) == size;
+        } catch (IOException e) {
+            return false; // 文件被删除了
+        }
+    }
+
+    private static int stringSize(String s) {
+        return 4 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 读一个个数，每项至少占 entrySize 字节，剩下的字节放不下这么多项时视为损坏
+    private static int getCount(ByteBuffer buffer, int entrySize) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / entrySize) {
+            throw new BufferUnderflowException();
+        }
+        return count;
+    }
+
+    // [offset, offset + length) 必须落在映射之内
+    private static void checkRange(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+            throw new IndexOutOfBoundsException("Archive entry [" + offset + ", +" + length + ") out of bounds");
+        }
+    }
+}
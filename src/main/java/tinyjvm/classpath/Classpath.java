@@ -2,12 +2,22 @@ package tinyjvm.classpath;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
-public class Classpath {
+public class Classpath implements AutoCloseable {
     private final Entry bootClasspath; // 启动类路径 (jre/lib/*)
     private final Entry userClasspath; // 用户类路径 (-cp)
+    // 全局类索引 (类文件名 -> 所在条目)，第一次查找类时建立一次，之后查找类只需一次哈希查找。
+    // 所有类都能从共享归档读取时，永远不需要打开 JAR 建立索引
+    private volatile Map<String, Entry> classIndex;
+    private Set<Entry> userEntries; // 用户类路径展开后的条目，和 classIndex 一起建立，在它之前写入
 
     public Classpath(String jreOption, String cpOption) {
         // 1. 解析启动类路径
@@ -16,28 +26,93 @@ public class Classpath {
         this.userClasspath = parseUserClasspath(cpOption);
     }
 
+    private Map<String, Entry> classIndex() {
+        Map<String, Entry> index = classIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = classIndex;
+                if (index == null) {
+                    // 3. 建立索引：先登记 boot 再登记 user，同名的类以 boot 中的为准
+                    index = new HashMap<>();
+                    Map<String, Entry> userIndex = new HashMap<>();
+                    Entry.indexOrSkip(bootClasspath, index);
+                    Entry.indexOrSkip(userClasspath, userIndex);
+                    for (Map.Entry<String, Entry> entry : userIndex.entrySet()) {
+                        index.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                    userEntries = new HashSet<>(userIndex.values());
+                    classIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     /**
-     * 按顺序搜索 class 文件：
+     * 查找 class 文件。索引已经体现了搜索顺序：
      * 1. 首先在启动类路径 (boot) 中查找。
      * 2. 如果找不到，再在用户类路径 (user) 中查找。
      * @param className 类的全限定名，格式为 "java/lang/Object"
-     * @return 类的字节码数据
-     * @throws Exception 如果找不到类
+     * @return 类的字节码数据；找不到时返回 null
+     * @throws IOException 如果读取失败
+     */
+    public byte[] readClass(String className) throws IOException {
+        className = className + ".class";
+
+        Entry owner = classIndex().get(className);
+        if (owner == null) {
+            return null;
+        }
+        return owner.readClass(className);
+    }
+
+    /**
+     * 类文件所在的文件 (目录中的类文件或 JAR 文件)
+     * @return 类路径上没有这个类时返回 null
      */
-    public byte[] readClass(String className) throws Exception {
+    public Path getSource(String className) {
         className = className + ".class";
+        Entry owner = classIndex().get(className);
+        return owner == null ? null : owner.sourceOf(className);
+    }
 
+    /**
+     * 类路径上是否有这个类，只查索引，不读取文件
+     */
+    public boolean contains(String className) {
+        return classIndex().containsKey(className + ".class");
+    }
+
+    /**
+     * 类是否从用户类路径 (-cp) 加载。-Xverify:remote 只校验这些类，启动类路径上的类是可信的
+     */
+    public boolean isUserClass(String className) {
+        Entry owner = classIndex().get(className + ".class");
+        return owner != null && userEntries.contains(owner);
+    }
+
+    /**
+     * 展开后的完整类路径 (绝对路径，boot 在前)，共享归档用它判断类路径是否变了
+     */
+    @Override
+    public String toString() {
+        return bootClasspath + File.pathSeparator + userClasspath;
+    }
+
+    /**
+     * 关闭所有类路径条目，释放打开的 JAR 文件。虚拟机退出前调用。
+     */
+    @Override
+    public void close() {
         try {
-            // 先尝试从 boot classpath 读取
-            return bootClasspath.readClass(className);
-        } catch (Exception e) {
-            // boot 中找不到，再尝试从 user classpath 读取
-            if (userClasspath != null) {
-                return userClasspath.readClass(className);
+            try {
+                bootClasspath.close();
+            } finally {
+                userClasspath.close();
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close classpath", e);
         }
-
-        throw new ClassNotFoundException("Class not found: " + className);
     }
 
     private Entry parseBootClasspath(String jreOption) {
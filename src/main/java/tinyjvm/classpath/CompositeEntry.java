@@ -1,8 +1,11 @@
 package tinyjvm.classpath;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class CompositeEntry implements Entry {
     private final List<Entry> entries = new ArrayList<>();
@@ -17,17 +20,49 @@ public class CompositeEntry implements Entry {
     }
 
     @Override
-    public byte[] readClass(String className) throws Exception {
+    public byte[] readClass(String className) throws IOException {
         for (Entry entry : entries) {
-            try {
-                // 依次尝试从每个子条目中读取
-                return entry.readClass(className);
-            } catch (Exception e) {
-                // 忽略异常，继续尝试下一个条目
+            // 依次尝试从每个子条目中读取
+            byte[] data = entry.readClass(className);
+            if (data != null) {
+                return data;
             }
         }
         // 所有子条目都找不到
-        throw new Exception("Class not found in composite path: " + className);
+        return null;
+    }
+
+    // 索引里登记的总是叶子条目，不会问到组合条目
+    @Override
+    public Path sourceOf(String className) {
+        return null;
+    }
+
+    @Override
+    public void indexClasses(Map<String, Entry> index) {
+        for (Entry entry : entries) {
+            Entry.indexOrSkip(entry, index);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Entry entry : entries) {
+            try {
+                entry.close();
+            } catch (IOException e) {
+                // 继续关闭其余条目，最后统一抛出
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     @Override
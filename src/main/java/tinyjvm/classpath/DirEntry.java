@@ -1,9 +1,12 @@
 package tinyjvm.classpath;
 
-
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class DirEntry implements Entry {
     private final Path absolutePath;
@@ -13,13 +16,31 @@ public class DirEntry implements Entry {
     }
 
     @Override
-    public byte[] readClass(String className) throws Exception {
+    public byte[] readClass(String className) throws IOException {
         Path classPath = absolutePath.resolve(className);
-        if (Files.exists(classPath) && Files.isRegularFile(classPath)) {
+        if (Files.isRegularFile(classPath)) {
             return Files.readAllBytes(classPath);
         }
-        // 为了和 CompositeEntry 协同工作，这里找不到就抛出异常，让上层去尝试下一个 Entry
-        throw new Exception("Class not found in directory: " + className);
+        // 找不到时返回 null，让上层去尝试下一个 Entry
+        return null;
+    }
+
+    @Override
+    public Path sourceOf(String className) {
+        return absolutePath.resolve(className);
+    }
+
+    @Override
+    public void indexClasses(Map<String, Entry> index) throws IOException {
+        if (!Files.isDirectory(absolutePath)) {
+            return;
+        }
+        // 索引的 key 使用 '/' 分隔的相对路径，和 JAR 中的条目名格式一致
+        try (Stream<Path> files = Files.walk(absolutePath)) {
+            files.filter(p -> p.toString().endsWith(".class") && Files.isRegularFile(p))
+                    .map(p -> absolutePath.relativize(p).toString().replace(File.separatorChar, '/'))
+                    .forEach(name -> index.putIfAbsent(name, this));
+        }
     }
 
     @Override
@@ -1,15 +1,53 @@
 package tinyjvm.classpath;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
 
-public interface Entry {
+public interface Entry extends Closeable {
     /**
      * 读取类文件内容
      * @param className 相对路径的类文件名，例如 a/b/c/SimpleTest.class
-     * @return 字节数组
-     * @throws Exception 如果找不到或读取失败
+     * @return 字节数组；该条目中没有这个类时返回 null
+     * @throws IOException 如果读取失败
      */
-    byte[] readClass(String className) throws Exception;
+    byte[] readClass(String className) throws IOException;
+
+    /**
+     * 把本条目包含的所有类文件登记到索引中 (类文件名 -> 所在的条目)。
+     * 索引中已经存在的类名不会被覆盖，因此先登记的条目优先，和按顺序查找的语义一致。
+     * @param index 整个类路径共享的索引
+     * @throws IOException 如果遍历目录或打开 JAR 失败
+     */
+    void indexClasses(Map<String, Entry> index) throws IOException;
+
+    /**
+     * 类文件来自哪个文件：目录条目是类文件本身，JAR 条目是 JAR 文件。
+     * 共享归档用这些文件的修改时间和大小判断归档是否过期
+     * @param className 相对路径的类文件名，必须是 indexClasses 登记到本条目的类
+     */
+    Path sourceOf(String className);
+
+    /**
+     * 释放该条目持有的资源（例如打开的 JAR 文件），默认什么也不做
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * 登记 entry 中的类。读不了的条目 (例如不存在的 JAR) 打印警告后跳过，不影响类路径上的其他条目
+     */
+    static void indexOrSkip(Entry entry, Map<String, Entry> index) {
+        try {
+            entry.indexClasses(index);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Warning: classpath entry " + entry + " cannot be read, skipped (" + e.getMessage() + ")");
+        }
+    }
 
     // 静态工厂方法，根据路径字符串创建不同类型的 Entry
     static Entry create(String path) {
@@ -1,35 +1,80 @@
 package tinyjvm.classpath;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.zip.ZipFile;
 
 public class ZipEntry implements Entry {
     private final Path absolutePath;
 
+    // 压缩包在第一次读取时打开，并一直保持打开直到 close()，
+    // 避免每次查找类都重新打开文件、重新解析中央目录
+    private ZipFile zipFile;
+    private Map<String, java.util.zip.ZipEntry> index; // 条目名 -> 压缩包条目
+
     public ZipEntry(String path) {
         this.absolutePath = Paths.get(path).toAbsolutePath();
     }
 
     @Override
-    public byte[] readClass(String className) throws Exception {
-        if (!Files.exists(absolutePath)) {
-            throw new Exception("JAR/ZIP file not found: " + absolutePath);
+    public byte[] readClass(String className) throws IOException {
+        java.util.zip.ZipEntry entry = getIndex().get(className);
+        if (entry != null) {
+            try (InputStream is = zipFile.getInputStream(entry)) {
+                // 使用 Java 9+ 的 InputStream.readAllBytes()
+                return is.readAllBytes();
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Path sourceOf(String className) {
+        return absolutePath;
+    }
+
+    @Override
+    public void indexClasses(Map<String, Entry> classIndex) throws IOException {
+        for (String name : getIndex().keySet()) {
+            if (name.endsWith(".class")) {
+                classIndex.putIfAbsent(name, this);
+            }
         }
+    }
 
-        try (ZipFile zipFile = new ZipFile(absolutePath.toFile())) {
-            java.util.zip.ZipEntry entry = zipFile.getEntry(className);
-            if (entry != null) {
-                try (InputStream is = zipFile.getInputStream(entry)) {
-                    // 使用 Java 9+ 的 InputStream.readAllBytes()
-                    return is.readAllBytes();
-                }
+    private synchronized Map<String, java.util.zip.ZipEntry> getIndex() throws IOException {
+        if (index == null) {
+            if (!Files.exists(absolutePath)) {
+                throw new FileNotFoundException("JAR/ZIP file not found: " + absolutePath);
             }
+            ZipFile file = new ZipFile(absolutePath.toFile());
+            Map<String, java.util.zip.ZipEntry> entries = new HashMap<>(file.size() * 4 / 3 + 1);
+            Enumeration<? extends java.util.zip.ZipEntry> e = file.entries();
+            while (e.hasMoreElements()) {
+                java.util.zip.ZipEntry entry = e.nextElement();
+                entries.put(entry.getName(), entry);
+            }
+            zipFile = file;
+            index = entries;
         }
+        return index;
+    }
 
-        throw new Exception("Class not found in ZIP/JAR: " + className);
+    @Override
+    public synchronized void close() throws IOException {
+        if (zipFile != null) {
+            zipFile.close();
+            zipFile = null;
+            index = null;
+        }
     }
 
     @Override
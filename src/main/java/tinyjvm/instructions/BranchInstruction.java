@@ -0,0 +1,24 @@
+package tinyjvm.instructions;
+
+import tinyjvm.runtime.Frame;
+
+/**
+ * 跳转指令的基类，操作数是相对于当前指令地址的 16 位有符号偏移量
+ */
+public abstract class BranchInstruction implements Instruction {
+    protected int offset;
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.offset = reader.readInt16();
+    }
+
+    // 跳转目标 = 当前指令的 PC + 偏移量；向后跳转时累加方法的回边计数
+    protected void branch(Frame frame) {
+        if (offset <= 0) {
+            frame.getMethod().countBackedge();
+        }
+        int pc = frame.getThread().getPC();
+        frame.setNextPC(pc + offset);
+    }
+}
@@ -3,11 +3,13 @@ package tinyjvm.instructions;
 import tinyjvm.runtime.Frame;
 import tinyjvm.runtime.JvmThread;
 
+import java.nio.ByteBuffer;
+
 public class BytecodeReader {
-    private byte[] code;
+    private ByteBuffer code; // 按绝对位置读取，不修改 buffer 自身的 position
     private int pc;
 
-    public void reset(byte[] code, int pc) {
+    public void reset(ByteBuffer code, int pc) {
         this.code = code;
         this.pc = pc;
     }
@@ -18,12 +20,12 @@ public class BytecodeReader {
 
     public int readUint8() {
         // Java 的 byte 是有符号的，通过 & 0xFF 转换为无符号的 int
-        return code[pc++] & 0xFF;
+        return code.get(pc++) & 0xFF;
     }
 
     public int readInt8() {
         // 直接读取一个有符号 byte
-        return code[pc++];
+        return code.get(pc++);
     }
 
     public int readInt16() {
@@ -32,6 +34,18 @@ public class BytecodeReader {
         return (high << 8) | low;
     }
 
+    public int readUint16() {
+        int high = readUint8();
+        int low = readUint8();
+        return (high << 8) | low;
+    }
+
+    public int readInt32() {
+        int value = code.getInt(pc);
+        pc += 4;
+        return value;
+    }
+
     // 如果需要跳过 N 个字节的 padding
     public void skipPadding(int n) {
         pc += n;
@@ -0,0 +1,71 @@
+package tinyjvm.instructions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 方法字节码的预解码结果。
+ * 每个方法只解码一次：instructions[pc] 是从 pc 处开始的那条指令（操作数已经读好），
+ * nextPCs[pc] 是紧随其后的下一条指令地址；操作数所占的字节位置为 null。
+ * 解释器执行时只需按 PC 取出指令，不再重复读取 opcode、创建对象和读取操作数。
+ * 还不支持的指令解码成 UnsupportedInstruction，只有执行到它时才报错。
+ * fuse() 在此基础上把常见的指令序列替换成超级指令，见 Superinstructions。
+ */
+public final class DecodedCode {
+    private final ByteBuffer code;
+    private final Instruction[] instructions;
+    private final int[] nextPCs;
+
+    private DecodedCode(ByteBuffer code, Instruction[] instructions, int[] nextPCs) {
+        this.code = code;
+        this.instructions = instructions;
+        this.nextPCs = nextPCs;
+    }
+
+    /**
+     * 顺序扫描整段字节码，为每条指令取得共享实例，或创建新实例并读取其操作数。
+     * @param code 方法 Code 属性中的字节码
+     * @return 按 PC 索引的预解码指令流
+     */
+    public static DecodedCode decode(ByteBuffer code) {
+        Instruction[] instructions = new Instruction[code.limit()];
+        int[] nextPCs = new int[code.limit()];
+
+        BytecodeReader reader = new BytecodeReader();
+        reader.reset(code, 0);
+        while (reader.getPC() < code.limit()) {
+            int pc = reader.getPC();
+            Instruction instruction = InstructionFactory.decode(reader);
+
+            instructions[pc] = instruction;
+            nextPCs[pc] = reader.getPC();
+        }
+        return new DecodedCode(code, instructions, nextPCs);
+    }
+
+    /**
+     * 生成融合了超级指令的副本，原来的指令流保持不变 (执行跟踪需要看到每一条原始指令)
+     * @return 新的指令流
+     */
+    public DecodedCode fuse() {
+        Instruction[] fusedInstructions = instructions.clone();
+        int[] fusedNextPCs = nextPCs.clone();
+        Superinstructions.fuse(code, fusedInstructions, fusedNextPCs);
+        return new DecodedCode(code, fusedInstructions, fusedNextPCs);
+    }
+
+    public Instruction getInstruction(int pc) {
+        return instructions[pc];
+    }
+
+    public int getNextPC(int pc) {
+        return nextPCs[pc];
+    }
+
+    public int getOpcode(int pc) {
+        return code.get(pc) & 0xFF;
+    }
+
+    public int length() {
+        return code.limit();
+    }
+}
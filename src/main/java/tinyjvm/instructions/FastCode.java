@@ -0,0 +1,168 @@
+package tinyjvm.instructions;
+
+import tinyjvm.runtime.heap.InlineCache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 快速执行引擎使用的指令流。
+ * 把方法的字节码翻译成一个 int[]：每条指令占 1 个 int 的 opcode，后面紧跟它已经解码好的操作数。
+ * 翻译时会做一些归一化，让执行循环里的 switch 尽量小：
+ * <ul>
+ *     <li>iconst_&lt;n&gt;、bipush、sipush 都变成 0x10 (bipush) + 常量值</li>
+ *     <li>lconst/fconst/dconst 变成 0x09/0x0b/0x0e + 常量的位模式 (long/double 占两个 int，低位在前)</li>
+ *     <li>xload_&lt;n&gt;/xstore_&lt;n&gt; 变成 xload/xstore + 索引</li>
+ *     <li>跳转指令的操作数是目标指令在 int[] 中的下标，而不是字节码偏移量</li>
+ *     <li>new、anewarray、invokevirtual、invokespecial、invokestatic 的操作数是常量池索引，解析结果缓存在运行时常量池里</li>
+ *     <li>newarray 的操作数是 atype；multianewarray 的操作数是常量池索引和维数</li>
+ *     <li>invokeinterface 的操作数是常量池索引和调用点编号，每个调用点有自己的内联缓存</li>
+ *     <li>getstatic/putstatic 的操作数是常量池索引；getfield/putfield 的操作数是常量池索引和一个预留的槽位号，
+ *     第一次执行解析出字段后，引擎把槽位号填进去，再把 opcode 改写成下面的快速形式，之后直接按槽位读写对象</li>
+ *     <li>nop 直接去掉</li>
+ * </ul>
+ * 不支持的 opcode 翻译成 UNSUPPORTED + 原来的 opcode，执行到它时才抛出 UnsupportedOperationException，
+ * 方法里从来不执行的指令不影响其余部分。
+ */
+public final class FastCode {
+    // getfield/putfield 的快速形式，按字段类别区分：数值 (占一个槽位)、long/double (两个槽位)、引用。
+    // 使用 JVM 规范中没有定义的 opcode，只在 FastCode 内部出现
+    public static final int GETFIELD_NUM = 0xcb;
+    public static final int GETFIELD_WIDE = 0xcc;
+    public static final int GETFIELD_REF = 0xcd;
+    public static final int PUTFIELD_NUM = 0xce;
+    public static final int PUTFIELD_WIDE = 0xcf;
+    public static final int PUTFIELD_REF = 0xd0;
+    // 不支持的指令，操作数是原来的 opcode
+    public static final int UNSUPPORTED = 0xd1;
+
+    private final int[] code;
+    private final InlineCache[] inlineCaches; // invokeinterface 调用点的内联缓存，下标是调用点编号
+
+    private FastCode(int[] code, int interfaceCallSites) {
+        this.code = code;
+        this.inlineCaches = new InlineCache[interfaceCallSites];
+        for (int i = 0; i < interfaceCallSites; i++) {
+            inlineCaches[i] = new InlineCache();
+        }
+    }
+
+    public int[] getCode() {
+        return code;
+    }
+
+    /**
+     * @param site invokeinterface 的第二个操作数 (调用点编号)
+     */
+    public InlineCache getInlineCache(int site) {
+        return inlineCaches[site];
+    }
+
+    public static FastCode compile(ByteBuffer bytecode) {
+        int length = bytecode.limit();
+        int[] streamIndex = new int[length + 1]; // 字节码偏移量 -> int[] 下标
+        int[] out = new int[length * 2];
+        int size = 0;
+        int interfaceCallSites = 0;
+        int[] branchSites = new int[8]; // 需要回填跳转目标的操作数位置
+        int branchCount = 0;
+
+        BytecodeReader reader = new BytecodeReader();
+        reader.reset(bytecode, 0);
+        while (reader.getPC() < length) {
+            int pc = reader.getPC();
+            streamIndex[pc] = size;
+            int opcode = reader.readUint8();
+            if (out.length - size < 4) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+
+            if (opcode == 0x00) { // nop
+                continue;
+            } else if (opcode >= 0x02 && opcode <= 0x08) { // iconst_m1 ~ iconst_5
+                out[size++] = 0x10;
+                out[size++] = opcode - 0x03;
+            } else if (opcode == 0x09 || opcode == 0x0a) { // lconst_<l>
+                out[size++] = 0x09;
+                out[size++] = opcode - 0x09;
+                out[size++] = 0;
+            } else if (opcode >= 0x0b && opcode <= 0x0d) { // fconst_<f>
+                out[size++] = 0x0b;
+                out[size++] = Float.floatToRawIntBits(opcode - 0x0b);
+            } else if (opcode == 0x0e || opcode == 0x0f) { // dconst_<d>
+                long bits = Double.doubleToRawLongBits(opcode - 0x0e);
+                out[size++] = 0x0e;
+                out[size++] = (int) bits;
+                out[size++] = (int) (bits >>> 32);
+            } else if (opcode == 0x10) { // bipush
+                out[size++] = 0x10;
+                out[size++] = reader.readInt8();
+            } else if (opcode == 0x11) { // sipush
+                out[size++] = 0x10;
+                out[size++] = reader.readInt16();
+            } else if (opcode >= 0x15 && opcode <= 0x19) { // xload
+                out[size++] = opcode;
+                out[size++] = reader.readUint8();
+            } else if (opcode >= 0x1a && opcode <= 0x2d) { // xload_<n>
+                out[size++] = 0x15 + (opcode - 0x1a) / 4;
+                out[size++] = (opcode - 0x1a) % 4;
+            } else if (opcode >= 0x36 && opcode <= 0x3a) { // xstore
+                out[size++] = opcode;
+                out[size++] = reader.readUint8();
+            } else if (opcode >= 0x3b && opcode <= 0x4e) { // xstore_<n>
+                out[size++] = 0x36 + (opcode - 0x3b) / 4;
+                out[size++] = (opcode - 0x3b) % 4;
+            } else if (opcode == 0x01 || (opcode >= 0x2e && opcode <= 0x35) || (opcode >= 0x4f && opcode <= 0x83)
+                    || (opcode >= 0x85 && opcode <= 0x98) || (opcode >= 0xac && opcode <= 0xb1) || opcode == 0xbe
+                    || opcode == 0xbf || opcode == 0xc2 || opcode == 0xc3) {
+                // aconst_null, xaload, xastore, 栈操作, 算术, 类型转换, 比较, 返回, arraylength, athrow, monitorenter, monitorexit
+                out[size++] = opcode;
+            } else if (opcode == 0x84) { // iinc
+                out[size++] = opcode;
+                out[size++] = reader.readUint8();
+                out[size++] = reader.readInt8();
+            } else if ((opcode >= 0x99 && opcode <= 0xa7) || opcode == 0xc6 || opcode == 0xc7) {
+                // if<cond>, if_icmp<cond>, if_acmp<cond>, goto, ifnull, ifnonnull
+                out[size++] = opcode;
+                if (branchCount == branchSites.length) {
+                    branchSites = Arrays.copyOf(branchSites, branchCount * 2);
+                }
+                branchSites[branchCount++] = size;
+                out[size++] = pc + reader.readInt16(); // 先记下字节码偏移量，最后统一换成下标
+            } else if (opcode == 0xb2 || opcode == 0xb3 || (opcode >= 0xb6 && opcode <= 0xb8) || opcode == 0xbb
+                    || opcode == 0xbd) {
+                // getstatic, putstatic, invokevirtual, invokespecial, invokestatic, new, anewarray
+                out[size++] = opcode;
+                out[size++] = reader.readUint16();
+            } else if (opcode == 0xbc) { // newarray
+                out[size++] = opcode;
+                out[size++] = reader.readUint8();
+            } else if (opcode == 0xc5) { // multianewarray
+                out[size++] = opcode;
+                out[size++] = reader.readUint16();
+                out[size++] = reader.readUint8();
+            } else if (opcode == 0xb4 || opcode == 0xb5) { // getfield, putfield
+                out[size++] = opcode;
+                out[size++] = reader.readUint16();
+                out[size++] = 0; // 字段的槽位号，第一次执行时填入
+            } else if (opcode == 0xb9) { // invokeinterface
+                out[size++] = opcode;
+                out[size++] = reader.readUint16();
+                out[size++] = interfaceCallSites++;
+                reader.readUint8(); // count
+                reader.readUint8(); // 0
+            } else {
+                out[size++] = UNSUPPORTED;
+                out[size++] = opcode;
+                UnsupportedInstruction.skipOperands(opcode, reader);
+            }
+        }
+        streamIndex[length] = size;
+
+        for (int i = 0; i < branchCount; i++) {
+            int site = branchSites[i];
+            out[site] = streamIndex[out[site]];
+        }
+        return new FastCode(Arrays.copyOf(out, size), interfaceCallSites);
+    }
+}
@@ -0,0 +1,13 @@
+package tinyjvm.instructions;
+
+/**
+ * 以两字节常量池索引作为操作数的指令的基类，例如 invokestatic、getfield
+ */
+public abstract class Index16Instruction implements Instruction {
+    protected int index;
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.index = reader.readUint16();
+    }
+}
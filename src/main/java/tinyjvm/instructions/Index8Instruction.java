@@ -0,0 +1,21 @@
+package tinyjvm.instructions;
+
+/**
+ * 以一个单字节局部变量表索引作为操作数的指令的基类，例如 iload、istore。
+ * iload_0 这类把索引编码在 opcode 里的形式通过带参构造函数创建，作为共享实例使用，不会再读取操作数。
+ */
+public abstract class Index8Instruction implements Instruction {
+    protected int index;
+
+    protected Index8Instruction() {
+    }
+
+    protected Index8Instruction(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.index = reader.readUint8();
+    }
+}
@@ -1,43 +1,233 @@
 package tinyjvm.instructions;
 
+import tinyjvm.instructions.comparisons.*;
 import tinyjvm.instructions.constants.*;
-import tinyjvm.runtime.Frame;
+import tinyjvm.instructions.control.*;
+import tinyjvm.instructions.conversions.*;
+import tinyjvm.instructions.loads.*;
+import tinyjvm.instructions.math.*;
+import tinyjvm.instructions.references.*;
+import tinyjvm.instructions.stack.*;
+import tinyjvm.instructions.stores.*;
 
 public class InstructionFactory {
-    // 创建具体的指令对象
-    // 为了提高性能，很多指令是无状态的，可以共享同一个实例
-    static final IADD iadd = new IADD();
-    // ... 其他可共享的指令
+    // 没有操作数（或者操作数隐含在 opcode 里，如 iload_0）的指令是无状态的，
+    // 整个虚拟机共享同一个实例，按 opcode 直接查表即可，不需要每次都创建对象
+    private static final Instruction[] SHARED = new Instruction[256];
 
+    static {
+        // Constants
+        SHARED[0x00] = new NOP();
+        SHARED[0x01] = new ACONST_NULL();
+        for (int i = -1; i <= 5; i++) {
+            SHARED[0x03 + i] = new ICONST(i); // iconst_m1 ~ iconst_5
+        }
+        SHARED[0x09] = new LCONST(0L);
+        SHARED[0x0a] = new LCONST(1L);
+        SHARED[0x0b] = new FCONST(0.0f);
+        SHARED[0x0c] = new FCONST(1.0f);
+        SHARED[0x0d] = new FCONST(2.0f);
+        SHARED[0x0e] = new DCONST(0.0);
+        SHARED[0x0f] = new DCONST(1.0);
+        // Loads: xload_<n>
+        for (int n = 0; n < 4; n++) {
+            SHARED[0x1a + n] = new ILOAD(n);
+            SHARED[0x1e + n] = new LLOAD(n);
+            SHARED[0x22 + n] = new FLOAD(n);
+            SHARED[0x26 + n] = new DLOAD(n);
+            SHARED[0x2a + n] = new ALOAD(n);
+        }
+        // Loads: xaload
+        SHARED[0x2e] = new IALOAD();
+        SHARED[0x2f] = new LALOAD();
+        SHARED[0x30] = new FALOAD();
+        SHARED[0x31] = new DALOAD();
+        SHARED[0x32] = new AALOAD();
+        SHARED[0x33] = new BALOAD();
+        SHARED[0x34] = new CALOAD();
+        SHARED[0x35] = new SALOAD();
+        // Stores: xstore_<n>
+        for (int n = 0; n < 4; n++) {
+            SHARED[0x3b + n] = new ISTORE(n);
+            SHARED[0x3f + n] = new LSTORE(n);
+            SHARED[0x43 + n] = new FSTORE(n);
+            SHARED[0x47 + n] = new DSTORE(n);
+            SHARED[0x4b + n] = new ASTORE(n);
+        }
+        // Stores: xastore
+        SHARED[0x4f] = new IASTORE();
+        SHARED[0x50] = new LASTORE();
+        SHARED[0x51] = new FASTORE();
+        SHARED[0x52] = new DASTORE();
+        SHARED[0x53] = new AASTORE();
+        SHARED[0x54] = new BASTORE();
+        SHARED[0x55] = new CASTORE();
+        SHARED[0x56] = new SASTORE();
+        // Stack
+        SHARED[0x57] = new POP();
+        SHARED[0x58] = new POP2();
+        SHARED[0x59] = new DUP();
+        SHARED[0x5a] = new DUP_X1();
+        SHARED[0x5b] = new DUP_X2();
+        SHARED[0x5c] = new DUP2();
+        SHARED[0x5d] = new DUP2_X1();
+        SHARED[0x5e] = new DUP2_X2();
+        SHARED[0x5f] = new SWAP();
+        // Math
+        SHARED[0x60] = new IADD();
+        SHARED[0x61] = new LADD();
+        SHARED[0x62] = new FADD();
+        SHARED[0x63] = new DADD();
+        SHARED[0x64] = new ISUB();
+        SHARED[0x65] = new LSUB();
+        SHARED[0x66] = new FSUB();
+        SHARED[0x67] = new DSUB();
+        SHARED[0x68] = new IMUL();
+        SHARED[0x69] = new LMUL();
+        SHARED[0x6a] = new FMUL();
+        SHARED[0x6b] = new DMUL();
+        SHARED[0x6c] = new IDIV();
+        SHARED[0x6d] = new LDIV();
+        SHARED[0x6e] = new FDIV();
+        SHARED[0x6f] = new DDIV();
+        SHARED[0x70] = new IREM();
+        SHARED[0x71] = new LREM();
+        SHARED[0x72] = new FREM();
+        SHARED[0x73] = new DREM();
+        SHARED[0x74] = new INEG();
+        SHARED[0x75] = new LNEG();
+        SHARED[0x76] = new FNEG();
+        SHARED[0x77] = new DNEG();
+        SHARED[0x78] = new ISHL();
+        SHARED[0x79] = new LSHL();
+        SHARED[0x7a] = new ISHR();
+        SHARED[0x7b] = new LSHR();
+        SHARED[0x7c] = new IUSHR();
+        SHARED[0x7d] = new LUSHR();
+        SHARED[0x7e] = new IAND();
+        SHARED[0x7f] = new LAND();
+        SHARED[0x80] = new IOR();
+        SHARED[0x81] = new LOR();
+        SHARED[0x82] = new IXOR();
+        SHARED[0x83] = new LXOR();
+        // Conversions
+        SHARED[0x85] = new I2L();
+        SHARED[0x86] = new I2F();
+        SHARED[0x87] = new I2D();
+        SHARED[0x88] = new L2I();
+        SHARED[0x89] = new L2F();
+        SHARED[0x8a] = new L2D();
+        SHARED[0x8b] = new F2I();
+        SHARED[0x8c] = new F2L();
+        SHARED[0x8d] = new F2D();
+        SHARED[0x8e] = new D2I();
+        SHARED[0x8f] = new D2L();
+        SHARED[0x90] = new D2F();
+        SHARED[0x91] = new I2B();
+        SHARED[0x92] = new I2C();
+        SHARED[0x93] = new I2S();
+        // Comparisons
+        SHARED[0x94] = new LCMP();
+        SHARED[0x95] = new FCMPL();
+        SHARED[0x96] = new FCMPG();
+        SHARED[0x97] = new DCMPL();
+        SHARED[0x98] = new DCMPG();
+        // Control
+        SHARED[0xac] = new IRETURN();
+        SHARED[0xad] = new LRETURN();
+        SHARED[0xae] = new FRETURN();
+        SHARED[0xaf] = new DRETURN();
+        SHARED[0xb0] = new ARETURN();
+        SHARED[0xb1] = new RETURN();
+        // References
+        SHARED[0xbe] = new ARRAYLENGTH();
+        SHARED[0xbf] = new ATHROW();
+        SHARED[0xc2] = new MONITORENTER();
+        SHARED[0xc3] = new MONITOREXIT();
+    }
+
+    /**
+     * 按 opcode 取得指令对象。无状态指令返回共享实例；带操作数的指令每次返回新实例，
+     * 调用方需要接着调用 fetchOperands 读取操作数。
+     */
     public static Instruction create(int opcode) {
+        Instruction instruction = SHARED[opcode];
+        if (instruction != null) {
+            return instruction;
+        }
+        return newOperandInstruction(opcode);
+    }
+
+    /**
+     * 从 reader 的当前位置解码一条完整的指令 (opcode + 操作数)。
+     * 共享实例没有操作数，不会对它们调用 fetchOperands。
+     */
+    public static Instruction decode(BytecodeReader reader) {
+        int opcode = reader.readUint8();
+        Instruction instruction = SHARED[opcode];
+        if (instruction != null) {
+            return instruction;
+        }
+        instruction = newOperandInstruction(opcode);
+        instruction.fetchOperands(reader);
+        return instruction;
+    }
+
+    // 带操作数的指令：字节码中每个出现位置都需要自己的实例来保存操作数
+    private static Instruction newOperandInstruction(int opcode) {
         switch (opcode) {
             // Constants
-            case 0x02: return new ICONST(-1); // iconst_m1
-            case 0x03: return new ICONST(0);  // iconst_0
-            case 0x04: return new ICONST(1);  // iconst_1
-            case 0x05: return new ICONST(2);  // iconst_2
-            case 0x06: return new ICONST(3);  // iconst_3
-            case 0x07: return new ICONST(4);  // iconst_4
-            case 0x08: return new ICONST(5);  // iconst_5
             case 0x10: return new BIPUSH();
             case 0x11: return new SIPUSH();
             // Loads
-            case 0x1a: return new ILOAD(0); // ILOAD_0
-            case 0x1b: return new ILOAD(1); // ILOAD_1
-            case 0x1c: return new ILOAD(2); // ILOAD_2
+            case 0x15: return new ILOAD();
+            case 0x16: return new LLOAD();
+            case 0x17: return new FLOAD();
+            case 0x18: return new DLOAD();
+            case 0x19: return new ALOAD();
             // Stores
-            case 0x3b: return new ISTORE(0);  // istore_0
-            case 0x3c: return new ISTORE(1);  // istore_1
-            case 0x3d: return new ISTORE(2);  // istore_2
-            case 0x3e: return new ISTORE(3);  // istore_3
+            case 0x36: return new ISTORE();
+            case 0x37: return new LSTORE();
+            case 0x38: return new FSTORE();
+            case 0x39: return new DSTORE();
+            case 0x3a: return new ASTORE();
             // Math
-            case 0x60: return iadd;
+            case 0x84: return new IINC();
+            // Comparisons
+            case 0x99: return new IFEQ();
+            case 0x9a: return new IFNE();
+            case 0x9b: return new IFLT();
+            case 0x9c: return new IFGE();
+            case 0x9d: return new IFGT();
+            case 0x9e: return new IFLE();
+            case 0x9f: return new IF_ICMPEQ();
+            case 0xa0: return new IF_ICMPNE();
+            case 0xa1: return new IF_ICMPLT();
+            case 0xa2: return new IF_ICMPGE();
+            case 0xa3: return new IF_ICMPGT();
+            case 0xa4: return new IF_ICMPLE();
+            case 0xa5: return new IF_ACMPEQ();
+            case 0xa6: return new IF_ACMPNE();
             // Control
-            case 0xb1: return new RETURN();
-//            case 0xb2: // getstatic
-//                return new GetStatic();
+            case 0xa7: return new GOTO();
+            // References
+            case 0xb2: return new GETSTATIC();
+            case 0xb3: return new PUTSTATIC();
+            case 0xb4: return new GETFIELD();
+            case 0xb5: return new PUTFIELD();
+            case 0xb6: return new INVOKEVIRTUAL();
+            case 0xb7: return new INVOKESPECIAL();
+            case 0xb8: return new INVOKESTATIC();
+            case 0xb9: return new INVOKEINTERFACE();
+            case 0xbb: return new NEW();
+            case 0xbc: return new NEWARRAY();
+            case 0xbd: return new ANEWARRAY();
+            case 0xc5: return new MULTIANEWARRAY();
+            case 0xc6: return new IFNULL();
+            case 0xc7: return new IFNONNULL();
             default:
-                throw new UnsupportedOperationException("Unsupported opcode: " + String.format("0x%x", opcode));
+                // 不支持的指令解码成陷阱，执行到它时才报错
+                return new UnsupportedInstruction(opcode);
         }
     }
 }
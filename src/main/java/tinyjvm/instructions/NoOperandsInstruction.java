@@ -0,0 +1,11 @@
+package tinyjvm.instructions;
+
+/**
+ * 没有操作数的指令的基类，例如 iadd、pop、iconst_0
+ */
+public abstract class NoOperandsInstruction implements Instruction {
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        // No operands
+    }
+}
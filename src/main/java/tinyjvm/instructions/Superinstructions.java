@@ -0,0 +1,114 @@
+package tinyjvm.instructions;
+
+import tinyjvm.instructions.fused.ICONST_ISTORE;
+import tinyjvm.instructions.fused.IINC_GOTO;
+import tinyjvm.instructions.fused.ILOAD_ILOAD_IOP_ISTORE;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 超级指令的窥孔优化：在预解码后的指令流上寻找常见的指令序列，把序列第一条指令的位置换成一条融合指令，
+ * nextPC 指向序列之后，这样一次分派就执行完整个序列。
+ * 序列中间的指令保持不变，跳转到序列中间时照常逐条执行，所以不需要分析跳转目标。
+ * 融合的序列来自 -Xtrace:sequences 的统计结果：
+ * <ul>
+ *     <li>iload a; iload b; &lt;iop&gt;; istore c</li>
+ *     <li>iconst_&lt;i&gt;/bipush/sipush; istore</li>
+ *     <li>iinc; goto</li>
+ * </ul>
+ */
+final class Superinstructions {
+
+    private Superinstructions() {
+    }
+
+    /**
+     * 在 instructions/nextPCs 上原地替换可以融合的序列
+     * @param code 方法的字节码
+     * @param instructions 按 PC 索引的指令
+     * @param nextPCs 按 PC 索引的下一条指令地址
+     */
+    static void fuse(ByteBuffer code, Instruction[] instructions, int[] nextPCs) {
+        int pc = 0;
+        while (pc < code.limit()) {
+            int pc2 = nextPCs[pc];
+            int pc3 = pc2 < code.limit() ? nextPCs[pc2] : -1;
+            int pc4 = pc3 >= 0 && pc3 < code.limit() ? nextPCs[pc3] : -1;
+
+            int left = iloadIndex(code, pc);
+            if (left >= 0 && pc4 >= 0) {
+                int right = iloadIndex(code, pc2);
+                int op = opcode(code, pc3);
+                int target = istoreIndex(code, pc4);
+                if (right >= 0 && ILOAD_ILOAD_IOP_ISTORE.isFusibleOp(op) && target >= 0) {
+                    instructions[pc] = new ILOAD_ILOAD_IOP_ISTORE(left, right, op, target);
+                    nextPCs[pc] = nextPCs[pc4];
+                    pc = nextPCs[pc];
+                    continue;
+                }
+            }
+
+            if (isIntConst(code, pc) && pc2 < code.limit()) {
+                int index = istoreIndex(code, pc2);
+                if (index >= 0) {
+                    instructions[pc] = new ICONST_ISTORE(intConstValue(code, pc), index);
+                    nextPCs[pc] = nextPCs[pc2];
+                    pc = nextPCs[pc];
+                    continue;
+                }
+            }
+
+            if (opcode(code, pc) == 0x84 && opcode(code, pc2) == 0xa7) { // iinc; goto
+                int offset = code.getShort(pc2 + 1);
+                instructions[pc] = new IINC_GOTO(code.get(pc + 1) & 0xFF, code.get(pc + 2),
+                        pc2 + offset, offset <= 0);
+                nextPCs[pc] = pc2 + offset; // 不会被用到，融合指令自己设置跳转目标
+            }
+            pc = pc2;
+        }
+    }
+
+    private static int opcode(ByteBuffer code, int pc) {
+        return pc >= 0 && pc < code.limit() ? code.get(pc) & 0xFF : -1;
+    }
+
+    // iload / iload_<n> 读取的局部变量索引，不是 iload 时返回 -1
+    private static int iloadIndex(ByteBuffer code, int pc) {
+        int opcode = opcode(code, pc);
+        if (opcode == 0x15) {
+            return code.get(pc + 1) & 0xFF;
+        }
+        if (opcode >= 0x1a && opcode <= 0x1d) {
+            return opcode - 0x1a;
+        }
+        return -1;
+    }
+
+    // istore / istore_<n> 写入的局部变量索引，不是 istore 时返回 -1
+    private static int istoreIndex(ByteBuffer code, int pc) {
+        int opcode = opcode(code, pc);
+        if (opcode == 0x36) {
+            return code.get(pc + 1) & 0xFF;
+        }
+        if (opcode >= 0x3b && opcode <= 0x3e) {
+            return opcode - 0x3b;
+        }
+        return -1;
+    }
+
+    private static boolean isIntConst(ByteBuffer code, int pc) {
+        int opcode = opcode(code, pc);
+        return (opcode >= 0x02 && opcode <= 0x08) || opcode == 0x10 || opcode == 0x11;
+    }
+
+    private static int intConstValue(ByteBuffer code, int pc) {
+        int opcode = opcode(code, pc);
+        if (opcode == 0x10) { // bipush
+            return code.get(pc + 1);
+        }
+        if (opcode == 0x11) { // sipush
+            return code.getShort(pc + 1);
+        }
+        return opcode - 0x03; // iconst_m1 ~ iconst_5
+    }
+}
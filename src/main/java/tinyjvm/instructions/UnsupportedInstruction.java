@@ -0,0 +1,75 @@
+package tinyjvm.instructions;
+
+import tinyjvm.runtime.Frame;
+
+/**
+ * 还不支持的指令 (例如 checkcast、tableswitch、ldc) 解码成的陷阱。
+ * 整个方法在第一次调用时一次解码完，不能因为一条从来不会执行的指令就让整个方法无法运行，
+ * 所以解码时只跳过它的操作数，真正执行到它时才抛出 UnsupportedOperationException。
+ */
+public class UnsupportedInstruction implements Instruction {
+    private final int opcode;
+
+    public UnsupportedInstruction(int opcode) {
+        this.opcode = opcode;
+    }
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        skipOperands(opcode, reader);
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        throw unsupported(opcode);
+    }
+
+    public static UnsupportedOperationException unsupported(int opcode) {
+        return new UnsupportedOperationException("Unsupported opcode: " + String.format("0x%x", opcode));
+    }
+
+    /**
+     * 跳过 opcode 之后的操作数，reader 停在下一条指令的开头。FastCode 翻译不支持的指令时也用它
+     * @param opcode 已经从 reader 读出的 opcode
+     */
+    public static void skipOperands(int opcode, BytecodeReader reader) {
+        switch (opcode) {
+            case 0x10: case 0x12: case 0x15: case 0x16: case 0x17: case 0x18: case 0x19: // bipush, ldc, xload
+            case 0x36: case 0x37: case 0x38: case 0x39: case 0x3a: case 0xa9: case 0xbc: // xstore, ret, newarray
+                reader.skipPadding(1);
+                break;
+            case 0x11: case 0x13: case 0x14: case 0x84: case 0xbb: case 0xbd: // sipush, ldc_w, ldc2_w, iinc, new, anewarray
+            case 0xc0: case 0xc1: case 0xc6: case 0xc7: // checkcast, instanceof, ifnull, ifnonnull
+                reader.skipPadding(2);
+                break;
+            case 0xc5: // multianewarray
+                reader.skipPadding(3);
+                break;
+            case 0xb9: case 0xba: case 0xc8: case 0xc9: // invokeinterface, invokedynamic, goto_w, jsr_w
+                reader.skipPadding(4);
+                break;
+            case 0xaa: { // tableswitch：对齐到 4 字节，default、low、high，然后是 high - low + 1 个偏移量
+                reader.skipPadding((4 - reader.getPC() % 4) % 4);
+                reader.readInt32(); // default
+                int low = reader.readInt32();
+                int high = reader.readInt32();
+                reader.skipPadding((high - low + 1) * 4);
+                break;
+            }
+            case 0xab: { // lookupswitch：对齐到 4 字节，default、npairs，然后是 npairs 个 (key, offset)
+                reader.skipPadding((4 - reader.getPC() % 4) % 4);
+                reader.readInt32(); // default
+                reader.skipPadding(reader.readInt32() * 8);
+                break;
+            }
+            case 0xc4: // wide：iinc 带 2 字节索引和 2 字节常量，其余只有 2 字节索引
+                reader.skipPadding(reader.readUint8() == 0x84 ? 4 : 2);
+                break;
+            default:
+                if ((opcode >= 0x99 && opcode <= 0xa8) || (opcode >= 0xb2 && opcode <= 0xb8)) {
+                    reader.skipPadding(2); // if<cond>, if_icmp<cond>, if_acmp<cond>, goto, jsr, 字段访问, invoke*
+                }
+                // 其余的指令没有操作数；规范里没有定义的 opcode 也按没有操作数处理
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+// 两个数中有 NaN 时，DCMPG 压入 1，DCMPL 压入 -1
+public class DCMPL extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        double val2 = stack.popDouble();
+        double val1 = stack.popDouble();
+        if (val1 > val2) {
+            stack.pushInt(1);
+        } else if (val1 == val2) {
+            stack.pushInt(0);
+        } else if (val1 < val2) {
+            stack.pushInt(-1);
+        } else {
+            stack.pushInt(-1);
+        }
+    }
+}
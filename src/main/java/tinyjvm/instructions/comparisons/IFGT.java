@@ -0,0 +1,14 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.BranchInstruction;
+import tinyjvm.runtime.Frame;
+
+public class IFGT extends BranchInstruction {
+    @Override
+    public void execute(Frame frame) {
+        int val = frame.getOperandStack().popInt();
+        if (val > 0) {
+            branch(frame);
+        }
+    }
+}
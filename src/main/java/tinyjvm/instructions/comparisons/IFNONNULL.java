@@ -0,0 +1,13 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.BranchInstruction;
+import tinyjvm.runtime.Frame;
+
+public class IFNONNULL extends BranchInstruction {
+    @Override
+    public void execute(Frame frame) {
+        if (frame.getOperandStack().popRef() != null) {
+            branch(frame);
+        }
+    }
+}
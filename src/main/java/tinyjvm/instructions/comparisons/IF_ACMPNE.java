@@ -0,0 +1,17 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.BranchInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class IF_ACMPNE extends BranchInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        Object ref2 = stack.popRef();
+        Object ref1 = stack.popRef();
+        if (ref1 != ref2) {
+            branch(frame);
+        }
+    }
+}
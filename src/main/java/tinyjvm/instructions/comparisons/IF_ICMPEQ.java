@@ -0,0 +1,17 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.BranchInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class IF_ICMPEQ extends BranchInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int val2 = stack.popInt();
+        int val1 = stack.popInt();
+        if (val1 == val2) {
+            branch(frame);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package tinyjvm.instructions.comparisons;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class LCMP extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        long val2 = stack.popLong();
+        long val1 = stack.popLong();
+        stack.pushInt(Long.compare(val1, val2));
+    }
+}
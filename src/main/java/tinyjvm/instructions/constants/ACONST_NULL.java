@@ -0,0 +1,11 @@
+package tinyjvm.instructions.constants;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class ACONST_NULL extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().pushRef(null);
+    }
+}
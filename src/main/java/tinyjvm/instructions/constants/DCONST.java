@@ -0,0 +1,17 @@
+package tinyjvm.instructions.constants;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class DCONST extends NoOperandsInstruction {
+    private final double value;
+
+    public DCONST(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().pushDouble(this.value);
+    }
+}
@@ -0,0 +1,17 @@
+package tinyjvm.instructions.constants;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class FCONST extends NoOperandsInstruction {
+    private final float value;
+
+    public FCONST(float value) {
+        this.value = value;
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().pushFloat(this.value);
+    }
+}
@@ -1,10 +1,9 @@
 package tinyjvm.instructions.constants;
 
-import tinyjvm.instructions.BytecodeReader;
-import tinyjvm.instructions.Instruction;
+import tinyjvm.instructions.NoOperandsInstruction;
 import tinyjvm.runtime.Frame;
 
-public class ICONST implements Instruction {
+public class ICONST extends NoOperandsInstruction {
     private final int value;
 
     // 构造函数接收要推入栈的常量值
@@ -12,12 +11,6 @@ public class ICONST implements Instruction {
         this.value = value;
     }
 
-    // 这些指令后面没有操作数，所以此方法为空
-    @Override
-    public void fetchOperands(BytecodeReader reader) {
-        // No operands to fetch
-    }
-
     @Override
     public void execute(Frame frame) {
         frame.getOperandStack().pushInt(this.value);
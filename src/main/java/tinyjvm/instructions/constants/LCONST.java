@@ -0,0 +1,17 @@
+package tinyjvm.instructions.constants;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class LCONST extends NoOperandsInstruction {
+    private final long value;
+
+    public LCONST(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().pushLong(this.value);
+    }
+}
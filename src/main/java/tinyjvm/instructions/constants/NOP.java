@@ -0,0 +1,11 @@
+package tinyjvm.instructions.constants;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class NOP extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        // 什么也不做
+    }
+}
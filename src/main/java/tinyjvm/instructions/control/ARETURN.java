@@ -0,0 +1,18 @@
+package tinyjvm.instructions.control;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.JvmThread;
+
+public class ARETURN extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        // 弹出当前帧，把返回值压入调用者的操作数栈；入口方法没有调用者，返回值直接丢弃
+        Object value = frame.getOperandStack().popRef();
+        JvmThread thread = frame.getThread();
+        thread.popFrame();
+        if (!thread.isStackEmpty()) {
+            thread.currentFrame().getOperandStack().pushRef(value);
+        }
+    }
+}
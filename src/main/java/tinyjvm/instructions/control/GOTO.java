@@ -0,0 +1,11 @@
+package tinyjvm.instructions.control;
+
+import tinyjvm.instructions.BranchInstruction;
+import tinyjvm.runtime.Frame;
+
+public class GOTO extends BranchInstruction {
+    @Override
+    public void execute(Frame frame) {
+        branch(frame);
+    }
+}
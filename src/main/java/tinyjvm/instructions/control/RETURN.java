@@ -0,0 +1,12 @@
+package tinyjvm.instructions.control;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class RETURN extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        // 从当前线程的虚拟机栈中弹出当前帧
+        frame.getThread().popFrame();
+    }
+}
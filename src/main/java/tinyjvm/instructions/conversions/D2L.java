@@ -0,0 +1,14 @@
+package tinyjvm.instructions.conversions;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class D2L extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        double val = stack.popDouble();
+        stack.pushLong((long) val);
+    }
+}
@@ -0,0 +1,14 @@
+package tinyjvm.instructions.conversions;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class F2I extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        float val = stack.popFloat();
+        stack.pushInt((int) val);
+    }
+}
@@ -0,0 +1,22 @@
+package tinyjvm.instructions.fused;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+/**
+ * 超级指令: iconst_&lt;i&gt;/bipush/sipush; istore，即把常量直接写入局部变量
+ */
+public class ICONST_ISTORE extends NoOperandsInstruction {
+    private final int value;
+    private final int index;
+
+    public ICONST_ISTORE(int value, int index) {
+        this.value = value;
+        this.index = index;
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        frame.getLocalVars().setInt(index, value);
+    }
+}
@@ -0,0 +1,33 @@
+package tinyjvm.instructions.fused;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.LocalVars;
+import tinyjvm.runtime.Frame;
+
+/**
+ * 超级指令: iinc; goto，即 for 循环末尾的 i++ 加回边。
+ * 跳转目标在融合时已经换算成绝对地址；和 goto 一样，向后跳转时累加方法的回边计数。
+ */
+public class IINC_GOTO extends NoOperandsInstruction {
+    private final int index;
+    private final int constValue;
+    private final int target;
+    private final boolean backward;
+
+    public IINC_GOTO(int index, int constValue, int target, boolean backward) {
+        this.index = index;
+        this.constValue = constValue;
+        this.target = target;
+        this.backward = backward;
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        LocalVars localVars = frame.getLocalVars();
+        localVars.setInt(index, localVars.getInt(index) + constValue);
+        if (backward) {
+            frame.getMethod().countBackedge();
+        }
+        frame.setNextPC(target);
+    }
+}
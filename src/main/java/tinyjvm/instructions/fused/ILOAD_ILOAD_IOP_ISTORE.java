@@ -0,0 +1,62 @@
+package tinyjvm.instructions.fused;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.LocalVars;
+import tinyjvm.runtime.Frame;
+
+/**
+ * 超级指令: iload a; iload b; &lt;iop&gt;; istore c，例如 c = a + b。
+ * 直接在局部变量表上计算，不经过操作数栈。iop 是不会抛出异常的 int 二元运算 (不含 idiv/irem)。
+ */
+public class ILOAD_ILOAD_IOP_ISTORE extends NoOperandsInstruction {
+    private final int left;
+    private final int right;
+    private final int op; // 运算的 opcode
+    private final int target;
+
+    public ILOAD_ILOAD_IOP_ISTORE(int left, int right, int op, int target) {
+        this.left = left;
+        this.right = right;
+        this.op = op;
+        this.target = target;
+    }
+
+    // 能够融合的运算
+    public static boolean isFusibleOp(int opcode) {
+        switch (opcode) {
+            case 0x60: // iadd
+            case 0x64: // isub
+            case 0x68: // imul
+            case 0x78: // ishl
+            case 0x7a: // ishr
+            case 0x7c: // iushr
+            case 0x7e: // iand
+            case 0x80: // ior
+            case 0x82: // ixor
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        LocalVars localVars = frame.getLocalVars();
+        int a = localVars.getInt(left);
+        int b = localVars.getInt(right);
+        int result;
+        switch (op) {
+            case 0x60: result = a + b; break;   // iadd
+            case 0x64: result = a - b; break;   // isub
+            case 0x68: result = a * b; break;   // imul
+            case 0x78: result = a << b; break;  // ishl
+            case 0x7a: result = a >> b; break;  // ishr
+            case 0x7c: result = a >>> b; break; // iushr
+            case 0x7e: result = a & b; break;   // iand
+            case 0x80: result = a | b; break;   // ior
+            case 0x82: result = a ^ b; break;   // ixor
+            default: throw new IllegalStateException("Unexpected op: " + String.format("0x%x", op));
+        }
+        localVars.setInt(target, result);
+    }
+}
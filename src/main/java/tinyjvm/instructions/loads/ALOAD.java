@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class ALOAD extends Index8Instruction {
+    public ALOAD() { }
+
+    public ALOAD(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        Object value = frame.getLocalVars().getRef(this.index);
+        frame.getOperandStack().pushRef(value);
+    }
+}
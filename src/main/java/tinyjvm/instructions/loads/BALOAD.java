@@ -0,0 +1,19 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+/**
+ * 读 byte 或 boolean 数组的元素，两种数组都用 byte[] 存放，结果按符号扩展成 int
+ */
+public class BALOAD extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        stack.pushInt(array.bytes()[index]);
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class DLOAD extends Index8Instruction {
+    public DLOAD() { }
+
+    public DLOAD(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        double value = frame.getLocalVars().getDouble(this.index);
+        frame.getOperandStack().pushDouble(value);
+    }
+}
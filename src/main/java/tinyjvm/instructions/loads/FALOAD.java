@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+public class FALOAD extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        stack.pushFloat(array.floats()[index]);
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class FLOAD extends Index8Instruction {
+    public FLOAD() { }
+
+    public FLOAD(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        float value = frame.getLocalVars().getFloat(this.index);
+        frame.getOperandStack().pushFloat(value);
+    }
+}
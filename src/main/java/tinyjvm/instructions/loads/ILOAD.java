@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class ILOAD extends Index8Instruction {
+    public ILOAD() { }
+
+    public ILOAD(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        int value = frame.getLocalVars().getInt(this.index);
+        frame.getOperandStack().pushInt(value);
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.loads;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class LLOAD extends Index8Instruction {
+    public LLOAD() { }
+
+    public LLOAD(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        long value = frame.getLocalVars().getLong(this.index);
+        frame.getOperandStack().pushLong(value);
+    }
+}
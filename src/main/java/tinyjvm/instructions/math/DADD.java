@@ -0,0 +1,16 @@
+package tinyjvm.instructions.math;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class DADD extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        double val2 = stack.popDouble();
+        double val1 = stack.popDouble();
+        double result = val1 + val2;
+        stack.pushDouble(result);
+    }
+}
@@ -0,0 +1,14 @@
+package tinyjvm.instructions.math;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class DNEG extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        double val = stack.popDouble();
+        stack.pushDouble(-val);
+    }
+}
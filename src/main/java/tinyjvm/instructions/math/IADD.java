@@ -1,13 +1,10 @@
-package tinyjvm.instructions.constants;
+package tinyjvm.instructions.math;
 
-import tinyjvm.instructions.BytecodeReader;
-import tinyjvm.instructions.Instruction;
+import tinyjvm.instructions.NoOperandsInstruction;
 import tinyjvm.rtda.OperandStack;
 import tinyjvm.runtime.Frame;
 
-public class IADD implements Instruction {
-    @Override public void fetchOperands(BytecodeReader reader) { /* No operands */ }
-
+public class IADD extends NoOperandsInstruction {
     @Override
     public void execute(Frame frame) {
         OperandStack stack = frame.getOperandStack();
@@ -0,0 +1,24 @@
+package tinyjvm.instructions.math;
+
+import tinyjvm.instructions.BytecodeReader;
+import tinyjvm.instructions.Instruction;
+import tinyjvm.rtda.LocalVars;
+import tinyjvm.runtime.Frame;
+
+// 给局部变量表中的 int 变量加上一个常量，两个操作数: 局部变量索引 (u1) 和增量 (s1)
+public class IINC implements Instruction {
+    private int index;
+    private int constValue;
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.index = reader.readUint8();
+        this.constValue = reader.readInt8();
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        LocalVars localVars = frame.getLocalVars();
+        localVars.setInt(index, localVars.getInt(index) + constValue);
+    }
+}
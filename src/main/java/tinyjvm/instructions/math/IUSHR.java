@@ -0,0 +1,15 @@
+package tinyjvm.instructions.math;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class IUSHR extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int shift = stack.popInt() & 0x1f; // 只取低 5 位作为位移量
+        int val = stack.popInt();
+        stack.pushInt(val >>> shift);
+    }
+}
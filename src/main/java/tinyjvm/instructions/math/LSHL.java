@@ -0,0 +1,15 @@
+package tinyjvm.instructions.math;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+
+public class LSHL extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int shift = stack.popInt() & 0x3f; // 只取低 6 位作为位移量
+        long val = stack.popLong();
+        stack.pushLong(val << shift);
+    }
+}
@@ -0,0 +1,20 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+
+/**
+ * 创建引用类型的数组，操作数是元素类型的 Class 常量池索引。元素类型不需要初始化
+ */
+public class ANEWARRAY extends Index16Instruction {
+
+    @Override
+    public void execute(Frame frame) {
+        RtClass componentClass = frame.getMethod().getRtClass().getConstantPool().getClassRef(index).resolvedClass();
+        OperandStack stack = frame.getOperandStack();
+        int count = stack.popInt();
+        stack.pushRef(componentClass.arrayClass().newArray(count));
+    }
+}
@@ -0,0 +1,15 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+public class ARRAYLENGTH extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        RtArray array = (RtArray) stack.popRef();
+        stack.pushInt(array.length());
+    }
+}
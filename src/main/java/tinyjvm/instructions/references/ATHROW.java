@@ -0,0 +1,25 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 还不支持异常表，客体抛出的异常不会被任何处理器捕获，直接变成宿主异常结束虚拟机。
+ * 编译器为 synchronized 块生成的异常处理器 (monitorexit + athrow) 要能解码，正常执行时不会走到这里
+ */
+public class ATHROW extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        RtObject exception = (RtObject) frame.getOperandStack().popRef();
+        throw uncaught(exception);
+    }
+
+    public static RuntimeException uncaught(Object exception) {
+        if (exception == null) {
+            return new NullPointerException("Cannot throw null");
+        }
+        return new UnsupportedOperationException("Exception handling is not supported, guest code threw "
+                + ((RtObject) exception).getRtClass().getName());
+    }
+}
@@ -0,0 +1,38 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtField;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 读取实例字段，操作数是 Fieldref 的常量池索引。
+ * 字段第一次执行时解析并缓存在指令实例上，之后按字段的固定槽位直接读对象。
+ */
+public class GETFIELD extends Index16Instruction {
+    private RtField field;
+
+    @Override
+    public void execute(Frame frame) {
+        RtField field = this.field;
+        if (field == null) {
+            field = frame.getMethod().getRtClass().getConstantPool().getFieldRef(index).resolvedInstanceField();
+            this.field = field;
+        }
+        OperandStack stack = frame.getOperandStack();
+        RtObject object = (RtObject) stack.popRef();
+        if (object == null) {
+            throw new NullPointerException("Cannot read field " + field + " of null");
+        }
+        int slot = field.getSlotId();
+        if (field.isReference()) {
+            stack.pushRef(object.getRef(slot));
+        } else {
+            stack.pushInt(object.getInt(slot));
+            if (field.isLongOrDouble()) {
+                stack.pushInt(object.getInt(slot + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.BytecodeReader;
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.InlineCache;
+import tinyjvm.runtime.heap.RtMethodRef;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 调用接口方法，操作数是 InterfaceMethodref 的常量池索引，后面的 count 和 0 两个字节不使用。
+ * 每个调用点有自己的指令实例，也就有自己的单态内联缓存：接收者的类和上次相同时不再查 itable。
+ */
+public class INVOKEINTERFACE extends Index16Instruction {
+    private final InlineCache inlineCache = new InlineCache();
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        super.fetchOperands(reader);
+        reader.readUint8(); // count，参数槽位数可以从描述符算出
+        reader.readUint8(); // 必须是 0
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        RtMethodRef methodRef = frame.getMethod().getRtClass().getConstantPool().getMethodRef(index);
+        int argSlotCount = methodRef.resolvedMethod().getArgSlotCount();
+        RtObject receiver = (RtObject) frame.getOperandStack().peekRef(argSlotCount - 1);
+        if (receiver == null) {
+            throw new NullPointerException("Cannot invoke " + methodRef + " on null");
+        }
+        frame.getThread().invokeMethod(inlineCache.lookup(methodRef, receiver.getRtClass()));
+    }
+}
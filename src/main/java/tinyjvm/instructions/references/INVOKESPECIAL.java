@@ -0,0 +1,21 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtMethod;
+
+/**
+ * 调用构造方法、私有方法和父类方法 (super.m())，不做虚方法分派。
+ * 选出的方法缓存在 RtMethodRef 里，见 RtMethodRef.specialMethod。
+ */
+public class INVOKESPECIAL extends Index16Instruction {
+
+    @Override
+    public void execute(Frame frame) {
+        RtMethod method = frame.getMethod().getRtClass().getConstantPool().getMethodRef(index).specialMethod();
+        if (frame.getOperandStack().peekRef(method.getArgSlotCount() - 1) == null) {
+            throw new NullPointerException("Cannot invoke " + method + " on null");
+        }
+        frame.getThread().invokeMethod(method);
+    }
+}
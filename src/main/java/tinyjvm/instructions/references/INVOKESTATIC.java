@@ -0,0 +1,26 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtMethod;
+
+/**
+ * 调用静态方法，操作数是 Methodref 的常量池索引。
+ * 解析结果缓存在运行时常量池的 RtMethodRef 里，同一个方法引用只解析一次。
+ * 方法所在的类还没有初始化时先执行它的 &lt;clinit&gt;。
+ */
+public class INVOKESTATIC extends Index16Instruction {
+
+    @Override
+    public void execute(Frame frame) {
+        RtMethod method = frame.getMethod().getRtClass().getConstantPool().getMethodRef(index).resolvedStaticMethod();
+        RtClass rtClass = method.getRtClass();
+        if (!rtClass.isInitialized()) {
+            frame.revertNextPC();
+            frame.getThread().initClass(rtClass);
+            return;
+        }
+        frame.getThread().invokeMethod(method);
+    }
+}
@@ -0,0 +1,23 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtMethodRef;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 调用实例方法，按接收者的类做虚方法分派：用解析出的方法的 vtable 下标直接取接收者类 vtable 中的方法。
+ */
+public class INVOKEVIRTUAL extends Index16Instruction {
+
+    @Override
+    public void execute(Frame frame) {
+        RtMethodRef methodRef = frame.getMethod().getRtClass().getConstantPool().getMethodRef(index);
+        int argSlotCount = methodRef.resolvedMethod().getArgSlotCount();
+        RtObject receiver = (RtObject) frame.getOperandStack().peekRef(argSlotCount - 1);
+        if (receiver == null) {
+            throw new NullPointerException("Cannot invoke " + methodRef + " on null");
+        }
+        frame.getThread().invokeMethod(methodRef.selectVirtualMethod(receiver.getRtClass()));
+    }
+}
@@ -0,0 +1,20 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.ObjectMonitor;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 获取对象的监视器，被其他线程持有时阻塞，见 ObjectMonitor
+ */
+public class MONITORENTER extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        RtObject object = (RtObject) frame.getOperandStack().popRef();
+        if (object == null) {
+            throw new NullPointerException("Cannot enter synchronized block on null");
+        }
+        ObjectMonitor.enter(object);
+    }
+}
@@ -0,0 +1,17 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.ObjectMonitor;
+import tinyjvm.runtime.heap.RtObject;
+
+public class MONITOREXIT extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        RtObject object = (RtObject) frame.getOperandStack().popRef();
+        if (object == null) {
+            throw new NullPointerException("Cannot exit synchronized block on null");
+        }
+        ObjectMonitor.exit(object);
+    }
+}
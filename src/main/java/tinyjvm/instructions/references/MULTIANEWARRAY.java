@@ -0,0 +1,32 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.BytecodeReader;
+import tinyjvm.instructions.Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+
+/**
+ * 创建多维数组，操作数是数组类的 Class 常量池索引和要创建的维数，各维的长度在操作数栈上 (第一维在最下面)
+ */
+public class MULTIANEWARRAY implements Instruction {
+    private int index;
+    private int dimensions;
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.index = reader.readUint16();
+        this.dimensions = reader.readUint8();
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        RtClass arrayClass = frame.getMethod().getRtClass().getConstantPool().getClassRef(index).resolvedClass();
+        OperandStack stack = frame.getOperandStack();
+        int[] counts = new int[dimensions];
+        for (int i = dimensions - 1; i >= 0; i--) {
+            counts[i] = stack.popInt();
+        }
+        stack.pushRef(arrayClass.newMultiArray(counts));
+    }
+}
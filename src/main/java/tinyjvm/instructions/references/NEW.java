@@ -0,0 +1,23 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+
+/**
+ * 创建对象，操作数是 Class 的常量池索引。类还没有初始化时先执行它的 &lt;clinit&gt;。
+ * 对象的构造由随后的 invokespecial &lt;init&gt; 完成。
+ */
+public class NEW extends Index16Instruction {
+
+    @Override
+    public void execute(Frame frame) {
+        RtClass rtClass = frame.getMethod().getRtClass().getConstantPool().getClassRef(index).resolvedClass();
+        if (!rtClass.isInitialized()) {
+            frame.revertNextPC();
+            frame.getThread().initClass(rtClass);
+            return;
+        }
+        frame.getOperandStack().pushRef(rtClass.newObject());
+    }
+}
@@ -0,0 +1,33 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.BytecodeReader;
+import tinyjvm.instructions.Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+
+/**
+ * 创建基本类型的数组，操作数是 atype (4 boolean, 5 char, 6 float, 7 double, 8 byte, 9 short, 10 int, 11 long)。
+ * 数组类第一次执行时取得并缓存在指令实例上。
+ */
+public class NEWARRAY implements Instruction {
+    private int atype;
+    private RtClass arrayClass;
+
+    @Override
+    public void fetchOperands(BytecodeReader reader) {
+        this.atype = reader.readUint8();
+    }
+
+    @Override
+    public void execute(Frame frame) {
+        RtClass arrayClass = this.arrayClass;
+        if (arrayClass == null) {
+            arrayClass = frame.getMethod().getRtClass().getLoader().loadPrimitiveArrayClass(atype);
+            this.arrayClass = arrayClass;
+        }
+        OperandStack stack = frame.getOperandStack();
+        int count = stack.popInt();
+        stack.pushRef(arrayClass.newArray(count));
+    }
+}
@@ -0,0 +1,47 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtField;
+import tinyjvm.runtime.heap.RtObject;
+
+/**
+ * 写实例字段，操作数是 Fieldref 的常量池索引。
+ * 字段第一次执行时解析并缓存在指令实例上，之后按字段的固定槽位直接写对象。
+ */
+public class PUTFIELD extends Index16Instruction {
+    private RtField field;
+
+    @Override
+    public void execute(Frame frame) {
+        RtField field = this.field;
+        if (field == null) {
+            field = frame.getMethod().getRtClass().getConstantPool().getFieldRef(index).resolvedInstanceField();
+            this.field = field;
+        }
+        OperandStack stack = frame.getOperandStack();
+        int slot = field.getSlotId();
+        if (field.isReference()) {
+            Object value = stack.popRef();
+            objectOf(stack, field).setRef(slot, value);
+        } else if (field.isLongOrDouble()) {
+            int high = stack.popInt();
+            int low = stack.popInt();
+            RtObject object = objectOf(stack, field);
+            object.setInt(slot, low);
+            object.setInt(slot + 1, high);
+        } else {
+            int value = stack.popInt();
+            objectOf(stack, field).setInt(slot, value);
+        }
+    }
+
+    private static RtObject objectOf(OperandStack stack, RtField field) {
+        RtObject object = (RtObject) stack.popRef();
+        if (object == null) {
+            throw new NullPointerException("Cannot assign field " + field + " of null");
+        }
+        return object;
+    }
+}
@@ -0,0 +1,40 @@
+package tinyjvm.instructions.references;
+
+import tinyjvm.instructions.Index16Instruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtField;
+
+/**
+ * 写静态字段，操作数是 Fieldref 的常量池索引。声明字段的类还没有初始化时先执行它的 &lt;clinit&gt;。
+ */
+public class PUTSTATIC extends Index16Instruction {
+    private RtField field;
+
+    @Override
+    public void execute(Frame frame) {
+        RtField field = this.field;
+        if (field == null) {
+            field = frame.getMethod().getRtClass().getConstantPool().getFieldRef(index).resolvedStaticField();
+            this.field = field;
+        }
+        RtClass rtClass = field.getRtClass();
+        if (!rtClass.isInitialized()) {
+            frame.revertNextPC();
+            frame.getThread().initClass(rtClass);
+            return;
+        }
+        OperandStack stack = frame.getOperandStack();
+        int slot = field.getSlotId();
+        if (field.isReference()) {
+            rtClass.getStaticRefs()[slot] = stack.popRef();
+        } else if (field.isLongOrDouble()) {
+            int[] nums = rtClass.getStaticNums();
+            nums[slot + 1] = stack.popInt();
+            nums[slot] = stack.popInt();
+        } else {
+            rtClass.getStaticNums()[slot] = stack.popInt();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package tinyjvm.instructions.stack;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+public class DUP extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().dup(1, 0);
+    }
+}
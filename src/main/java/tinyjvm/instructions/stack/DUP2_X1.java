@@ -0,0 +1,12 @@
+package tinyjvm.instructions.stack;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+// [..., v3, v2, v1] -> [..., v2, v1, v3, v2, v1]
+public class DUP2_X1 extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().dup(2, 1);
+    }
+}
@@ -0,0 +1,12 @@
+package tinyjvm.instructions.stack;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.runtime.Frame;
+
+// [..., v4, v3, v2, v1] -> [..., v2, v1, v4, v3, v2, v1]
+public class DUP2_X2 extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        frame.getOperandStack().dup(2, 2);
+    }
+}
@@ -0,0 +1,20 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+/**
+ * 写引用数组的元素。还没有实现类型检查 (instanceof/checkcast)，所以不检查元素类型，不会抛出 ArrayStoreException
+ */
+public class AASTORE extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        Object value = stack.popRef();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        array.refs()[index] = value;
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class ASTORE extends Index8Instruction {
+    public ASTORE() { }
+
+    public ASTORE(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        Object value = frame.getOperandStack().popRef();
+        frame.getLocalVars().setRef(this.index, value);
+    }
+}
@@ -0,0 +1,20 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+/**
+ * 写 byte 或 boolean 数组的元素，两种数组都用 byte[] 存放，int 值截断成低 8 位
+ */
+public class BASTORE extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        int value = stack.popInt();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        array.bytes()[index] = (byte) value;
+    }
+}
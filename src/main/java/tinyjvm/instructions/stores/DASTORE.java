@@ -0,0 +1,17 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+public class DASTORE extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        double value = stack.popDouble();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        array.doubles()[index] = value;
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class DSTORE extends Index8Instruction {
+    public DSTORE() { }
+
+    public DSTORE(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        double value = frame.getOperandStack().popDouble();
+        frame.getLocalVars().setDouble(this.index, value);
+    }
+}
@@ -0,0 +1,17 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.NoOperandsInstruction;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtArray;
+
+public class FASTORE extends NoOperandsInstruction {
+    @Override
+    public void execute(Frame frame) {
+        OperandStack stack = frame.getOperandStack();
+        float value = stack.popFloat();
+        int index = stack.popInt();
+        RtArray array = (RtArray) stack.popRef();
+        array.floats()[index] = value;
+    }
+}
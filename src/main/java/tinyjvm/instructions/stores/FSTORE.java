@@ -0,0 +1,16 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class FSTORE extends Index8Instruction {
+    public FSTORE() { }
+
+    public FSTORE(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        float value = frame.getOperandStack().popFloat();
+        frame.getLocalVars().setFloat(this.index, value);
+    }
+}
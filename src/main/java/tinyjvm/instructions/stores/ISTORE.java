@@ -0,0 +1,16 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class ISTORE extends Index8Instruction {
+    public ISTORE() { }
+
+    public ISTORE(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        int value = frame.getOperandStack().popInt();
+        frame.getLocalVars().setInt(this.index, value);
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.instructions.stores;
+
+import tinyjvm.instructions.Index8Instruction;
+import tinyjvm.runtime.Frame;
+
+public class LSTORE extends Index8Instruction {
+    public LSTORE() { }
+
+    public LSTORE(int index) { super(index); }
+
+    @Override
+    public void execute(Frame frame) {
+        long value = frame.getOperandStack().popLong();
+        frame.getLocalVars().setLong(this.index, value);
+    }
+}
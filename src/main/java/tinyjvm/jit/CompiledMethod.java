@@ -0,0 +1,174 @@
+package tinyjvm.jit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * 编译成宿主类的方法。
+ * 调用约定和解释器一致：参数从槽位数组的 base 处开始依次存放 (long/double 占两个槽位，低 32 位在前，引用在 Object[] 中)，
+ * 返回值写回 base 处。内部的 MethodHandle 在编译时一次调整成 (int[], Object[], int)void 的形式：
+ * 每个参数由按类型区分的读取方法直接从槽位取出，返回值由对应的写入方法写回，调用时不分配参数数组，基本类型也不装箱。
+ */
+public final class CompiledMethod {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, int[].class, Object[].class, int.class);
+
+    // 从槽位读取参数的方法，类型都是 (int[], Object[], int base, int offset)T
+    private static final MethodHandle INT_ARG;
+    private static final MethodHandle FLOAT_ARG;
+    private static final MethodHandle LONG_ARG;
+    private static final MethodHandle DOUBLE_ARG;
+    private static final MethodHandle REF_ARG;
+    // 把返回值写回槽位的方法，类型都是 (T, int[], Object[], int base)void
+    private static final MethodHandle INT_RESULT;
+    private static final MethodHandle FLOAT_RESULT;
+    private static final MethodHandle LONG_RESULT;
+    private static final MethodHandle DOUBLE_RESULT;
+    private static final MethodHandle REF_RESULT;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            INT_ARG = lookup.findStatic(CompiledMethod.class, "intArg", argType(int.class));
+            FLOAT_ARG = lookup.findStatic(CompiledMethod.class, "floatArg", argType(float.class));
+            LONG_ARG = lookup.findStatic(CompiledMethod.class, "longArg", argType(long.class));
+            DOUBLE_ARG = lookup.findStatic(CompiledMethod.class, "doubleArg", argType(double.class));
+            REF_ARG = lookup.findStatic(CompiledMethod.class, "refArg", argType(Object.class));
+            INT_RESULT = lookup.findStatic(CompiledMethod.class, "intResult", resultType(int.class));
+            FLOAT_RESULT = lookup.findStatic(CompiledMethod.class, "floatResult", resultType(float.class));
+            LONG_RESULT = lookup.findStatic(CompiledMethod.class, "longResult", resultType(long.class));
+            DOUBLE_RESULT = lookup.findStatic(CompiledMethod.class, "doubleResult", resultType(double.class));
+            REF_RESULT = lookup.findStatic(CompiledMethod.class, "refResult", resultType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle invoker; // (int[] nums, Object[] refs, int base)void
+
+    CompiledMethod(MethodHandle target) {
+        MethodType type = target.type();
+        int count = type.parameterCount();
+
+        // 每个参数换成从槽位读取它的方法，得到 (nums, refs, base) 重复 count 次的形式，再合并成一组
+        MethodHandle handle = target;
+        int[] reorder = new int[count * 3];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            Class<?> parameterType = type.parameterType(i);
+            MethodHandle getter = MethodHandles.insertArguments(argGetter(parameterType), 3, offset)
+                    .asType(MethodType.methodType(parameterType, int[].class, Object[].class, int.class));
+            handle = MethodHandles.collectArguments(handle, i * 3, getter);
+            reorder[i * 3] = 0;
+            reorder[i * 3 + 1] = 1;
+            reorder[i * 3 + 2] = 2;
+            offset += parameterType == long.class || parameterType == double.class ? 2 : 1;
+        }
+        Class<?> returnType = type.returnType();
+        handle = MethodHandles.permuteArguments(handle,
+                MethodType.methodType(returnType, int[].class, Object[].class, int.class), reorder);
+
+        // 返回值写回 base 处
+        if (returnType != void.class) {
+            MethodHandle setter = resultSetter(returnType);
+            handle = MethodHandles.foldArguments(setter, handle.asType(handle.type().changeReturnType(setter.type().parameterType(0))));
+        }
+        this.invoker = handle.asType(INVOKER_TYPE);
+    }
+
+    /**
+     * 从槽位数组中取出参数调用编译后的代码，返回值写回 base 处
+     */
+    public void invoke(int[] nums, Object[] refs, int base) {
+        try {
+            invoker.invokeExact(nums, refs, base);
+        } catch (RuntimeException | Error e) {
+            throw e; // 客体代码抛出的异常 (例如除零) 原样抛出，和解释执行时一致
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static MethodType argType(Class<?> type) {
+        return MethodType.methodType(type, int[].class, Object[].class, int.class, int.class);
+    }
+
+    private static MethodType resultType(Class<?> type) {
+        return MethodType.methodType(void.class, type, int[].class, Object[].class, int.class);
+    }
+
+    private static MethodHandle argGetter(Class<?> type) {
+        if (type == int.class) {
+            return INT_ARG;
+        } else if (type == float.class) {
+            return FLOAT_ARG;
+        } else if (type == long.class) {
+            return LONG_ARG;
+        } else if (type == double.class) {
+            return DOUBLE_ARG;
+        }
+        return REF_ARG;
+    }
+
+    private static MethodHandle resultSetter(Class<?> type) {
+        if (type == int.class) {
+            return INT_RESULT;
+        } else if (type == float.class) {
+            return FLOAT_RESULT;
+        } else if (type == long.class) {
+            return LONG_RESULT;
+        } else if (type == double.class) {
+            return DOUBLE_RESULT;
+        }
+        return REF_RESULT;
+    }
+
+    private static int intArg(int[] nums, Object[] refs, int base, int offset) {
+        return nums[base + offset];
+    }
+
+    private static float floatArg(int[] nums, Object[] refs, int base, int offset) {
+        return Float.intBitsToFloat(nums[base + offset]);
+    }
+
+    private static long longArg(int[] nums, Object[] refs, int base, int offset) {
+        return getLong(nums, base + offset);
+    }
+
+    private static double doubleArg(int[] nums, Object[] refs, int base, int offset) {
+        return Double.longBitsToDouble(getLong(nums, base + offset));
+    }
+
+    private static Object refArg(int[] nums, Object[] refs, int base, int offset) {
+        return refs[base + offset];
+    }
+
+    private static void intResult(int value, int[] nums, Object[] refs, int base) {
+        nums[base] = value;
+    }
+
+    private static void floatResult(float value, int[] nums, Object[] refs, int base) {
+        nums[base] = Float.floatToRawIntBits(value);
+    }
+
+    private static void longResult(long value, int[] nums, Object[] refs, int base) {
+        setLong(nums, base, value);
+    }
+
+    private static void doubleResult(double value, int[] nums, Object[] refs, int base) {
+        setLong(nums, base, Double.doubleToRawLongBits(value));
+    }
+
+    private static void refResult(Object value, int[] nums, Object[] refs, int base) {
+        refs[base] = value;
+    }
+
+    private static long getLong(int[] nums, int i) {
+        return ((long) nums[i + 1] << 32) | (nums[i] & 0xFFFFFFFFL);
+    }
+
+    private static void setLong(int[] nums, int i, long value) {
+        nums[i] = (int) value;
+        nums[i + 1] = (int) (value >>> 32);
+    }
+}
@@ -0,0 +1,89 @@
+package tinyjvm.jit;
+
+import tinyjvm.classfile.constantpool.ConstantTag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 手写的最小 class 文件生成器：生成的类只有一个 public static 方法 run，方法体原样使用客体方法的字节码。
+ * 版本号取 49 (Java 5)，宿主 JVM 会用类型推导的校验器验证它，因此不需要生成 StackMapTable。
+ * 常量池里只有类名、方法名、描述符和 "Code"，所以方法体中不能有引用常量池的指令，这一点由 TierUpCompiler 保证。
+ */
+final class HostClassWriter {
+    static final String METHOD_NAME = "run";
+
+    private static final int MAJOR_VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private HostClassWriter() {
+    }
+
+    /**
+     * @param className 类的内部名，必须和定义它的 Lookup 在同一个包里
+     * @param descriptor run 方法的宿主描述符
+     * @param maxStack 原方法的 max_stack
+     * @param maxLocals 原方法的 max_locals
+     * @param code 原方法的字节码
+     * @return class 文件的字节
+     */
+    static byte[] write(String className, String descriptor, int maxStack, int maxLocals, byte[] code) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + code.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+
+            // 常量池: #1 类名, #2 本类, #3 父类名, #4 父类, #5 方法名, #6 描述符, #7 "Code"
+            out.writeShort(8);
+            writeUtf8(out, className);
+            writeClass(out, 1);
+            writeUtf8(out, "java/lang/Object");
+            writeClass(out, 3);
+            writeUtf8(out, METHOD_NAME);
+            writeUtf8(out, descriptor);
+            writeUtf8(out, "Code");
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(2); // this_class
+            out.writeShort(4); // super_class
+            out.writeShort(0); // interfaces_count
+            out.writeShort(0); // fields_count
+
+            out.writeShort(1); // methods_count
+            out.writeShort(ACC_PUBLIC | ACC_STATIC);
+            out.writeShort(5);
+            out.writeShort(6);
+            out.writeShort(1); // attributes_count
+            out.writeShort(7);
+            out.writeInt(12 + code.length); // max_stack, max_locals, code_length, 异常表长度, 属性个数 共 12 字节
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception_table_length
+            out.writeShort(0); // attributes_count
+
+            out.writeShort(0); // 类的 attributes_count
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // 写内存不会失败
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(ConstantTag.UTF8);
+        out.writeUTF(value); // writeUTF 写出的正是 class 文件使用的 modified UTF-8
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(ConstantTag.CLASS);
+        out.writeShort(nameIndex);
+    }
+}
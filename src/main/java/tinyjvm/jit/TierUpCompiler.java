@@ -0,0 +1,151 @@
+package tinyjvm.jit;
+
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.runtime.heap.RtMethod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+/**
+ * 分层编译：热点方法从解释执行升级为宿主 JVM 上的真实方法。
+ * <p>
+ * 方法的调用次数或回边次数超过阈值后，把它的字节码原样放进一个手写的宿主类 (见 HostClassWriter)，
+ * 用 Lookup.defineHiddenClass 定义成隐藏类，之后的调用通过 MethodHandle 直接执行，由宿主的 C2 编译成本地代码。
+ * 隐藏类不被任何类加载器引用，方法不再使用时可以被卸载。
+ * <p>
+ * 目前只翻译不引用常量池、也没有异常表的方法，宿主描述符里所有引用类型都换成 Object，
+ * boolean/byte/char/short 换成 int (客体的对象还不是宿主对象，在字节码层面它们本来就按 int 处理)。
+ * 实例方法翻译成多一个 Object 参数 (this) 的静态方法，槽位布局不变。
+ * 不能翻译的方法只检查一次，之后一直解释执行。还没有栈上替换 (OSR)，正在解释执行的那次调用会解释到结束。
+ */
+public final class TierUpCompiler {
+    // 调用次数达到该值后编译
+    public static final int INVOCATION_THRESHOLD = 1000;
+    // 回边次数达到该值后编译，只调用一次但循环很长的方法靠它触发
+    public static final int BACKEDGE_THRESHOLD = 10000;
+
+    // 隐藏类必须和 Lookup 在同一个包里，宿主 JVM 会在类名后追加唯一的后缀
+    private static final String HOST_CLASS_NAME = "tinyjvm/jit/HostCode";
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * 每次调用方法前调用：累加调用次数，达到阈值时编译。
+     * @return 编译好的版本；返回 null 时调用方继续解释执行
+     */
+    public CompiledMethod onInvoke(RtMethod method) {
+        CompiledMethod compiled = method.getCompiledMethod();
+        if (compiled != null || method.isNotCompilable()) {
+            return compiled;
+        }
+        method.countInvocation();
+        if (method.getInvocationCount() < INVOCATION_THRESHOLD && method.getBackedgeCount() < BACKEDGE_THRESHOLD) {
+            return null;
+        }
+        return compile(method);
+    }
+
+    /**
+     * 把方法翻译成宿主类，结果记录在 RtMethod 上；不能翻译时标记为不可编译并返回 null。
+     * 多个客体线程可能同时让同一个方法达到阈值，加锁保证每个方法只编译一次
+     */
+    public synchronized CompiledMethod compile(RtMethod method) {
+        if (method.getCompiledMethod() != null || method.isNotCompilable()) {
+            return method.getCompiledMethod();
+        }
+        CodeAttribute codeAttribute = method.getCodeAttribute();
+        if (codeAttribute == null || codeAttribute.getExceptionTableLength() != 0
+                || method.isSynchronized() || !isSelfContained(codeAttribute.getCode())) {
+            method.markNotCompilable();
+            return null;
+        }
+
+        ByteBuffer code = codeAttribute.getCode();
+        byte[] bytecode = new byte[code.limit()];
+        code.get(0, bytecode);
+        String descriptor = hostDescriptor(method.getDescriptor(), method.isStatic());
+        byte[] classBytes = HostClassWriter.write(HOST_CLASS_NAME, descriptor,
+                codeAttribute.getMaxStack(), codeAttribute.getMaxLocals(), bytecode);
+
+        try {
+            MethodHandles.Lookup hostLookup = lookup.defineHiddenClass(classBytes, true);
+            MethodType type = MethodType.fromMethodDescriptorString(descriptor, TierUpCompiler.class.getClassLoader());
+            MethodHandle handle = hostLookup.findStatic(hostLookup.lookupClass(), HostClassWriter.METHOD_NAME, type);
+            CompiledMethod compiled = new CompiledMethod(handle);
+            method.setCompiledMethod(compiled);
+            return compiled;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // 宿主校验器拒绝了这段字节码 (例如客体代码本身不合法)，退回解释执行
+            method.markNotCompilable();
+            return null;
+        }
+    }
+
+    /**
+     * 检查字节码是否只包含不引用常量池、也不需要运行时支持的指令。
+     * 范围是常量、局部变量读写、栈操作、算术、类型转换、比较、跳转和返回指令；
+     * 方法调用需要解析常量池，含有调用的方法暂时不编译，因此只有叶子方法会被编译。
+     */
+    static boolean isSelfContained(ByteBuffer code) {
+        int pc = 0;
+        while (pc < code.limit()) {
+            int opcode = code.get(pc) & 0xFF;
+            if (opcode <= 0x0f                                       // nop, aconst_null, xconst_<n>
+                    || (opcode >= 0x1a && opcode <= 0x2d)            // xload_<n>
+                    || (opcode >= 0x3b && opcode <= 0x4e)            // xstore_<n>
+                    || (opcode >= 0x57 && opcode <= 0x83)            // 栈操作, 算术
+                    || (opcode >= 0x85 && opcode <= 0x98)            // 类型转换, 比较
+                    || (opcode >= 0xac && opcode <= 0xb1)) {         // xreturn, return
+                pc += 1;
+            } else if (opcode == 0x10                                // bipush
+                    || (opcode >= 0x15 && opcode <= 0x19)            // xload
+                    || (opcode >= 0x36 && opcode <= 0x3a)) {         // xstore
+                pc += 2;
+            } else if (opcode == 0x11 || opcode == 0x84              // sipush, iinc
+                    || (opcode >= 0x99 && opcode <= 0xa7)) {         // if<cond>, if_icmp<cond>, if_acmp<cond>, goto
+                pc += 3;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把客体方法描述符换成宿主描述符：引用类型 -> Object，boolean/byte/char/short -> int；
+     * 实例方法在最前面加上 this。
+     */
+    static String hostDescriptor(String descriptor, boolean isStatic) {
+        StringBuilder sb = new StringBuilder(descriptor.length() + 20);
+        sb.append('(');
+        if (!isStatic) {
+            sb.append("Ljava/lang/Object;");
+        }
+        int i = 1; // 跳过 '('
+        while (i < descriptor.length()) {
+            char c = descriptor.charAt(i);
+            if (c == ')') {
+                sb.append(')');
+                i++;
+                continue;
+            }
+            if (c == '[' || c == 'L') {
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) == 'L') {
+                    i = descriptor.indexOf(';', i);
+                }
+                sb.append("Ljava/lang/Object;");
+            } else if (c == 'Z' || c == 'B' || c == 'C' || c == 'S') {
+                sb.append('I');
+            } else {
+                sb.append(c); // I J F D V
+            }
+            i++;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package tinyjvm.natives;
+
+import tinyjvm.runtime.heap.RtArray;
+
+import java.util.Arrays;
+
+/**
+ * 数组相关的本地方法和内建实现：System.arraycopy 和 Arrays.fill 直接对宿主数组做批量操作，
+ * 不用逐个元素解释执行。越界、空引用和元素类型不匹配由宿主的 System.arraycopy/Arrays.fill 检查。
+ */
+final class ArrayNatives {
+    private static final String ARRAYS = "java/util/Arrays";
+
+    private ArrayNatives() {
+    }
+
+    static void register() {
+        NativeRegistry.register("java/lang/System", "registerNatives", "()V", NativeRegistry.EMPTY);
+        // System.arraycopy(Object src, int srcPos, Object dest, int destPos, int length)
+        NativeRegistry.register("java/lang/System", "arraycopy", "(Ljava/lang/Object;ILjava/lang/Object;II)V",
+                (nums, refs, base) -> System.arraycopy(data(refs[base]), nums[base + 1],
+                        data(refs[base + 2]), nums[base + 3], nums[base + 4]));
+
+        // Arrays 的 <clinit> 只是用 ldc 和 Class.desiredAssertionStatus 计算 $assertionsDisabled，
+        // 这两者都还不支持；跳过它，$assertionsDisabled 保持零值 (断言开启)
+        NativeRegistry.register(ARRAYS, "<clinit>", "()V", NativeRegistry.EMPTY);
+
+        // Arrays.fill(a, val)，long/double 的值占两个槽位
+        NativeRegistry.register(ARRAYS, "fill", "([ZZ)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).bytes(), (byte) nums[base + 1]));
+        NativeRegistry.register(ARRAYS, "fill", "([BB)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).bytes(), (byte) nums[base + 1]));
+        NativeRegistry.register(ARRAYS, "fill", "([CC)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).chars(), (char) nums[base + 1]));
+        NativeRegistry.register(ARRAYS, "fill", "([SS)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).shorts(), (short) nums[base + 1]));
+        NativeRegistry.register(ARRAYS, "fill", "([II)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).ints(), nums[base + 1]));
+        NativeRegistry.register(ARRAYS, "fill", "([JJ)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).longs(), getLong(nums, base + 1)));
+        NativeRegistry.register(ARRAYS, "fill", "([FF)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).floats(), Float.intBitsToFloat(nums[base + 1])));
+        NativeRegistry.register(ARRAYS, "fill", "([DD)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).doubles(), Double.longBitsToDouble(getLong(nums, base + 1))));
+        NativeRegistry.register(ARRAYS, "fill", "([Ljava/lang/Object;Ljava/lang/Object;)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).refs(), refs[base + 1]));
+
+        // Arrays.fill(a, fromIndex, toIndex, val)
+        NativeRegistry.register(ARRAYS, "fill", "([ZIIZ)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).bytes(), nums[base + 1], nums[base + 2], (byte) nums[base + 3]));
+        NativeRegistry.register(ARRAYS, "fill", "([BIIB)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).bytes(), nums[base + 1], nums[base + 2], (byte) nums[base + 3]));
+        NativeRegistry.register(ARRAYS, "fill", "([CIIC)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).chars(), nums[base + 1], nums[base + 2], (char) nums[base + 3]));
+        NativeRegistry.register(ARRAYS, "fill", "([SIIS)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).shorts(), nums[base + 1], nums[base + 2], (short) nums[base + 3]));
+        NativeRegistry.register(ARRAYS, "fill", "([IIII)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).ints(), nums[base + 1], nums[base + 2], nums[base + 3]));
+        NativeRegistry.register(ARRAYS, "fill", "([JIIJ)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).longs(), nums[base + 1], nums[base + 2], getLong(nums, base + 3)));
+        NativeRegistry.register(ARRAYS, "fill", "([FIIF)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).floats(), nums[base + 1], nums[base + 2], Float.intBitsToFloat(nums[base + 3])));
+        NativeRegistry.register(ARRAYS, "fill", "([DIID)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).doubles(), nums[base + 1], nums[base + 2], Double.longBitsToDouble(getLong(nums, base + 3))));
+        NativeRegistry.register(ARRAYS, "fill", "([Ljava/lang/Object;IILjava/lang/Object;)V", (nums, refs, base) -> Arrays.fill(array(refs[base]).refs(), nums[base + 1], nums[base + 2], refs[base + 3]));
+    }
+
+    private static RtArray array(Object ref) {
+        if (ref == null) {
+            throw new NullPointerException("Array is null");
+        }
+        return (RtArray) ref;
+    }
+
+    // 客体引用对应的宿主数组，不是数组时抛出 ArrayStoreException (和 System.arraycopy 一致)
+    private static Object data(Object ref) {
+        if (ref != null && !(ref instanceof RtArray)) {
+            throw new ArrayStoreException("arraycopy: " + ref + " is not an array");
+        }
+        return array(ref).getData();
+    }
+
+    // long/double 的低 32 位在前
+    private static long getLong(int[] nums, int i) {
+        return (nums[i] & 0xFFFFFFFFL) | ((long) nums[i + 1] << 32);
+    }
+}
@@ -0,0 +1,10 @@
+package tinyjvm.natives;
+
+/**
+ * 用宿主 Java 代码实现的本地方法。
+ * 调用约定和 CompiledMethod 相同：参数从槽位数组的 base 处开始依次存放 (实例方法的 this 在最前面)，返回值写回 base 处。
+ */
+@FunctionalInterface
+public interface NativeMethod {
+    void invoke(int[] nums, Object[] refs, int base);
+}
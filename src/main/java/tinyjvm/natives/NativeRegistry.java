@@ -0,0 +1,35 @@
+package tinyjvm.natives;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地方法注册表，按 "类名.方法名描述符" 查找。
+ * 类初始化时一定会调用的 registerNatives 在真实的 JVM 里负责注册其他本地方法，这里什么都不用做。
+ * 除了 native 方法，有字节码的方法也可以在这里注册一个宿主实现 (内建实现)，执行引擎会用它代替解释执行，
+ * 例如 Arrays.fill 直接调用宿主的批量操作，见 ArrayNatives；线程相关的方法见 ThreadNatives。
+ */
+public final class NativeRegistry {
+    static final NativeMethod EMPTY = (nums, refs, base) -> { };
+    private static final Map<String, NativeMethod> REGISTRY = new HashMap<>();
+
+    static {
+        register("java/lang/Object", "registerNatives", "()V", EMPTY);
+        ArrayNatives.register();
+        ThreadNatives.register();
+    }
+
+    private NativeRegistry() {
+    }
+
+    public static void register(String className, String name, String descriptor, NativeMethod method) {
+        REGISTRY.put(className + "." + name + descriptor, method);
+    }
+
+    /**
+     * @return 没有注册时返回 null
+     */
+    public static NativeMethod find(String className, String name, String descriptor) {
+        return REGISTRY.get(className + "." + name + descriptor);
+    }
+}
@@ -0,0 +1,136 @@
+package tinyjvm.natives;
+
+import tinyjvm.ExecutionEngine;
+import tinyjvm.runtime.heap.ObjectMonitor;
+import tinyjvm.runtime.heap.RtField;
+import tinyjvm.runtime.heap.RtMethod;
+import tinyjvm.runtime.heap.RtObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客体线程和 Object.wait/notify。
+ * 每个客体线程对应一个宿主虚拟线程：Thread.start 创建虚拟线程，在上面用同一个执行引擎执行线程对象的 run 方法。
+ * java.lang.Thread 的构造方法要用字符串拼接线程名、读取安全管理器等，都还不支持，
+ * 所以构造方法、start、join 等直接用内建实现代替，客体的 Thread 对象只用到 target 字段。
+ */
+public final class ThreadNatives {
+    private static final String THREAD = "java/lang/Thread";
+    private static final String OBJECT = "java/lang/Object";
+
+    private static volatile ExecutionEngine engine;
+    // 已经 start 还没有结束的客体线程
+    private static final Map<RtObject, Thread> LIVE = new ConcurrentHashMap<>();
+    // 第一个因为未捕获异常结束的客体线程的异常，虚拟机退出时重新抛出
+    private static volatile Throwable uncaught;
+
+    private ThreadNatives() {
+    }
+
+    public static void setEngine(ExecutionEngine engine) {
+        ThreadNatives.engine = engine;
+    }
+
+    static void register() {
+        // Thread 的 <clinit> 只是注册本地方法和初始化线程编号，都由宿主负责
+        NativeRegistry.register(THREAD, "<clinit>", "()V", NativeRegistry.EMPTY);
+        NativeRegistry.register(THREAD, "<init>", "()V", NativeRegistry.EMPTY);
+        NativeRegistry.register(THREAD, "<init>", "(Ljava/lang/Runnable;)V", (nums, refs, base) -> {
+            RtObject thread = (RtObject) refs[base];
+            RtField target = thread.getRtClass().lookupField("target", "Ljava/lang/Runnable;");
+            thread.setRef(target.getSlotId(), refs[base + 1]);
+        });
+        NativeRegistry.register(THREAD, "start", "()V", (nums, refs, base) -> start((RtObject) refs[base]));
+        NativeRegistry.register(THREAD, "join", "()V", (nums, refs, base) -> join(LIVE.get((RtObject) refs[base])));
+        NativeRegistry.register(THREAD, "isAlive", "()Z", (nums, refs, base) -> nums[base] = LIVE.containsKey((RtObject) refs[base]) ? 1 : 0);
+        NativeRegistry.register(THREAD, "yield", "()V", (nums, refs, base) -> Thread.yield());
+        NativeRegistry.register(THREAD, "sleep", "(J)V", (nums, refs, base) -> sleep(getLong(nums, base)));
+
+        NativeRegistry.register(OBJECT, "wait", "(J)V", (nums, refs, base) -> await(monitor(refs[base]), getLong(nums, base + 1)));
+        NativeRegistry.register(OBJECT, "notify", "()V", (nums, refs, base) -> ObjectMonitor.signal(monitor(refs[base]), false));
+        NativeRegistry.register(OBJECT, "notifyAll", "()V", (nums, refs, base) -> ObjectMonitor.signal(monitor(refs[base]), true));
+    }
+
+    /**
+     * 等待所有客体线程结束，有客体线程因为未捕获的异常结束时重新抛出它
+     */
+    public static void joinAll() {
+        while (!LIVE.isEmpty()) {
+            for (Thread thread : LIVE.values()) {
+                join(thread);
+            }
+        }
+        Throwable t = uncaught;
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+    }
+
+    private static void start(RtObject thread) {
+        if (!thread.getRtClass().getLoader().getHeap().isConcurrent()) {
+            throw new UnsupportedOperationException("Thread.start is not supported by this heap, use -Xheap:onheap");
+        }
+        if (LIVE.containsKey(thread)) {
+            throw new IllegalStateException("Thread already started: " + thread);
+        }
+        // run 是虚方法，子类覆盖了它时执行子类的版本
+        RtMethod run = thread.getRtClass().selectMethod(thread.getRtClass().lookupMethod("run", "()V"));
+        Thread host = Thread.ofVirtual().unstarted(() -> {
+            try {
+                engine.runThread(run, thread);
+            } catch (Throwable t) {
+                if (uncaught == null) {
+                    uncaught = t;
+                }
+                System.err.println("Exception in guest thread: " + t);
+            } finally {
+                LIVE.remove(thread);
+            }
+        });
+        LIVE.put(thread, host);
+        host.start();
+    }
+
+    private static void join(Thread host) {
+        if (host == null) {
+            return; // 还没有 start 或已经结束
+        }
+        try {
+            host.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(RtObject object, long millis) {
+        try {
+            ObjectMonitor.await(object, millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RtObject monitor(Object ref) {
+        if (ref == null) {
+            throw new NullPointerException("Cannot synchronize on null");
+        }
+        return (RtObject) ref;
+    }
+
+    // long/double 的低 32 位在前
+    private static long getLong(int[] nums, int i) {
+        return (nums[i] & 0xFFFFFFFFL) | ((long) nums[i + 1] << 32);
+    }
+}
@@ -1,41 +1,101 @@
 package tinyjvm.rtda;
 
+import java.util.Arrays;
+
+/**
+ * 局部变量表。
+ * 数值和引用分开存放：int/float 以及 long/double 的高低 32 位存进 int[]，引用存进 Object[]，
+ * 这样读写基本类型时不会发生装箱和拆箱。
+ * long/double 占用两个槽位 (index 和 index+1)，低 32 位在 index，高 32 位在 index+1。
+ * 数组属于线程 (见 JvmThread)，局部变量表只是其中从 base 开始的 size 个槽位；
+ * 被调用方法的局部变量表和调用者操作数栈上的参数重叠，调用时不需要复制参数。
+ */
 public class LocalVars {
-    private final Object[] slots;
+    private int[] nums;
+    private Object[] refs;
+    private int base;
+    private int size;
 
-    public LocalVars(int maxLocals) {
-        if (maxLocals > 0) {
-            slots = new Object[maxLocals];
-        } else {
-            slots = null; // 或者 new Object[0] 避免空指针
-        }
+    /**
+     * 让局部变量表指向线程槽位数组中的一段
+     */
+    public void reset(int[] nums, Object[] refs, int base, int size) {
+        this.nums = nums;
+        this.refs = refs;
+        this.base = base;
+        this.size = size;
+    }
+
+    // 线程的槽位数组扩容后，换成新数组，位置不变
+    public void relocate(int[] nums, Object[] refs) {
+        this.nums = nums;
+        this.refs = refs;
+    }
+
+    // 方法返回时清掉引用，帮助 GC
+    public void clearRefs() {
+        Arrays.fill(refs, base, base + size, null);
     }
 
     // --- 核心方法 ---
+    // 写数值时清掉同一槽位里原来的引用：槽位被复用成数值后，旧引用不能再让对象存活，toString 也不会把它当成引用打印
 
     public void setInt(int index, int val) {
-        slots[index] = val;
+        nums[base + index] = val;
+        refs[base + index] = null;
     }
 
     public int getInt(int index) {
-        return (int) slots[index];
+        return nums[base + index];
+    }
+
+    public void setFloat(int index, float val) {
+        nums[base + index] = Float.floatToRawIntBits(val);
+        refs[base + index] = null;
+    }
+
+    public float getFloat(int index) {
+        return Float.intBitsToFloat(nums[base + index]);
+    }
+
+    public void setLong(int index, long val) {
+        nums[base + index] = (int) val;
+        nums[base + index + 1] = (int) (val >>> 32);
+        refs[base + index] = null;
+        refs[base + index + 1] = null;
+    }
+
+    public long getLong(int index) {
+        long low = nums[base + index] & 0xFFFFFFFFL;
+        long high = nums[base + index + 1];
+        return (high << 32) | low;
+    }
+
+    public void setDouble(int index, double val) {
+        setLong(index, Double.doubleToRawLongBits(val));
+    }
+
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(getLong(index));
     }
 
     public void setRef(int index, Object ref) {
-        slots[index] = ref;
+        refs[base + index] = ref;
     }
 
     public Object getRef(int index) {
-        return slots[index];
+        return refs[base + index];
     }
 
     // ---- 方便调试 ----
     @Override
     public String toString() {
-        // 实现一个漂亮的打印方法，方便调试
-        return java.util.Arrays.toString(slots);
+        // 槽位里有引用就打印引用，否则打印数值
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = base; i < base + size; i++) {
+            sb.append(refs[i] != null ? refs[i] : nums[i]);
+            if (i < base + size - 1) sb.append(", ");
+        }
+        return sb.append("]").toString();
     }
-
-    // 未来可以添加 setLong, getLong, setDouble, getDouble 等方法
-    // 注意：long/double 需要占用两个索引 (index 和 index+1)
 }
@@ -1,35 +1,141 @@
 package tinyjvm.rtda;
 
+/**
+ * 操作数栈。
+ * 和 LocalVars 一样，数值存放在 int[] 中，引用存放在并行的 Object[] 中，压栈弹栈不产生装箱对象。
+ * long/double 占两个槽位，先压低 32 位，再压高 32 位。
+ * 数组属于线程 (见 JvmThread)，操作数栈从 base 开始，紧接在局部变量表后面；top 是数组中的绝对下标。
+ */
 public class OperandStack {
-    private final Object[] slots;
-    private int top = 0; // 栈顶指针
-
-    public OperandStack(int maxStack) {
-        if (maxStack > 0) {
-            slots = new Object[maxStack];
-        } else {
-            slots = null;
-        }
+    private int[] nums;
+    private Object[] refs;
+    private int base;
+    private int top; // 栈顶指针
+
+    /**
+     * 让操作数栈指向线程槽位数组中的一段，栈为空
+     */
+    public void reset(int[] nums, Object[] refs, int base) {
+        this.nums = nums;
+        this.refs = refs;
+        this.base = base;
+        this.top = base;
+    }
+
+    // 线程的槽位数组扩容后，换成新数组，位置不变
+    public void relocate(int[] nums, Object[] refs) {
+        this.nums = nums;
+        this.refs = refs;
     }
 
     // --- 核心压栈 (Push) 方法 ---
     public void pushInt(int val) {
-        slots[top++] = val;
+        nums[top++] = val;
+    }
+
+    public void pushFloat(float val) {
+        nums[top++] = Float.floatToRawIntBits(val);
+    }
+
+    public void pushLong(long val) {
+        nums[top++] = (int) val;
+        nums[top++] = (int) (val >>> 32);
+    }
+
+    public void pushDouble(double val) {
+        pushLong(Double.doubleToRawLongBits(val));
     }
 
     public void pushRef(Object ref) {
-        slots[top++] = ref;
+        refs[top++] = ref;
     }
 
     // --- 核心弹栈 (Pop) 方法 ---
     public int popInt() {
-        top--;
-        return (int) slots[top];
+        return nums[--top];
+    }
+
+    public float popFloat() {
+        return Float.intBitsToFloat(nums[--top]);
+    }
+
+    public long popLong() {
+        long high = nums[--top];
+        long low = nums[--top] & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+
+    public double popDouble() {
+        return Double.longBitsToDouble(popLong());
     }
 
     public Object popRef() {
         top--;
-        return slots[top];
+        Object ref = refs[top];
+        refs[top] = null; // 帮助 GC
+        return ref;
+    }
+
+    /**
+     * 读取栈顶往下第 n 个槽位的引用 (n = 0 是栈顶)，不弹出。
+     * invokevirtual 用它在参数之下找到接收者。
+     */
+    public Object peekRef(int n) {
+        return refs[top - 1 - n];
+    }
+
+    // --- pop/dup/swap 系列指令使用，按槽位整体搬运数值和引用，不关心槽位里的类型 ---
+
+    // 丢弃栈顶 n 个槽位
+    public void popSlots(int n) {
+        for (int i = 0; i < n; i++) {
+            refs[--top] = null;
+        }
+    }
+
+    /**
+     * 复制栈顶 n 个槽位，并把副本插入到它们下方 depth 个槽位之下。
+     * dup = dup(1, 0)，dup_x1 = dup(1, 1)，dup2_x2 = dup(2, 2)，以此类推。
+     */
+    public void dup(int n, int depth) {
+        int bottom = top - n - depth;
+        // 先把 [bottom, top) 整体上移 n 个槽位，再把原来的栈顶 n 个槽位复制到 bottom 处
+        for (int i = top - 1; i >= bottom; i--) {
+            copySlot(i, i + n);
+        }
+        for (int i = 0; i < n; i++) {
+            copySlot(bottom + depth + n + i, bottom + i);
+        }
+        top += n;
+    }
+
+    public void swap() {
+        int num = nums[top - 1];
+        Object ref = refs[top - 1];
+        copySlot(top - 2, top - 1);
+        nums[top - 2] = num;
+        refs[top - 2] = ref;
+    }
+
+    // --- 方法调用使用 ---
+
+    /**
+     * 把栈顶 n 个槽位 (调用参数) 交给被调用方法，它们成为被调用方法局部变量表的开头
+     * @return 这些槽位在线程槽位数组中的起始下标
+     */
+    public int releaseSlots(int n) {
+        top -= n;
+        return top;
+    }
+
+    // 被调用方法 (例如编译后的代码) 已经把 n 个槽位的返回值写到栈顶之上，把它们纳入栈中
+    public void claimSlots(int n) {
+        top += n;
+    }
+
+    private void copySlot(int from, int to) {
+        nums[to] = nums[from];
+        refs[to] = refs[from];
     }
 
     // ---- 方便调试 ----
@@ -37,15 +143,12 @@ public class OperandStack {
     public String toString() {
         // 实现一个漂亮的打印方法，显示栈中内容
         StringBuilder sb = new StringBuilder();
-        sb.append("Stack (top=").append(top).append("): [");
-        for (int i = 0; i < top; i++) {
-            sb.append(slots[i]);
+        sb.append("Stack (top=").append(top - base).append("): [");
+        for (int i = base; i < top; i++) {
+            sb.append(refs[i] != null ? refs[i] : nums[i]);
             if (i < top - 1) sb.append(", ");
         }
         sb.append("]");
         return sb.toString();
     }
-
-    // 未来可以添加 pushLong, popLong 等
-
 }
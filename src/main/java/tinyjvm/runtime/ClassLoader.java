@@ -1,45 +1,205 @@
 package tinyjvm.runtime;
 
 import tinyjvm.classfile.ClassFile;
+import tinyjvm.classpath.ClassArchive;
 import tinyjvm.classpath.Classpath;
+import tinyjvm.runtime.heap.Heap;
+import tinyjvm.runtime.heap.HostHeap;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtConstantPool;
 
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * 类加载器，可以被多个线程同时使用。
+ * 每个类名在缓存里对应一个占位符：第一个请求这个类的线程放入占位符，负责读取、解析和链接，
+ * 其他线程在占位符上等待结果，所以每个类只解析一次，而不同的类可以同时解析。
+ * 占位符在类链接完成后才完成，其他线程拿到的一定是链接好的类。
+ */
 public class ClassLoader {
+    // -Xverify 模式：不校验、只校验用户类路径上的类 (默认)、校验所有类
+    public static final int VERIFY_NONE = 0;
+    public static final int VERIFY_REMOTE = 1;
+    public static final int VERIFY_ALL = 2;
+
+    // newarray 的 atype (4 ~ 11) 对应的数组类名
+    private static final String[] PRIMITIVE_ARRAY_NAMES = {null, null, null, null, "[Z", "[C", "[F", "[D", "[B", "[S", "[I", "[J"};
 
     private final Classpath classpath;
-    private final Map<String, ClassFile> classMap;
+    private final ClassArchive archive; // -Xshare:on 时映射的共享归档，没有时为 null
+    private final ConcurrentMap<String, Placeholder> classMap;
+    private final Heap heap; // 这个加载器加载的类的对象都分配在这里
+    private final int verifyMode;
+    private final RtClass[] primitiveArrayClasses = new RtClass[PRIMITIVE_ARRAY_NAMES.length]; // 第一次用到时加载
 
     public ClassLoader(Classpath classpath) {
+        this(classpath, HostHeap.INSTANCE);
+    }
+
+    public ClassLoader(Classpath classpath, Heap heap) {
+        this(classpath, heap, null);
+    }
+
+    public ClassLoader(Classpath classpath, Heap heap, ClassArchive archive) {
+        this(classpath, heap, archive, VERIFY_REMOTE);
+    }
+
+    /**
+     * @param verifyMode VERIFY_NONE、VERIFY_REMOTE 或 VERIFY_ALL。类在第一次使用字节码之前校验，见 RtClass.verify
+     */
+    public ClassLoader(Classpath classpath, Heap heap, ClassArchive archive, int verifyMode) {
         this.classpath = classpath;
-        this.classMap = new HashMap<>();
+        this.archive = archive;
+        this.verifyMode = verifyMode;
+        this.classMap = new ConcurrentHashMap<>();
+        this.heap = heap;
+    }
+
+    public Heap getHeap() {
+        return heap;
     }
 
-    public ClassFile loadClass(String className) {
-        // 1. 检查类是否已经加载
-        if (classMap.containsKey(className)) {
-            return classMap.get(className); // 直接从缓存（方法区）返回
+    public RtClass loadClass(String className) {
+        // 1. 检查类是否已经加载或正在被其他线程加载
+        Placeholder placeholder = classMap.get(className);
+        if (placeholder == null) {
+            Placeholder created = new Placeholder();
+            placeholder = classMap.putIfAbsent(className, created);
+            if (placeholder == null) {
+                return define(className, created);
+            }
         }
 
-        return loadNonArrayClass(className);
+        RtClass rtClass = placeholder.getNow(null);
+        if (rtClass != null) {
+            return rtClass; // 直接从缓存（方法区）返回
+        }
+        if (placeholder.owner == Thread.currentThread()) {
+            // 链接父类和接口时又回到了自己，只有父类链成环时才会出现
+            throw new ClassCircularityError(className);
+        }
+        try {
+            return placeholder.join();
+        } catch (CompletionException e) {
+            // 负责加载的线程失败了，把它的异常原样抛给等待的线程
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
     }
 
-    private ClassFile loadNonArrayClass(String className) {
-        try {
-            // 2. 委托 Classpath 读取字节码
-            byte[] data = classpath.readClass(className);
-            if (data == null) {
-                throw new ClassNotFoundException(className);
+    /**
+     * newarray 使用：按 atype 取基本类型的数组类
+     * @param atype JVMS 6.5 newarray 的 atype，4 (boolean) ~ 11 (long)
+     */
+    public RtClass loadPrimitiveArrayClass(int atype) {
+        RtClass rtClass = primitiveArrayClasses[atype];
+        if (rtClass == null) {
+            rtClass = loadClass(PRIMITIVE_ARRAY_NAMES[atype]);
+            primitiveArrayClasses[atype] = rtClass;
+        }
+        return rtClass;
+    }
+
+    /**
+     * 已经加载成功的类 (不包括数组类)，按类名排序
+     */
+    public List<String> getLoadedClassNames() {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Placeholder> entry : classMap.entrySet()) {
+            Placeholder placeholder = entry.getValue();
+            if (entry.getKey().charAt(0) != '[' && placeholder.isDone() && !placeholder.isCompletedExceptionally()) {
+                names.add(entry.getKey());
             }
+        }
+        names.sort(null);
+        return names;
+    }
 
-            // 3. 解析字节码，生成 ClassFile 对象
-            ClassFile classFile = ClassFile.parse(data);
+    /**
+     * -Xshare:dump 写进共享归档的类：已经加载成功、并且通过了校验的类。
+     * 从归档加载的类不再校验，所以需要校验而还没有用到字节码的类在这里校验，不通过的不写进归档
+     */
+    public List<String> getArchivableClassNames() {
+        List<String> names = getLoadedClassNames();
+        if (verifyMode == VERIFY_NONE) {
+            return names;
+        }
+        List<String> archivable = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                if (verifyMode == VERIFY_ALL || classpath.isUserClass(name)) {
+                    loadClass(name).verify();
+                }
+                archivable.add(name);
+            } catch (VerifyError e) {
+                // 不写进归档，下次从类路径加载时照常校验并报错
+            }
+        }
+        return archivable;
+    }
 
-            // 4. 放入缓存（方法区）
-            classMap.put(className, classFile);
+    /**
+     * 预加载：从 className 出发，沿着父类、接口和常量池里的类引用找到所有可达的类，在 pool 上并行解析和链接。
+     * 找不到或加载失败的类直接跳过，真正用到时再报错。
+     * @return 预加载过的类数
+     */
+    public int preload(String className, ForkJoinPool pool) {
+        Set<String> visited = ConcurrentHashMap.newKeySet();
+        visited.add(className);
+        pool.invoke(new PreloadTask(className, visited));
+        return visited.size();
+    }
 
-            return classFile;
+    // 负责加载的线程：读取、解析、链接，然后完成占位符。失败时移除占位符，之后再请求这个类会重新尝试
+    private RtClass define(String className, Placeholder placeholder) {
+        try {
+            // 数组类没有 class 文件，直接创建
+            RtClass rtClass = className.charAt(0) == '[' ? new RtClass(className, this) : defineClass(className);
+            // 5. 链接父类和接口
+            rtClass.link();
+            placeholder.complete(rtClass);
+            return rtClass;
+        } catch (RuntimeException | Error e) {
+            classMap.remove(className, placeholder);
+            placeholder.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private RtClass defineClass(String className) {
+        try {
+            // 2. 先在共享归档里找，直接在映射上解析；找不到时委托 Classpath 读取字节码
+            ByteBuffer shared = archive == null ? null : archive.find(className);
+            ClassFile classFile;
+            boolean verify;
+            if (shared != null) {
+                classFile = ClassFile.parse(shared);
+                // 写进归档的类在 dump 时已经校验过
+                verify = verifyMode == VERIFY_ALL;
+            } else {
+                byte[] data = classpath.readClass(className);
+                if (data == null) {
+                    throw new ClassNotFoundException(className);
+                }
+                classFile = ClassFile.parse(data);
+                verify = verifyMode == VERIFY_ALL || (verifyMode == VERIFY_REMOTE && classpath.isUserClass(className));
+            }
+
+            // 3. 生成运行时类；4. 链接完成后由 define 放入缓存（方法区）
+            return new RtClass(classFile, this, verify);
         } catch (Exception e) {
             // 在实际的 JVM 中，这里会抛出 ClassNotFoundException
             System.err.println("Failed to load class: " + className);
@@ -47,4 +207,44 @@ public class ClassLoader {
             throw new RuntimeException("ClassLoader: Can not find or load class " + className);
         }
     }
+
+    // 类名对应的加载结果，owner 是负责加载的线程
+    private static final class Placeholder extends CompletableFuture<RtClass> {
+        final Thread owner = Thread.currentThread();
+    }
+
+    // 加载一个类，再为它引用的、还没有访问过的类各派生一个任务
+    private final class PreloadTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // ForkJoinTask 是 Serializable，任务本身从不序列化
+
+        private final String className;
+        private final transient Set<String> visited;
+
+        PreloadTask(String className, Set<String> visited) {
+            this.className = className;
+            this.visited = visited;
+        }
+
+        @Override
+        protected void compute() {
+            RtClass rtClass;
+            try {
+                rtClass = loadClass(className);
+            } catch (RuntimeException | LinkageError e) {
+                return;
+            }
+            RtConstantPool constantPool = rtClass.getConstantPool();
+            if (constantPool == null) {
+                return;
+            }
+            List<PreloadTask> tasks = new ArrayList<>();
+            for (String name : constantPool.getClassNames()) {
+                // 数组类和类路径上没有的类不预加载
+                if (classpath.contains(name) && visited.add(name)) {
+                    tasks.add(new PreloadTask(name, visited));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
 }
@@ -1,25 +1,43 @@
 package tinyjvm.runtime;
 
-import tinyjvm.classfile.MemberInfo;
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
 import tinyjvm.rtda.LocalVars;
 import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.heap.RtMethod;
 
+/**
+ * 栈帧。
+ * 栈帧对象由 JvmThread 复用：方法返回后留在线程的栈帧数组里，下次调用时用 reset 指向新的方法和槽位，
+ * 局部变量表和操作数栈都是线程槽位数组中的窗口，调用方法时不分配任何数组。
+ */
 public class Frame {
-    private Frame lower; // 指向调用者栈帧的指针，用于实现链式栈
-    private LocalVars localVars; // 局部变量表
-    private OperandStack operandStack; // 操作数栈
-    private MemberInfo method; // 对当前方法的引用
+    private final LocalVars localVars = new LocalVars(); // 局部变量表
+    private final OperandStack operandStack = new OperandStack(); // 操作数栈
+    private RtMethod method; // 对当前方法的引用
     private int nextPC; // 下一条要执行的指令的地址
-    private JvmThread thread;
+    private Object monitor; // synchronized 方法加锁的对象，方法返回时解锁；其他方法为 null
+    private final JvmThread thread;
 
-    public Frame(JvmThread thread, MemberInfo method) {
-        this.method = method;
-        // 从方法的 Code 属性中获取 maxLocals 和 maxStack
-        this.localVars = new LocalVars(method.getCodeAttribute().getMaxLocals());
-        this.operandStack = new OperandStack(method.getCodeAttribute().getMaxStack());
+    Frame(JvmThread thread) {
         this.thread = thread;
     }
 
+    /**
+     * 为一次方法调用初始化栈帧：局部变量表从 base 开始，操作数栈紧随其后
+     */
+    void reset(RtMethod method, int[] nums, Object[] refs, int base) {
+        CodeAttribute codeAttribute = method.getCodeAttribute();
+        this.method = method;
+        this.nextPC = 0;
+        localVars.reset(nums, refs, base, codeAttribute.getMaxLocals());
+        operandStack.reset(nums, refs, base + codeAttribute.getMaxLocals());
+    }
+
+    void relocate(int[] nums, Object[] refs) {
+        localVars.relocate(nums, refs);
+        operandStack.relocate(nums, refs);
+    }
+
     // Getters for all fields
     public LocalVars getLocalVars() {
         return localVars;
@@ -29,7 +47,7 @@ public class Frame {
         return operandStack;
     }
 
-    public MemberInfo getMethod() {
+    public RtMethod getMethod() {
         return method;
     }
 
@@ -41,11 +59,20 @@ public class Frame {
         this.nextPC = nextPC;
     }
 
-    public JvmThread getThread() {
-        return thread;
+    // 让当前指令下次重新执行，例如类还没有初始化时先执行 <clinit>，之后再回来执行触发初始化的指令
+    public void revertNextPC() {
+        this.nextPC = thread.getPC();
     }
 
-    public void setThread(JvmThread thread) {
-        this.thread = thread;
+    Object getMonitor() {
+        return monitor;
+    }
+
+    void setMonitor(Object monitor) {
+        this.monitor = monitor;
+    }
+
+    public JvmThread getThread() {
+        return thread;
     }
 }
@@ -1,32 +1,243 @@
 package tinyjvm.runtime;
 
-import java.util.Stack;
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.jit.CompiledMethod;
+import tinyjvm.jit.TierUpCompiler;
+import tinyjvm.natives.NativeMethod;
+import tinyjvm.rtda.OperandStack;
+import tinyjvm.runtime.heap.Heap;
+import tinyjvm.runtime.heap.HostHeap;
+import tinyjvm.runtime.heap.ObjectMonitor;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtMethod;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 虚拟机线程。
+ * 所有栈帧的局部变量表和操作数栈都放在线程的一对连续槽位数组 (int[] + Object[]) 里：
+ * 调用方法时，被调用方法的局部变量表直接从调用者操作数栈上的参数处开始，参数不需要复制；
+ * 返回值压到调用者的操作数栈上，正好覆盖原来参数的位置。
+ * 虚拟机栈是一个不加锁的 Frame 数组，frames[0..depth) 是正在执行的栈帧，后面是已经返回、可以复用的栈帧。
+ * 引用槽位数组注册为堆的 GC 根，线程结束时调用 terminate 注销。
+ */
 public class JvmThread {
+    public static final int DEFAULT_MAX_DEPTH = 1024; // 默认的最大栈深度，可以用 -Xss 修改
+    private static final int INITIAL_SLOTS = 1024;
+
     private int pc;
-    private final Stack<Frame> stack;
+    private final int maxDepth;
+    private final TierUpCompiler compiler; // 为 null 时不编译，所有方法都解释执行
+    private final Heap heap;
+
+    private Frame[] frames = new Frame[16];
+    private int depth;
+    private int[] nums = new int[INITIAL_SLOTS];
+    private Object[] refs = new Object[INITIAL_SLOTS];
 
     public JvmThread() {
-        this.stack = new Stack<>();
+        this(DEFAULT_MAX_DEPTH, null, HostHeap.INSTANCE);
+    }
+
+    public JvmThread(int maxDepth, TierUpCompiler compiler, Heap heap) {
+        this.maxDepth = maxDepth;
+        this.compiler = compiler;
+        this.heap = heap;
+        heap.addRoots(refs);
+    }
+
+    /**
+     * 线程执行结束，注销 GC 根
+     */
+    public void terminate() {
+        // 异常结束时栈上还没有执行完的 <clinit>：这些类初始化失败，唤醒等待它们的线程
+        for (int i = 0; i < depth; i++) {
+            RtMethod method = frames[i].getMethod();
+            if (method.isClinit() && !method.getRtClass().isInitDone()) {
+                method.getRtClass().failInit();
+            }
+        }
+        heap.removeRoots(refs);
     }
 
     public int getPC() { return pc; }
     public void setPC(int pc) { this.pc = pc; }
 
-    public void pushFrame(Frame frame) {
-        stack.push(frame);
+    /**
+     * 从入口方法开始执行：在空的线程上从槽位 0 开始为它创建栈帧，参数都是零值。
+     * 方法已经编译成宿主代码时直接执行完，不压入栈帧。
+     */
+    public void invokeEntry(RtMethod method) {
+        if (!invokeOnHost(method, 0)) {
+            pushFrame(method, 0);
+        }
+    }
+
+    /**
+     * 客体线程的入口：在空的线程上执行线程对象的 run 方法，this 放在槽位 0
+     */
+    public void invokeEntry(RtMethod method, Object receiver) {
+        refs[0] = receiver;
+        invokeEntry(method);
+    }
+
+    /**
+     * 执行 invoke 指令：参数已经在当前栈帧的操作数栈顶。
+     * 本地方法和已经编译成宿主代码的方法直接执行并把返回值压回操作数栈，否则压入新的栈帧，由解释循环继续执行。
+     */
+    public void invokeMethod(RtMethod method) {
+        OperandStack callerStack = currentFrame().getOperandStack();
+        int base = callerStack.releaseSlots(method.getArgSlotCount());
+        if (!invokeOnHost(method, base)) {
+            pushFrame(method, base);
+        } else if (method.getReturnSlotCount() > 0) {
+            callerStack.claimSlots(method.getReturnSlotCount());
+        }
     }
 
+    /**
+     * 初始化类 (JVMS 5.5)：由本线程开始初始化的类和它还没有开始初始化的父类各压入 &lt;clinit&gt; 栈帧，父类的压在上面，先执行；
+     * &lt;clinit&gt; 栈帧弹出时类的初始化完成 (见 popFrame)，没有 &lt;clinit&gt; 的类跟着父类一起完成。
+     * 类正由其他线程初始化时等它完成；由本线程初始化时 (递归请求) 直接返回。
+     * 触发初始化的指令 (new、getstatic、putstatic、invokestatic) 要先调用 Frame.revertNextPC，初始化完成后重新执行。
+     * 线程栈为空时 (主类的初始化)，&lt;clinit&gt; 的栈帧从槽位 0 开始。
+     */
+    public void initClass(RtClass rtClass) {
+        if (!rtClass.startInit()) {
+            rtClass.awaitInit();
+            return;
+        }
+        // 本线程负责初始化的类，子类在前
+        List<RtClass> chain = new ArrayList<>();
+        chain.add(rtClass);
+        try {
+            for (RtClass c = rtClass.getSuperClass(); c != null; c = c.getSuperClass()) {
+                if (!c.startInit()) {
+                    c.awaitInit(); // 父类由其他线程初始化时，等它完成后再初始化子类
+                    break;
+                }
+                chain.add(c);
+            }
+            boolean[] pending = new boolean[chain.size()];
+            for (int i = 0; i < chain.size(); i++) {
+                RtMethod clinit = chain.get(i).getClinit();
+                if (clinit != null) {
+                    int base = depth == 0 ? 0 : currentFrame().getOperandStack().releaseSlots(0);
+                    if (!invokeOnHost(clinit, base)) {
+                        pushFrame(clinit, base);
+                        pending[i] = true;
+                    }
+                }
+            }
+            // 从最上面的父类开始：没有压入栈帧的类在父类完成时完成，父类已经完成时立即完成
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                if (!pending[i]) {
+                    RtClass superClass = i + 1 < chain.size() ? chain.get(i + 1) : null;
+                    if (superClass != null && !superClass.isInitDone()) {
+                        superClass.setInitFollower(chain.get(i));
+                    } else {
+                        chain.get(i).finishInit();
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            for (RtClass c : chain) {
+                if (!c.isInitDone()) {
+                    c.failInit();
+                }
+            }
+            throw e;
+        }
+    }
+
+    // 参数从 base 开始；方法是本地方法或已经编译时执行它并返回 true，返回值写在 base 处
+    private boolean invokeOnHost(RtMethod method, int base) {
+        NativeMethod nativeMethod = method.getNativeMethod();
+        if (nativeMethod != null) {
+            ensureSlots(base + 2);
+            nativeMethod.invoke(nums, refs, base);
+            return true;
+        }
+        if (compiler == null) {
+            return false;
+        }
+        CompiledMethod compiled = compiler.onInvoke(method);
+        if (compiled == null) {
+            return false;
+        }
+        ensureSlots(base + 2); // 参数已经在槽位里，只需保证放得下 long/double 返回值
+        compiled.invoke(nums, refs, base);
+        return true;
+    }
+
+    private Frame pushFrame(RtMethod method, int base) {
+        CodeAttribute codeAttribute = method.getCodeAttribute();
+        if (codeAttribute == null) {
+            throw new UnsupportedOperationException("Native or abstract method: " + method.getName() + method.getDescriptor());
+        }
+        if (depth == maxDepth) {
+            throw new StackOverflowError("Stack depth exceeds " + maxDepth + " frames");
+        }
+        ensureSlots(base + codeAttribute.getMaxLocals() + codeAttribute.getMaxStack());
+
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, Math.min(frames.length * 2, maxDepth));
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame(this);
+            frames[depth] = frame;
+        }
+        frame.reset(method, nums, refs, base);
+        // synchronized 方法在压栈时加锁，弹栈时解锁
+        frame.setMonitor(method.isSynchronized() ? ObjectMonitor.enterMethod(method, refs[base]) : null);
+        depth++;
+        return frame;
+    }
+
+    // 槽位不够时扩容，正在执行的栈帧都换成新数组
+    private void ensureSlots(int required) {
+        if (required <= nums.length) {
+            return;
+        }
+        int capacity = Math.max(nums.length * 2, required);
+        nums = Arrays.copyOf(nums, capacity);
+        heap.removeRoots(refs);
+        refs = Arrays.copyOf(refs, capacity);
+        heap.addRoots(refs);
+        for (int i = 0; i < depth; i++) {
+            frames[i].relocate(nums, refs);
+        }
+    }
+
+    /**
+     * 弹出当前栈帧，栈帧对象留在数组里等待复用
+     */
     public Frame popFrame() {
-        return stack.pop();
+        Frame frame = frames[--depth];
+        frame.getLocalVars().clearRefs();
+        Object monitor = frame.getMonitor();
+        if (monitor != null) {
+            ObjectMonitor.exitMethod(monitor);
+            frame.setMonitor(null);
+        }
+        if (frame.getMethod().isClinit()) {
+            frame.getMethod().getRtClass().finishInit();
+        }
+        return frame;
     }
 
     public Frame currentFrame() {
-        return stack.peek();
+        return frames[depth - 1];
     }
 
     public boolean isStackEmpty() {
-        return stack.isEmpty();
+        return depth == 0;
     }
 
+    public int getDepth() {
+        return depth;
+    }
 }
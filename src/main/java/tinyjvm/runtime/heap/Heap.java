@@ -0,0 +1,37 @@
+package tinyjvm.runtime.heap;
+
+import java.io.PrintStream;
+
+/**
+ * 客体堆：分配对象，并知道哪些引用槽位数组是 GC 的根。
+ * 线程的槽位数组、快速引擎的槽位数组和类的静态引用字段都要注册为根，
+ * 堆管理对象内存时 (OffHeap 的复制回收) 从这些数组出发找到所有存活的对象。
+ */
+public interface Heap {
+
+    RtObject newObject(RtClass rtClass);
+
+    /**
+     * @param arrayClass 数组类
+     * @param length 数组长度，为负时抛出 NegativeArraySizeException
+     */
+    RtArray newArray(RtClass arrayClass, int length);
+
+    /**
+     * 注册一个根数组，数组中的所有元素都当作根 (不区分是否在栈顶以下)
+     */
+    void addRoots(Object[] refs);
+
+    void removeRoots(Object[] refs);
+
+    /**
+     * 是否允许多个客体线程同时分配和访问对象。OffHeap 的分配和复制回收都没有加锁，只能单线程使用
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+
+    // 虚拟机结束时打印堆的统计信息
+    default void printStatistics(PrintStream out) {
+    }
+}
@@ -0,0 +1,35 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 默认的堆：客体对象就是普通的宿主对象，字段在对象自己的数组里，由宿主 GC 回收，不需要根集合。
+ */
+public final class HostHeap implements Heap {
+    public static final HostHeap INSTANCE = new HostHeap();
+
+    private HostHeap() {
+    }
+
+    @Override
+    public RtObject newObject(RtClass rtClass) {
+        return new RtObject(rtClass);
+    }
+
+    @Override
+    public RtArray newArray(RtClass arrayClass, int length) {
+        return new RtArray(arrayClass, length);
+    }
+
+    // 分配交给宿主，回收交给宿主 GC，天然是线程安全的
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public void addRoots(Object[] refs) {
+    }
+
+    @Override
+    public void removeRoots(Object[] refs) {
+    }
+}
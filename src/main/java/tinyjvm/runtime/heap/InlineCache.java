@@ -0,0 +1,32 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * invokeinterface 调用点的单态内联缓存。
+ * 记住上一次接收者的类和选出的方法，接收者的类不变时直接返回，不再查 itable；
+ * 类变了就重新选择并替换缓存 (只保留一项)。
+ * 类和方法放在同一个不可变的 Entry 里一起替换，多个客体线程同时执行同一个调用点时不会读到不配对的类和方法。
+ * invokevirtual 直接按下标查 vtable，不需要内联缓存。
+ */
+public final class InlineCache {
+    private Entry entry;
+
+    public RtMethod lookup(RtMethodRef methodRef, RtClass receiverClass) {
+        Entry e = entry;
+        if (e != null && receiverClass == e.receiverClass) {
+            return e.method;
+        }
+        RtMethod method = methodRef.selectVirtualMethod(receiverClass);
+        entry = new Entry(receiverClass, method);
+        return method;
+    }
+
+    private static final class Entry {
+        final RtClass receiverClass;
+        final RtMethod method;
+
+        Entry(RtClass receiverClass, RtMethod method) {
+            this.receiverClass = receiverClass;
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package tinyjvm.runtime.heap;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 类的接口方法表 (itable)。
+ * 类实现的每个接口 (包括间接实现的父接口) 对应一个方法数组，下标是接口方法的 itableIndex，
+ * 元素是该类对这个接口方法的实现。接口到方法数组的映射是一个按接口 id 散列的开放寻址表，
+ * 接口一般只有几个，一次探测就能找到，invokeinterface 不需要比较方法名和描述符。
+ */
+final class Itable {
+    private static final Itable EMPTY = new Itable(new RtClass[1], new RtMethod[1][]);
+
+    private final RtClass[] keys;
+    private final RtMethod[][] values;
+    private final int mask;
+
+    private Itable(RtClass[] keys, RtMethod[][] values) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * 为非接口类建立 itable，父类和所有接口都已经链接
+     */
+    static Itable build(RtClass rtClass) {
+        Set<RtClass> interfaces = new LinkedHashSet<>();
+        for (RtClass c = rtClass; c != null; c = c.getSuperClass()) {
+            collectInterfaces(c.getInterfaces(), interfaces);
+        }
+        if (interfaces.isEmpty()) {
+            return EMPTY;
+        }
+
+        // 装填因子不超过 1/2
+        int capacity = Integer.highestOneBit(interfaces.size() * 2 - 1) << 1;
+        Itable itable = new Itable(new RtClass[capacity], new RtMethod[capacity][]);
+        for (RtClass iface : interfaces) {
+            RtMethod[] declared = iface.getMethods();
+            RtMethod[] impls = new RtMethod[declared.length];
+            for (RtMethod method : declared) {
+                if (method.getItableIndex() >= 0) {
+                    impls[method.getItableIndex()] = selectImplementation(rtClass, method);
+                }
+            }
+            int i = itable.slot(iface);
+            while (itable.keys[i] != null) {
+                i = (i + 1) & itable.mask;
+            }
+            itable.keys[i] = iface;
+            itable.values[i] = impls;
+        }
+        return itable;
+    }
+
+    private static void collectInterfaces(RtClass[] interfaces, Set<RtClass> result) {
+        for (RtClass iface : interfaces) {
+            if (result.add(iface)) {
+                collectInterfaces(iface.getInterfaces(), result);
+            }
+        }
+    }
+
+    /**
+     * 方法选择 (JVMS 5.4.6)：先沿父类链找能覆盖它的实例方法，再找父接口中的默认方法。
+     * 有多个默认方法时取找到的第一个，不检查冲突。都没有时返回接口方法本身，调用时抛出 AbstractMethodError
+     */
+    private static RtMethod selectImplementation(RtClass rtClass, RtMethod interfaceMethod) {
+        String name = interfaceMethod.getName();
+        String descriptor = interfaceMethod.getDescriptor();
+        for (RtClass c = rtClass; c != null; c = c.getSuperClass()) {
+            RtMethod method = c.getMethod(name, descriptor);
+            if (method != null && !method.isStatic() && !method.isPrivate()) {
+                return method;
+            }
+        }
+        Set<RtClass> interfaces = new LinkedHashSet<>();
+        for (RtClass c = rtClass; c != null; c = c.getSuperClass()) {
+            collectInterfaces(c.getInterfaces(), interfaces);
+        }
+        for (RtClass iface : interfaces) {
+            RtMethod method = iface.getMethod(name, descriptor);
+            if (method != null && !method.isAbstract() && !method.isStatic() && !method.isPrivate()) {
+                return method;
+            }
+        }
+        return interfaceMethod;
+    }
+
+    /**
+     * 查找类对接口 iface 的实现
+     * @return 下标是接口方法的 itableIndex；类没有实现该接口时返回 null
+     */
+    RtMethod[] lookup(RtClass iface) {
+        for (int i = slot(iface); ; i = (i + 1) & mask) {
+            RtClass key = keys[i];
+            if (key == iface) {
+                return values[i];
+            }
+            if (key == null) {
+                return null;
+            }
+        }
+    }
+
+    private int slot(RtClass iface) {
+        return (iface.getId() * 0x9E3779B9 >>> 16) & mask;
+    }
+}
@@ -0,0 +1,194 @@
+package tinyjvm.runtime.heap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 客体对象的监视器：monitorenter/monitorexit、synchronized 方法和 Object.wait/notify。
+ * <p>
+ * 默认是轻量锁 (thin lock)：对象的 lockWord 里直接记录持有者 (宿主线程 id) 和重入次数，
+ * 没有竞争时加锁和解锁各是一次 CAS，不分配任何对象。
+ * 其他线程发现锁被占用时先自旋等待，等不到就在 lockWord 上设置 CONTENDED 位；
+ * 持有者最后一次解锁时看到这一位，就把锁膨胀成 ObjectMonitor (一个宿主 ReentrantLock)，
+ * 之后这个对象的所有加锁都直接走 ReentrantLock，等待的线程在上面阻塞而不再自旋。膨胀之后不再收缩。
+ * wait/notify 需要条件变量，持有轻量锁的线程调用 wait 时先把锁膨胀 (重入次数原样转移到 ReentrantLock 上)。
+ * <p>
+ * 客体线程和宿主线程一一对应 (见 ThreadNatives)，所以用宿主线程 id 表示持有者。
+ */
+public final class ObjectMonitor {
+    // lockWord 的格式：0 表示没有加锁；INFLATED 表示已经膨胀；
+    // 否则低 16 位是重入次数，第 16 位是 CONTENDED，更高的位是持有者的线程 id
+    private static final long INFLATED = -1L;
+    private static final long COUNT_MASK = 0xFFFF;
+    private static final long CONTENDED = 1L << 16;
+    private static final int OWNER_SHIFT = 17;
+    private static final int SPINS_BEFORE_CONTENDED = 64;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private static final VarHandle LOCK_WORD;
+
+    static {
+        try {
+            LOCK_WORD = MethodHandles.lookup().findVarHandle(RtObject.class, "lockWord", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+
+    private ObjectMonitor() {
+    }
+
+    /**
+     * monitorenter
+     */
+    public static void enter(RtObject object) {
+        long owner = Thread.currentThread().threadId() << OWNER_SHIFT;
+        int spins = 0;
+        long parkNanos = 1_000;
+        while (true) {
+            long word = object.lockWord;
+            if (word == 0) {
+                if (LOCK_WORD.compareAndSet(object, 0L, owner | 1)) {
+                    return;
+                }
+            } else if (word == INFLATED) {
+                object.monitor.lock.lock();
+                return;
+            } else if ((word & ~(COUNT_MASK | CONTENDED)) == owner) {
+                // 重入：只有持有者会改计数，但其他线程可能同时设置 CONTENDED，所以仍然用 CAS
+                if ((word & COUNT_MASK) == COUNT_MASK) {
+                    inflate(object, word);
+                    continue;
+                }
+                if (LOCK_WORD.compareAndSet(object, word, word + 1)) {
+                    return;
+                }
+            } else if (spins < SPINS_BEFORE_CONTENDED) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                // 被其他线程持有：请求持有者解锁时膨胀，在那之前退避等待
+                if ((word & CONTENDED) == 0) {
+                    LOCK_WORD.compareAndSet(object, word, word | CONTENDED);
+                }
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * monitorexit，当前线程不是持有者时抛出 IllegalMonitorStateException
+     */
+    public static void exit(RtObject object) {
+        long owner = Thread.currentThread().threadId() << OWNER_SHIFT;
+        while (true) {
+            long word = object.lockWord;
+            if (word == INFLATED) {
+                object.monitor.lock.unlock();
+                return;
+            }
+            if (word == 0 || (word & ~(COUNT_MASK | CONTENDED)) != owner) {
+                throw new IllegalMonitorStateException("Current thread does not own the monitor of " + object);
+            }
+            if ((word & COUNT_MASK) > 1) {
+                if (LOCK_WORD.compareAndSet(object, word, word - 1)) {
+                    return;
+                }
+            } else if ((word & CONTENDED) != 0) {
+                // 有线程在等：膨胀成一个没有被持有的 ReentrantLock，等待的线程之后在它上面阻塞
+                ObjectMonitor monitor = new ObjectMonitor();
+                object.monitor = monitor;
+                object.lockWord = INFLATED; // volatile 写，保证其他线程看到 INFLATED 时也能看到 monitor
+                return;
+            } else if (LOCK_WORD.compareAndSet(object, word, 0L)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Object.wait：当前线程必须持有对象的锁。timeoutMillis 为 0 时一直等到被唤醒
+     */
+    public static void await(RtObject object, long timeoutMillis) throws InterruptedException {
+        ObjectMonitor monitor = ownedMonitor(object);
+        if (timeoutMillis == 0) {
+            monitor.condition.await();
+        } else {
+            monitor.condition.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Object.notify/notifyAll：当前线程必须持有对象的锁
+     */
+    public static void signal(RtObject object, boolean all) {
+        ObjectMonitor monitor = ownedMonitor(object);
+        if (all) {
+            monitor.condition.signalAll();
+        } else {
+            monitor.condition.signal();
+        }
+    }
+
+    // 返回当前线程持有的膨胀后的监视器，持有的是轻量锁时先膨胀
+    private static ObjectMonitor ownedMonitor(RtObject object) {
+        long owner = Thread.currentThread().threadId() << OWNER_SHIFT;
+        while (true) {
+            long word = object.lockWord;
+            if (word == INFLATED) {
+                ObjectMonitor monitor = object.monitor;
+                if (!monitor.lock.isHeldByCurrentThread()) {
+                    throw new IllegalMonitorStateException("Current thread does not own the monitor of " + object);
+                }
+                return monitor;
+            }
+            if (word == 0 || (word & ~(COUNT_MASK | CONTENDED)) != owner) {
+                throw new IllegalMonitorStateException("Current thread does not own the monitor of " + object);
+            }
+            inflate(object, word);
+        }
+    }
+
+    // 持有者把自己的轻量锁膨胀成 ReentrantLock，重入次数原样转移；lockWord 变了 (其他线程设置了 CONTENDED) 时什么都不做，由调用方重试
+    private static void inflate(RtObject object, long word) {
+        ObjectMonitor monitor = new ObjectMonitor();
+        long count = word & COUNT_MASK;
+        for (long i = 0; i < count; i++) {
+            monitor.lock.lock();
+        }
+        object.monitor = monitor;
+        if (!LOCK_WORD.compareAndSet(object, word, INFLATED)) {
+            object.monitor = null;
+        }
+    }
+
+    /**
+     * synchronized 方法的入口：实例方法锁 this，静态方法锁类的 staticLock (还没有 Class 对象)
+     * @return 加锁的对象，方法返回时传给 exitMethod
+     */
+    public static Object enterMethod(RtMethod method, Object receiver) {
+        if (method.isStatic()) {
+            ReentrantLock lock = method.getRtClass().getStaticLock();
+            lock.lock();
+            return lock;
+        }
+        enter((RtObject) receiver);
+        return receiver;
+    }
+
+    public static void exitMethod(Object locked) {
+        if (locked instanceof ReentrantLock) {
+            ((ReentrantLock) locked).unlock();
+        } else {
+            exit((RtObject) locked);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package tinyjvm.runtime.heap;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * -Xheap:offheap 使用的堆：对象的字段放在一块 direct ByteBuffer 里，不受宿主 GC 管理，由自己的半空间复制回收器回收。
+ *
+ * 堆外内存分成大小相同的两个半空间，对象总是在当前半空间里顺序 (bump pointer) 分配。
+ * 对象布局：8 字节对象头 (句柄编号、对象大小)，然后是数值字段槽位、引用字段槽位，各 4 字节，整体按 8 字节对齐。
+ * 引用字段存放对方的句柄编号，句柄表把编号映射到宿主上的 OffHeapObject。
+ *
+ * 当前半空间放不下新对象时回收：从注册的根数组出发标记所有可达的对象，
+ * 按标记顺序把它们复制到另一个半空间并更新句柄里的地址，然后交换两个半空间；没有被标记的句柄编号回收复用。
+ * 根数组整体扫描，不区分栈顶以上已经失效的槽位，所以是保守的：失效槽位里残留的引用会让对象多活一次回收。
+ *
+ * 数组的元素放在宿主数组里 (OffHeapArray)，不占堆外内存，只在句柄表里占一个编号。
+ * 为了让只分配数组的程序也能回收句柄，数组按元素大小计入一个额度，自上次回收以来分配的数组超过一个半空间时也触发回收。
+ */
+public final class OffHeap implements Heap {
+    static final int HEADER_SIZE = 8;
+    private static final int ALIGNMENT = 8;
+
+    final ByteBuffer arena;
+    private final int semispaceSize;
+    private final boolean verbose;
+    // 根数组的集合。分配和回收只在一个客体线程上进行，但 -Xpreload 的后台线程链接类时也会注册静态字段数组，
+    // 所以注册和注销要线程安全；数组的 equals/hashCode 就是同一性，回收时看不到正在注册的新数组也没关系 (它们还全是 null)
+    private final Set<Object[]> roots = ConcurrentHashMap.newKeySet();
+
+    private int spaceStart; // 当前半空间的起始地址，0 或 semispaceSize
+    private int top; // 下一个对象的地址
+
+    // 句柄表，下标就是句柄编号，0 表示 null。元素是 OffHeapObject 或 OffHeapArray
+    private RtObject[] handles = new RtObject[1024];
+    private int nextId = 1;
+    private int[] freeIds = new int[64];
+    private int freeCount;
+    private long arrayBytesSinceGC; // 上次回收以来分配的数组的大小
+
+    // 回收时使用的标记位和标记栈，按需扩容后复用
+    private boolean[] marked = new boolean[0];
+    private int[] markStack = new int[0];
+
+    // 统计信息
+    private long allocatedBytes;
+    private long allocatedObjects;
+    private long allocatedArrays;
+    private long allocatedArrayBytes;
+    private int collections;
+    private long totalPauseNanos;
+    private long maxPauseNanos;
+    private long copiedBytes;
+
+    public OffHeap(int semispaceSize, boolean verbose) {
+        this.semispaceSize = semispaceSize & -ALIGNMENT;
+        this.verbose = verbose;
+        this.arena = ByteBuffer.allocateDirect(this.semispaceSize * 2).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public RtObject newObject(RtClass rtClass) {
+        int slots = rtClass.getInstanceNumSlotCount() + rtClass.getInstanceRefSlotCount();
+        int size = (HEADER_SIZE + slots * 4 + ALIGNMENT - 1) & -ALIGNMENT;
+        if (top + size > spaceStart + semispaceSize) {
+            collect();
+            if (top + size > spaceStart + semispaceSize) {
+                throw new OutOfMemoryError("Off-heap space exhausted: " + rtClass.getName() + " needs " + size
+                        + " bytes, " + (spaceStart + semispaceSize - top) + " bytes free after GC");
+            }
+        }
+
+        int address = top;
+        top += size;
+        // 半空间复用过，新对象的内存要清零，字段才是零值
+        for (int offset = HEADER_SIZE; offset < size; offset += 8) {
+            arena.putLong(address + offset, 0L);
+        }
+
+        int id = allocateId();
+        arena.putInt(address, id);
+        arena.putInt(address + 4, size);
+        OffHeapObject object = new OffHeapObject(rtClass, this, id, address);
+        handles[id] = object;
+
+        allocatedBytes += size;
+        allocatedObjects++;
+        return object;
+    }
+
+    @Override
+    public RtArray newArray(RtClass arrayClass, int length) {
+        Object data = RtArray.newData(arrayClass.getName(), length);
+        long size = HEADER_SIZE + (long) length * elementSize(arrayClass.getName().charAt(1));
+        if (arrayBytesSinceGC + size > semispaceSize) {
+            collect();
+        }
+        arrayBytesSinceGC += size;
+
+        int id = allocateId();
+        OffHeapArray array = new OffHeapArray(arrayClass, data, length, id);
+        handles[id] = array;
+
+        allocatedArrays++;
+        allocatedArrayBytes += size;
+        return array;
+    }
+
+    private static int elementSize(char type) {
+        switch (type) {
+            case 'Z':
+            case 'B': return 1;
+            case 'C':
+            case 'S': return 2;
+            case 'J':
+            case 'D': return 8;
+            default: return 4;
+        }
+    }
+
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == handles.length) {
+            handles = Arrays.copyOf(handles, handles.length * 2);
+        }
+        return nextId++;
+    }
+
+    RtObject handle(int id) {
+        return id == 0 ? null : handles[id];
+    }
+
+    // 引用在堆里的表示：句柄编号，null 为 0
+    static int idOf(Object ref) {
+        if (ref == null) {
+            return 0;
+        }
+        return ref instanceof OffHeapObject ? ((OffHeapObject) ref).id : ((OffHeapArray) ref).id;
+    }
+
+    @Override
+    public void addRoots(Object[] refs) {
+        roots.add(refs);
+    }
+
+    @Override
+    public void removeRoots(Object[] refs) {
+        roots.remove(refs);
+    }
+
+    /**
+     * 回收当前半空间：标记、复制到另一个半空间、释放没有被标记的句柄
+     */
+    public void collect() {
+        long start = System.nanoTime();
+        int usedBefore = top - spaceStart;
+
+        if (marked.length < nextId) {
+            marked = new boolean[handles.length];
+            markStack = new int[handles.length];
+        } else {
+            Arrays.fill(marked, 0, nextId, false);
+        }
+
+        // 1. 标记。被标记的编号同时按顺序记在 markStack 的底部 [0, markedCount)，复制时按这个顺序
+        int markedCount = 0;
+        for (Object[] refs : roots) {
+            markedCount = markAll(refs, markedCount);
+        }
+        // 广度优先：scan 之前的对象的引用字段和引用数组的元素都已经处理过
+        for (int scan = 0; scan < markedCount; scan++) {
+            RtObject handle = handles[markStack[scan]];
+            if (handle instanceof OffHeapObject) {
+                OffHeapObject object = (OffHeapObject) handle;
+                int refBase = object.address + object.refOffset;
+                int refCount = object.getRtClass().getInstanceRefSlotCount();
+                for (int i = 0; i < refCount; i++) {
+                    int id = arena.getInt(refBase + i * 4);
+                    if (id != 0 && !marked[id]) {
+                        marked[id] = true;
+                        markStack[markedCount++] = id;
+                    }
+                }
+            } else if (((RtArray) handle).getData() instanceof Object[]) {
+                markedCount = markAll(((RtArray) handle).refs(), markedCount);
+            }
+        }
+
+        // 2. 复制到另一个半空间，数组不在堆外内存里，不用复制
+        int toSpace = spaceStart == 0 ? semispaceSize : 0;
+        int newTop = toSpace;
+        int liveObjects = 0;
+        for (int i = 0; i < markedCount; i++) {
+            if (!(handles[markStack[i]] instanceof OffHeapObject)) {
+                continue;
+            }
+            OffHeapObject object = (OffHeapObject) handles[markStack[i]];
+            liveObjects++;
+            int size = arena.getInt(object.address + 4);
+            arena.put(newTop, arena, object.address, size);
+            object.address = newTop;
+            newTop += size;
+        }
+
+        // 3. 释放死对象的句柄，地址置为 -1，误用时会立即越界
+        for (int id = 1; id < nextId; id++) {
+            RtObject handle = handles[id];
+            if (handle != null && !marked[id]) {
+                if (handle instanceof OffHeapObject) {
+                    ((OffHeapObject) handle).address = -1;
+                }
+                handles[id] = null;
+                if (freeCount == freeIds.length) {
+                    freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+                }
+                freeIds[freeCount++] = id;
+            }
+        }
+
+        spaceStart = toSpace;
+        top = newTop;
+        arrayBytesSinceGC = 0;
+
+        long pause = System.nanoTime() - start;
+        collections++;
+        totalPauseNanos += pause;
+        maxPauseNanos = Math.max(maxPauseNanos, pause);
+        copiedBytes += top - spaceStart;
+        if (verbose) {
+            System.out.printf("[GC #%d %dK->%dK(%dK), %d objects, %d arrays live, %.3f ms]%n", collections,
+                    usedBefore / 1024, (top - spaceStart) / 1024, semispaceSize / 1024,
+                    liveObjects, markedCount - liveObjects, pause / 1e6);
+        }
+    }
+
+    // 标记 refs 中所有本堆的对象和数组，返回新的标记数
+    private int markAll(Object[] refs, int markedCount) {
+        for (Object ref : refs) {
+            if (ref instanceof OffHeapObject || ref instanceof OffHeapArray) {
+                int id = idOf(ref);
+                if (!marked[id]) {
+                    marked[id] = true;
+                    markStack[markedCount++] = id;
+                }
+            }
+        }
+        return markedCount;
+    }
+
+    @Override
+    public void printStatistics(PrintStream out) {
+        out.printf("Off-heap: semispace %dK, used %dK, allocated %d objects (%dK), %d host arrays (%dK)%n",
+                semispaceSize / 1024, (top - spaceStart) / 1024, allocatedObjects, allocatedBytes / 1024,
+                allocatedArrays, allocatedArrayBytes / 1024);
+        out.printf("GC: %d collections, %dK copied, total pause %.3f ms, max pause %.3f ms%n",
+                collections, copiedBytes / 1024, totalPauseNanos / 1e6, maxPauseNanos / 1e6);
+    }
+}
@@ -0,0 +1,15 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * OffHeap 堆上的数组。元素仍然放在宿主数组里 (见 RtArray)，只是像 OffHeapObject 一样在句柄表里占一个编号，
+ * 这样对象的引用字段可以指向它，GC 也能通过它找到引用数组元素指向的对象。
+ * 没有被标记的数组只是从句柄表里去掉，内存由宿主 GC 回收。
+ */
+final class OffHeapArray extends RtArray {
+    final int id;
+
+    OffHeapArray(RtClass arrayClass, Object data, int length, int id) {
+        super(arrayClass, data, length);
+        this.id = id;
+    }
+}
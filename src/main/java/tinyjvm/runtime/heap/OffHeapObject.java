@@ -0,0 +1,42 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 字段存放在 OffHeap 堆外内存里的对象。
+ * 宿主对象只是一个句柄：记录对象在堆中的句柄编号和当前地址，GC 移动对象时只更新这里的地址，
+ * 所以引用相等 (==) 和局部变量里的引用在 GC 之后都不变。
+ * 堆里的引用字段存放的是句柄编号 (0 表示 null)，读取时从句柄表换回句柄对象 (OffHeapObject 或 OffHeapArray)。
+ */
+final class OffHeapObject extends RtObject {
+    private final OffHeap heap;
+    final int id; // 句柄编号，从 1 开始
+    final int refOffset; // 引用字段相对于对象地址的偏移量
+    int address; // 对象在堆中的地址 (对象头的位置)，句柄被回收后为 -1
+
+    OffHeapObject(RtClass rtClass, OffHeap heap, int id, int address) {
+        super(rtClass, null, null);
+        this.heap = heap;
+        this.id = id;
+        this.address = address;
+        this.refOffset = OffHeap.HEADER_SIZE + rtClass.getInstanceNumSlotCount() * 4;
+    }
+
+    @Override
+    public int getInt(int slot) {
+        return heap.arena.getInt(address + OffHeap.HEADER_SIZE + slot * 4);
+    }
+
+    @Override
+    public void setInt(int slot, int value) {
+        heap.arena.putInt(address + OffHeap.HEADER_SIZE + slot * 4, value);
+    }
+
+    @Override
+    public Object getRef(int slot) {
+        return heap.handle(heap.arena.getInt(address + refOffset + slot * 4));
+    }
+
+    @Override
+    public void setRef(int slot, Object ref) {
+        heap.arena.putInt(address + refOffset + slot * 4, OffHeap.idOf(ref));
+    }
+}
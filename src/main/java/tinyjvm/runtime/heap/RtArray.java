@@ -0,0 +1,51 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 客体数组。元素直接放在对应类型的宿主数组里，不装箱：
+ * boolean[] 和 byte[] 都用 byte[] (baload/bastore 同时用于这两种数组)，char[] 用 char[]，依此类推，引用数组用 Object[]。
+ * 数组指令按类型取出宿主数组后直接读写，越界和空引用的检查由宿主完成，不再自己检查一遍。
+ */
+public class RtArray extends RtObject {
+    private final Object data;
+    private final int length;
+
+    public RtArray(RtClass arrayClass, int length) {
+        this(arrayClass, newData(arrayClass.getName(), length), length);
+    }
+
+    protected RtArray(RtClass arrayClass, Object data, int length) {
+        super(arrayClass, null, null);
+        this.data = data;
+        this.length = length;
+    }
+
+    /**
+     * 按数组类名创建存放元素的宿主数组，长度为负时宿主抛出 NegativeArraySizeException
+     * @param arrayClassName 数组类的内部名，例如 [I、[Ljava/lang/Object;
+     */
+    static Object newData(String arrayClassName, int length) {
+        switch (arrayClassName.charAt(1)) {
+            case 'Z':
+            case 'B': return new byte[length];
+            case 'C': return new char[length];
+            case 'S': return new short[length];
+            case 'I': return new int[length];
+            case 'J': return new long[length];
+            case 'F': return new float[length];
+            case 'D': return new double[length];
+            default: return new Object[length];
+        }
+    }
+
+    public int length() { return length; }
+    public Object getData() { return data; }
+
+    public byte[] bytes() { return (byte[]) data; }
+    public char[] chars() { return (char[]) data; }
+    public short[] shorts() { return (short[]) data; }
+    public int[] ints() { return (int[]) data; }
+    public long[] longs() { return (long[]) data; }
+    public float[] floats() { return (float[]) data; }
+    public double[] doubles() { return (double[]) data; }
+    public Object[] refs() { return (Object[]) data; }
+}
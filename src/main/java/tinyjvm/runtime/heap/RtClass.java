@@ -0,0 +1,581 @@
+package tinyjvm.runtime.heap;
+
+import tinyjvm.classfile.ClassFile;
+import tinyjvm.classfile.MemberTable;
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.runtime.ClassLoader;
+import tinyjvm.verifier.Verifier;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 运行时类 (方法区中的类)。
+ * 由 ClassLoader 从 ClassFile 创建：字段和方法变成 RtField/RtMethod，常量池变成 RtConstantPool，
+ * 父类和接口在加载时就链接好，执行期间不再需要 ClassFile。
+ * 链接时同时建立虚方法表 (vtable) 和接口方法表 (itable)，虚方法调用是一次数组下标访问，
+ * 接口方法调用是一次按接口散列的查找加一次数组下标访问。
+ * 字段布局也在链接时确定：实例字段接在父类的字段之后，数值字段和引用字段分开编号，静态字段存放在类自己的数组里。
+ * 数组类没有 class 文件，由 ClassLoader 按名字直接创建，父类是 java/lang/Object，vtable 和它相同。
+ */
+public final class RtClass {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private static final RtMethod[] NO_METHODS = new RtMethod[0];
+    private static final RtField[] NO_FIELDS = new RtField[0];
+    private static final String[] ARRAY_INTERFACES = {"java/lang/Cloneable", "java/io/Serializable"};
+
+    private final int id; // 类的编号，itable 用它散列
+    private final int accessFlags;
+    private final String name; // 内部名，例如 java/lang/Object
+    private final String superClassName; // java/lang/Object 为 null
+    private final String[] interfaceNames;
+    private final RtConstantPool constantPool; // 数组类为 null
+    private final RtField[] fields;
+    private final RtMethod[] methods;
+    // 按 (名字, 描述符) 查找自己声明的成员，创建时建好，方法和字段解析都是 O(1) 的散列查找
+    private final MemberTable<RtField> fieldTable;
+    private final MemberTable<RtMethod> methodTable;
+    private final ClassLoader loader;
+    private RtClass superClass;
+    private RtClass[] interfaces;
+    private RtMethod[] vtable = NO_METHODS;
+    private Itable itable;
+    private int instanceNumSlotCount; // 实例字段占用的数值槽位数，包括父类的字段
+    private int instanceRefSlotCount; // 实例字段占用的引用槽位数，包括父类的字段
+    private int[] staticNums;
+    private Object[] staticRefs;
+    private final AtomicBoolean initStarted = new AtomicBoolean(); // 是否已经开始执行类初始化 (<clinit>)
+    private volatile Thread initThread; // 正在执行初始化的线程，初始化结束后为 null
+    private volatile boolean initialized; // 初始化是否已经成功完成
+    private final CountDownLatch initDone = new CountDownLatch(1); // 初始化结束 (成功或失败) 时打开
+    private RtClass initFollower; // 没有 <clinit> 的子类，本类初始化完成时跟着完成，只由初始化线程读写
+    private final ReentrantLock staticLock = new ReentrantLock(); // 静态 synchronized 方法的锁
+    private RtClass arrayClass; // 以本类为元素类型的数组类，第一次用到时加载
+    private final int majorVersion; // class 文件的主版本号，数组类为 0
+    private final boolean verificationRequired; // 第一次使用字节码之前是否需要校验，见 ClassLoader 的 -Xverify 模式
+    private volatile boolean verified;
+    private VerifyError verifyError; // 校验失败的结果，之后每次使用这个类都抛出同一个错误
+
+    public RtClass(ClassFile classFile, ClassLoader loader) {
+        this(classFile, loader, false);
+    }
+
+    /**
+     * @param verify 是否在第一次使用方法的字节码之前校验整个类
+     */
+    public RtClass(ClassFile classFile, ClassLoader loader, boolean verify) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.accessFlags = classFile.accessFlags;
+        this.name = classFile.getClassName();
+        this.superClassName = classFile.getSuperClassName();
+        this.interfaceNames = classFile.getInterfaceNames();
+        this.constantPool = new RtConstantPool(this, classFile.constantPool);
+        this.loader = loader;
+        this.majorVersion = classFile.majorVersion;
+        this.verificationRequired = verify;
+
+        this.fields = new RtField[classFile.fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new RtField(this, classFile.fields[i]);
+        }
+        this.methods = new RtMethod[classFile.methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            methods[i] = new RtMethod(this, classFile.methods[i]);
+        }
+        this.fieldTable = new MemberTable<>(fields, RtMember::getName, RtMember::getDescriptor);
+        this.methodTable = new MemberTable<>(methods, RtMember::getName, RtMember::getDescriptor);
+    }
+
+    /**
+     * 创建数组类
+     * @param name 数组类的内部名，例如 [I、[[Ljava/lang/String;
+     */
+    public RtClass(String name, ClassLoader loader) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.accessFlags = AccessFlags.ACC_PUBLIC | AccessFlags.ACC_FINAL;
+        this.name = name;
+        this.superClassName = "java/lang/Object";
+        this.interfaceNames = ARRAY_INTERFACES;
+        this.constantPool = null;
+        this.loader = loader;
+        this.majorVersion = 0;
+        this.verificationRequired = false;
+        this.fields = NO_FIELDS;
+        this.methods = NO_METHODS;
+        this.fieldTable = new MemberTable<>(fields, RtMember::getName, RtMember::getDescriptor);
+        this.methodTable = new MemberTable<>(methods, RtMember::getName, RtMember::getDescriptor);
+        this.initStarted.set(true); // 数组类不需要初始化
+        this.initialized = true;
+        this.initDone.countDown();
+    }
+
+    /**
+     * 链接父类和接口。由 ClassLoader 在类放进缓存之后调用，父类和接口通过同一个类加载器加载
+     */
+    public void link() {
+        if (superClassName != null) {
+            superClass = loader.loadClass(superClassName);
+        }
+        interfaces = new RtClass[interfaceNames.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = loader.loadClass(interfaceNames[i]);
+        }
+
+        layoutFields();
+        initStaticFinalVars();
+
+        if (isInterface()) {
+            // 接口方法按声明顺序编号，实现类的 itable 用同样的下标
+            for (int i = 0; i < methods.length; i++) {
+                RtMethod method = methods[i];
+                if (!method.isStatic() && !method.isPrivate() && !"<clinit>".equals(method.getName())) {
+                    method.setItableIndex(i);
+                }
+            }
+        } else {
+            vtable = buildVtable();
+            itable = Itable.build(this);
+        }
+    }
+
+    // 给字段分配槽位：实例字段的编号接在父类之后，子类对象里父类字段的位置和父类对象相同
+    private void layoutFields() {
+        int instanceNums = superClass == null ? 0 : superClass.instanceNumSlotCount;
+        int instanceRefs = superClass == null ? 0 : superClass.instanceRefSlotCount;
+        int staticNumCount = 0;
+        int staticRefCount = 0;
+        for (RtField field : fields) {
+            int slots = field.isLongOrDouble() ? 2 : 1;
+            if (field.isStatic()) {
+                if (field.isReference()) {
+                    field.setSlotId(staticRefCount++);
+                } else {
+                    field.setSlotId(staticNumCount);
+                    staticNumCount += slots;
+                }
+            } else if (field.isReference()) {
+                field.setSlotId(instanceRefs++);
+            } else {
+                field.setSlotId(instanceNums);
+                instanceNums += slots;
+            }
+        }
+        instanceNumSlotCount = instanceNums;
+        instanceRefSlotCount = instanceRefs;
+        staticNums = new int[staticNumCount];
+        staticRefs = new Object[staticRefCount];
+        // 静态引用字段是 GC 的根
+        if (staticRefCount > 0) {
+            loader.getHeap().addRoots(staticRefs);
+        }
+    }
+
+    // 类准备阶段：带 ConstantValue 属性的静态字段 (static final 常量) 直接赋值。字符串常量要等字符串实现之后再支持
+    private void initStaticFinalVars() {
+        for (RtField field : fields) {
+            int index = field.getConstValueIndex();
+            if (!field.isStatic() || index == 0) {
+                continue;
+            }
+            int slot = field.getSlotId();
+            switch (field.getDescriptor()) {
+                case "Z":
+                case "B":
+                case "C":
+                case "S":
+                case "I":
+                    staticNums[slot] = constantPool.getInt(index);
+                    break;
+                case "F":
+                    staticNums[slot] = Float.floatToRawIntBits(constantPool.getFloat(index));
+                    break;
+                case "J":
+                    setLong(staticNums, slot, constantPool.getLong(index));
+                    break;
+                case "D":
+                    setLong(staticNums, slot, Double.doubleToRawLongBits(constantPool.getDouble(index)));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void setLong(int[] nums, int i, long value) {
+        nums[i] = (int) value;
+        nums[i + 1] = (int) (value >>> 32);
+    }
+
+    /**
+     * 建立 vtable：先复制父类的 vtable，覆盖父类方法的新方法占用父类方法的下标，其余的新虚方法追加在后面
+     */
+    private RtMethod[] buildVtable() {
+        RtMethod[] table = superClass == null ? NO_METHODS : superClass.vtable;
+        int size = table.length;
+        table = Arrays.copyOf(table, size + methods.length);
+        for (RtMethod method : methods) {
+            if (method.isStatic() || method.isPrivate() || "<init>".equals(method.getName())) {
+                continue;
+            }
+            int index = -1;
+            for (int i = 0; i < size; i++) {
+                if (overrides(method, table[i])) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                index = size++;
+            }
+            method.setVtableIndex(index);
+            table[index] = method;
+        }
+        return size == table.length ? table : Arrays.copyOf(table, size);
+    }
+
+    // JVMS 5.4.5：同名同描述符，并且父类方法是 public/protected，或者是同一个包中的包私有方法
+    private boolean overrides(RtMethod method, RtMethod superMethod) {
+        if (!method.getName().equals(superMethod.getName()) || !method.getDescriptor().equals(superMethod.getDescriptor())) {
+            return false;
+        }
+        return superMethod.isPublic() || superMethod.isProtected()
+                || getPackageName().equals(superMethod.getRtClass().getPackageName());
+    }
+
+    public int getId() { return id; }
+    public int getAccessFlags() { return accessFlags; }
+    public String getName() { return name; }
+    public RtMethod[] getVtable() { return vtable; }
+    public int getInstanceNumSlotCount() { return instanceNumSlotCount; }
+    public int getInstanceRefSlotCount() { return instanceRefSlotCount; }
+    public int[] getStaticNums() { return staticNums; }
+    public Object[] getStaticRefs() { return staticRefs; }
+
+    /**
+     * 当前线程能否直接使用这个类：初始化已经完成，或者正由当前线程初始化 (递归请求，JVMS 5.5)
+     */
+    public boolean isInitialized() {
+        return initialized || initThread == Thread.currentThread();
+    }
+
+    /**
+     * 标记为已开始初始化。多个线程同时触发初始化时只有一个返回 true，由它执行 &lt;clinit&gt;，
+     * 之后必须调用 finishInit 或 failInit；其他线程应调用 awaitInit
+     */
+    public boolean startInit() {
+        if (!initStarted.compareAndSet(false, true)) {
+            return false;
+        }
+        initThread = Thread.currentThread();
+        return true;
+    }
+
+    /**
+     * 等待其他线程完成初始化。当前线程自己正在初始化这个类时直接返回
+     * @throws NoClassDefFoundError 初始化失败
+     */
+    public void awaitInit() {
+        if (isInitialized()) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                initDone.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!initialized) {
+            throw new NoClassDefFoundError("Could not initialize class " + name.replace('/', '.'));
+        }
+    }
+
+    /**
+     * 初始化成功完成，唤醒等待的线程，然后完成等着本类的子类
+     */
+    public void finishInit() {
+        initialized = true;
+        initThread = null;
+        initDone.countDown();
+        RtClass follower = initFollower;
+        initFollower = null;
+        if (follower != null) {
+            follower.finishInit();
+        }
+    }
+
+    /**
+     * 初始化失败，等待的线程和之后的使用都得到 NoClassDefFoundError，等着本类的子类也一起失败
+     */
+    public void failInit() {
+        initThread = null;
+        initDone.countDown();
+        RtClass follower = initFollower;
+        initFollower = null;
+        if (follower != null) {
+            follower.failInit();
+        }
+    }
+
+    public boolean isInitDone() { return initDone.getCount() == 0; }
+
+    /**
+     * 没有 &lt;clinit&gt; 的子类 follower 要等本类初始化完成才算完成
+     */
+    public void setInitFollower(RtClass follower) { this.initFollower = follower; }
+
+    public ReentrantLock getStaticLock() { return staticLock; }
+
+    // 类初始化方法，没有时返回 null
+    public RtMethod getClinit() {
+        return getMethod("<clinit>", "()V");
+    }
+
+    // 包名，例如 java/lang；默认包为空字符串
+    public String getPackageName() {
+        int i = name.lastIndexOf('/');
+        return i < 0 ? "" : name.substring(0, i);
+    }
+    public RtConstantPool getConstantPool() { return constantPool; }
+    public RtField[] getFields() { return fields; }
+    public RtMethod[] getMethods() { return methods; }
+    public ClassLoader getLoader() { return loader; }
+    public RtClass getSuperClass() { return superClass; }
+    public RtClass[] getInterfaces() { return interfaces; }
+
+    public boolean isPublic() { return (accessFlags & AccessFlags.ACC_PUBLIC) != 0; }
+    public boolean isFinal() { return (accessFlags & AccessFlags.ACC_FINAL) != 0; }
+    public boolean isSuper() { return (accessFlags & AccessFlags.ACC_SUPER) != 0; }
+    public boolean isInterface() { return (accessFlags & AccessFlags.ACC_INTERFACE) != 0; }
+    public boolean isAbstract() { return (accessFlags & AccessFlags.ACC_ABSTRACT) != 0; }
+    public boolean isArray() { return name.charAt(0) == '['; }
+
+    /**
+     * 以本类为元素类型的数组类，anewarray 使用
+     */
+    public RtClass arrayClass() {
+        RtClass c = arrayClass;
+        if (c == null) {
+            c = loader.loadClass(isArray() ? "[" + name : "[L" + name + ";");
+            arrayClass = c;
+        }
+        return c;
+    }
+
+    /**
+     * 执行 newarray/anewarray：创建以本类为类型的数组，本类必须是数组类
+     */
+    public RtArray newArray(int length) {
+        return loader.getHeap().newArray(this, length);
+    }
+
+    /**
+     * 执行 multianewarray：按 counts 逐层创建多维数组，counts 可以比本类的维数少，剩下的维度为 null。
+     * 任何一维的长度为负都抛出 NegativeArraySizeException，即使它所在的那层不会被创建
+     */
+    public RtArray newMultiArray(int[] counts) {
+        for (int count : counts) {
+            if (count < 0) {
+                throw new NegativeArraySizeException(String.valueOf(count));
+            }
+        }
+        RtArray array = newArray(counts[0]);
+        if (counts.length > 1) {
+            // 创建内层数组时可能触发 GC，外层数组在完成之前只在宿主局部变量里，要临时注册为根
+            Object[] temp = {array};
+            loader.getHeap().addRoots(temp);
+            try {
+                fillMultiArray(array, counts, 1);
+            } finally {
+                loader.getHeap().removeRoots(temp);
+            }
+        }
+        return array;
+    }
+
+    private void fillMultiArray(RtArray array, int[] counts, int dimension) {
+        RtClass componentClass = loader.loadClass(name.substring(1));
+        Object[] elements = array.refs();
+        for (int i = 0; i < elements.length; i++) {
+            RtArray element = componentClass.newArray(counts[dimension]);
+            elements[i] = element;
+            if (dimension + 1 < counts.length) {
+                componentClass.fillMultiArray(element, counts, dimension + 1);
+            }
+        }
+    }
+
+    /**
+     * 执行 new 指令：在类加载器的堆上创建该类的实例。接口和抽象类不能实例化
+     */
+    public RtObject newObject() {
+        if (isInterface() || isAbstract()) {
+            throw new InstantiationError(name);
+        }
+        return loader.getHeap().newObject(this);
+    }
+
+    /**
+     * 为本类的对象选择实际调用的方法 (JVMS 5.4.6)，本类不能是接口
+     * @param resolved invokevirtual/invokeinterface 解析出的方法
+     */
+    public RtMethod selectMethod(RtMethod resolved) {
+        RtMethod method;
+        if (resolved.getVtableIndex() >= 0) {
+            method = vtable[resolved.getVtableIndex()];
+        } else if (resolved.getItableIndex() >= 0) {
+            RtMethod[] impls = itable.lookup(resolved.getRtClass());
+            if (impls == null) {
+                throw new IncompatibleClassChangeError(name + " does not implement " + resolved.getRtClass().getName());
+            }
+            method = impls[resolved.getItableIndex()];
+        } else {
+            method = resolved; // 私有方法不参与覆盖
+        }
+        if (method.isAbstract()) {
+            throw new AbstractMethodError(name + "." + method.getName() + method.getDescriptor());
+        }
+        return method;
+    }
+
+    /**
+     * 查找该类自己声明的方法 (不包括父类)
+     * @return 找不到时返回 null
+     */
+    public RtMethod getMethod(String name, String descriptor) {
+        return methodTable.get(name, descriptor);
+    }
+
+    /**
+     * 按 JVMS 5.4.3.3 的顺序查找方法：先沿父类链向上找，再到所有父接口中找
+     * @return 找不到时返回 null
+     */
+    public RtMethod lookupMethod(String name, String descriptor) {
+        for (RtClass c = this; c != null; c = c.superClass) {
+            RtMethod method = c.getMethod(name, descriptor);
+            if (method != null) {
+                return method;
+            }
+        }
+        for (RtClass c = this; c != null; c = c.superClass) {
+            RtMethod method = lookupMethodInInterfaces(c.interfaces, name, descriptor);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找接口方法 (JVMS 5.4.3.4)：先在接口自己和它的父接口中找，再到 java/lang/Object 中找
+     * @return 找不到时返回 null
+     */
+    public RtMethod lookupInterfaceMethod(String name, String descriptor) {
+        RtMethod method = getMethod(name, descriptor);
+        if (method == null) {
+            method = lookupMethodInInterfaces(interfaces, name, descriptor);
+        }
+        if (method == null && superClass != null) { // 接口的父类总是 java/lang/Object
+            method = superClass.getMethod(name, descriptor);
+        }
+        return method;
+    }
+
+    private static RtMethod lookupMethodInInterfaces(RtClass[] interfaces, String name, String descriptor) {
+        for (RtClass iface : interfaces) {
+            RtMethod method = iface.getMethod(name, descriptor);
+            if (method == null) {
+                method = lookupMethodInInterfaces(iface.interfaces, name, descriptor);
+            }
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找字段 (JVMS 5.4.3.2)：自己声明的、父接口的，最后是父类的
+     * @return 找不到时返回 null
+     */
+    public RtField lookupField(String name, String descriptor) {
+        RtField declared = fieldTable.get(name, descriptor);
+        if (declared != null) {
+            return declared;
+        }
+        for (RtClass iface : interfaces) {
+            RtField field = iface.lookupField(name, descriptor);
+            if (field != null) {
+                return field;
+            }
+        }
+        return superClass == null ? null : superClass.lookupField(name, descriptor);
+    }
+
+    /**
+     * 查找主方法 public static void main(String[])
+     * @return 找不到时返回 null
+     */
+    public RtMethod getMainMethod() {
+        RtMethod method = getMethod("main", "([Ljava/lang/String;)V");
+        return method != null && method.isStatic() ? method : null;
+    }
+
+    // RtMethod 第一次取字节码时调用：需要校验的类在这里校验一次，之后只是一次 volatile 读
+    void ensureVerified() {
+        if (verificationRequired && !verified) {
+            verify();
+        }
+    }
+
+    /**
+     * 按 StackMapTable 校验所有方法的字节码，整个类只校验一次，失败时抛出 VerifyError，之后再调用抛出同一个错误。
+     * 版本 50 以前的 class 文件没有 StackMapTable，需要类型推导才能校验，这里直接放行。
+     * 校验只加载类、不执行客体代码，所以不会重入
+     */
+    public synchronized void verify() {
+        if (verifyError != null) {
+            throw verifyError;
+        }
+        if (verified) {
+            return;
+        }
+        if (majorVersion >= 50) {
+            try {
+                for (RtMethod method : methods) {
+                    CodeAttribute code = method.readCodeAttribute();
+                    if (code != null) {
+                        Verifier.verify(method, code);
+                    }
+                }
+            } catch (VerifyError e) {
+                verifyError = e;
+                throw e;
+            }
+        }
+        verified = true;
+    }
+
+    // other 是否是本类的 (直接或间接) 父类
+    public boolean isSubClassOf(RtClass other) {
+        for (RtClass c = superClass; c != null; c = c.superClass) {
+            if (c == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,32 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 类的符号引用，解析结果缓存在引用里。
+ * 方法和字段引用也从这里继承所属类的解析。
+ */
+public class RtClassRef {
+    protected final RtConstantPool constantPool; // 引用所在的常量池
+    protected final String className;
+    private RtClass resolvedClass;
+
+    RtClassRef(RtConstantPool constantPool, String className) {
+        this.constantPool = constantPool;
+        this.className = className;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 返回引用的类，第一次调用时通过引用方的类加载器加载
+     */
+    public RtClass resolvedClass() {
+        RtClass c = resolvedClass;
+        if (c == null) {
+            c = constantPool.getRtClass().getLoader().loadClass(className);
+            resolvedClass = c;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,93 @@
+package tinyjvm.runtime.heap;
+
+import tinyjvm.classfile.constantpool.ConstantPool;
+import tinyjvm.classfile.constantpool.ConstantTag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 运行时常量池。
+ * 类、方法、字段的符号引用第一次使用时创建对应的 RtClassRef/RtMethodRef/RtFieldRef，直接缓存在同一个下标上；
+ * 引用对象再各自缓存解析结果，所以同一个符号引用只做一次字符串查找和解析。
+ * 数值常量直接从 class 文件的常量池读取。
+ */
+public class RtConstantPool {
+    private final RtClass rtClass;
+    private final ConstantPool constantPool;
+    private final Object[] refs; // 已经创建的符号引用，下标和常量池一致
+
+    RtConstantPool(RtClass rtClass, ConstantPool constantPool) {
+        this.rtClass = rtClass;
+        this.constantPool = constantPool;
+        this.refs = new Object[constantPool.size()];
+    }
+
+    public RtClass getRtClass() {
+        return rtClass;
+    }
+
+    public RtClassRef getClassRef(int index) {
+        Object ref = refs[index];
+        if (ref == null) {
+            checkTag(index, ConstantTag.CLASS);
+            ref = new RtClassRef(this, constantPool.getClassName(index));
+            refs[index] = ref;
+        }
+        return (RtClassRef) ref;
+    }
+
+    // Methodref 和 InterfaceMethodref 都用 RtMethodRef 表示
+    public RtMethodRef getMethodRef(int index) {
+        Object ref = refs[index];
+        if (ref == null) {
+            int tag = constantPool.getTag(index);
+            if (tag != ConstantTag.METHOD_REF && tag != ConstantTag.INTERFACE_METHOD_REF) {
+                throw new IncompatibleClassChangeError("Constant pool entry " + index + " is not a method reference");
+            }
+            ref = new RtMethodRef(this, constantPool.getMemberClassName(index), constantPool.getMemberName(index),
+                    constantPool.getMemberDescriptor(index), tag == ConstantTag.INTERFACE_METHOD_REF);
+            refs[index] = ref;
+        }
+        return (RtMethodRef) ref;
+    }
+
+    public RtFieldRef getFieldRef(int index) {
+        Object ref = refs[index];
+        if (ref == null) {
+            checkTag(index, ConstantTag.FIELD_REF);
+            ref = new RtFieldRef(this, constantPool.getMemberClassName(index), constantPool.getMemberName(index),
+                    constantPool.getMemberDescriptor(index));
+            refs[index] = ref;
+        }
+        return (RtFieldRef) ref;
+    }
+
+    /**
+     * 常量池里所有类引用的类名 (包括本类和父类)，预加载时沿着它们找到可能用到的类
+     */
+    public List<String> getClassNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i < constantPool.size(); i++) {
+            int tag = constantPool.getTag(i);
+            if (tag == ConstantTag.CLASS) {
+                names.add(constantPool.getClassName(i));
+            } else if (tag == ConstantTag.LONG || tag == ConstantTag.DOUBLE) {
+                i++; // long/double 占两个下标
+            }
+        }
+        return names;
+    }
+
+    public int getInt(int index) { return constantPool.getInt(index); }
+    public float getFloat(int index) { return constantPool.getFloat(index); }
+    public long getLong(int index) { return constantPool.getLong(index); }
+    public double getDouble(int index) { return constantPool.getDouble(index); }
+
+    private void checkTag(int index, int expected) {
+        if (constantPool.getTag(index) != expected) {
+            throw new IncompatibleClassChangeError("Constant pool entry " + index + " has tag "
+                    + constantPool.getTag(index) + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tinyjvm.runtime.heap;
+
+import tinyjvm.classfile.MemberInfo;
+import tinyjvm.classfile.constantpool.attributes.ConstantValueAttribute;
+
+/**
+ * 运行时字段。
+ * 字段值和局部变量一样分成数值槽位和引用槽位两类存放：引用字段在对象 (或类的静态字段) 的 Object[] 中，
+ * 其他字段在 int[] 中，long/double 占两个连续槽位，低 32 位在前。slotId 是字段在对应数组中的下标，
+ * 由所属类链接时计算，之后 getfield/putfield 直接按这个固定下标访问。
+ */
+public class RtField extends RtMember {
+    private final int constValueIndex; // ConstantValue 属性指向的常量池索引，没有时为 0
+    private final boolean longOrDouble;
+    private final boolean reference;
+    private int slotId;
+
+    RtField(RtClass rtClass, MemberInfo info) {
+        super(rtClass, info);
+        // ConstantValue 只对静态字段有意义，实例字段的属性表不用解码
+        ConstantValueAttribute constantValue = isStatic() ? info.getConstantValueAttribute() : null;
+        this.constValueIndex = constantValue == null ? 0 : constantValue.getConstantValueIndex();
+        char c = descriptor.charAt(0);
+        this.longOrDouble = c == 'J' || c == 'D';
+        this.reference = c == 'L' || c == '[';
+    }
+
+    // long 和 double 占两个槽位
+    public boolean isLongOrDouble() {
+        return longOrDouble;
+    }
+
+    // 对象和数组引用存放在引用槽位里
+    public boolean isReference() {
+        return reference;
+    }
+
+    public int getSlotId() { return slotId; }
+    void setSlotId(int slotId) { this.slotId = slotId; }
+    int getConstValueIndex() { return constValueIndex; }
+}
@@ -0,0 +1,45 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 字段的符号引用
+ */
+public class RtFieldRef extends RtMemberRef {
+    private RtField field;
+
+    RtFieldRef(RtConstantPool constantPool, String className, String name, String descriptor) {
+        super(constantPool, className, name, descriptor);
+    }
+
+    /**
+     * 返回引用的字段，第一次调用时解析
+     */
+    public RtField resolvedField() {
+        RtField f = field;
+        if (f == null) {
+            f = resolvedClass().lookupField(name, descriptor);
+            if (f == null) {
+                throw new NoSuchFieldError(toString());
+            }
+            field = f;
+        }
+        return f;
+    }
+
+    // getfield/putfield 使用：字段不能是静态的
+    public RtField resolvedInstanceField() {
+        RtField f = resolvedField();
+        if (f.isStatic()) {
+            throw new IncompatibleClassChangeError("Expected non-static field " + this);
+        }
+        return f;
+    }
+
+    // getstatic/putstatic 使用：字段必须是静态的
+    public RtField resolvedStaticField() {
+        RtField f = resolvedField();
+        if (!f.isStatic()) {
+            throw new IncompatibleClassChangeError("Expected static field " + this);
+        }
+        return f;
+    }
+}
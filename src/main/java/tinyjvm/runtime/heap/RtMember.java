@@ -0,0 +1,37 @@
+package tinyjvm.runtime.heap;
+
+import tinyjvm.classfile.MemberInfo;
+
+/**
+ * 运行时的类成员 (字段或方法) 的公共部分。
+ * 名字和描述符在链接时从常量池取出一次 (都是 SymbolTable 中的驻留字符串)，之后不再访问常量池。
+ */
+public abstract class RtMember {
+    protected final RtClass rtClass;
+    protected final int accessFlags;
+    protected final String name;
+    protected final String descriptor;
+
+    protected RtMember(RtClass rtClass, MemberInfo info) {
+        this.rtClass = rtClass;
+        this.accessFlags = info.getAccessFlags();
+        this.name = info.getName();
+        this.descriptor = info.getDescriptor();
+    }
+
+    public RtClass getRtClass() { return rtClass; }
+    public int getAccessFlags() { return accessFlags; }
+    public String getName() { return name; }
+    public String getDescriptor() { return descriptor; }
+
+    public boolean isPublic() { return (accessFlags & AccessFlags.ACC_PUBLIC) != 0; }
+    public boolean isPrivate() { return (accessFlags & AccessFlags.ACC_PRIVATE) != 0; }
+    public boolean isProtected() { return (accessFlags & AccessFlags.ACC_PROTECTED) != 0; }
+    public boolean isStatic() { return (accessFlags & AccessFlags.ACC_STATIC) != 0; }
+    public boolean isFinal() { return (accessFlags & AccessFlags.ACC_FINAL) != 0; }
+
+    @Override
+    public String toString() {
+        return rtClass.getName() + "." + name + descriptor;
+    }
+}
@@ -0,0 +1,23 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 字段或方法的符号引用：所属类加上名字和描述符
+ */
+public abstract class RtMemberRef extends RtClassRef {
+    protected final String name;
+    protected final String descriptor;
+
+    RtMemberRef(RtConstantPool constantPool, String className, String name, String descriptor) {
+        super(constantPool, className);
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    public String getName() { return name; }
+    public String getDescriptor() { return descriptor; }
+
+    @Override
+    public String toString() {
+        return className + "." + name + descriptor;
+    }
+}
@@ -0,0 +1,129 @@
+package tinyjvm.runtime.heap;
+
+import tinyjvm.classfile.MemberInfo;
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.instructions.DecodedCode;
+import tinyjvm.instructions.FastCode;
+import tinyjvm.jit.CompiledMethod;
+import tinyjvm.natives.NativeMethod;
+import tinyjvm.natives.NativeRegistry;
+
+/**
+ * 运行时方法。
+ * 除了名字、描述符等链接时就确定的信息，还保存执行引擎在第一次执行时生成的各种指令流，
+ * 以及分层编译用的计数器和编译结果。
+ */
+public class RtMethod extends RtMember {
+    private final MemberInfo info;
+    private CodeAttribute codeAttribute; // 第一次调用时才从 class 文件解码；抽象方法和 native 方法为 null
+    private final NativeMethod nativeMethod; // native 方法或内建实现的宿主实现，没有注册时为 null
+    private final int argSlotCount; // 调用时参数占用的槽位数，实例方法包括 this
+    private final int returnSlotCount; // 返回值占用的槽位数
+    private final boolean clinit; // 是否是类初始化方法，栈帧弹出时据此完成类的初始化
+    private int vtableIndex = -1; // 在所属类 vtable 中的下标，静态方法、私有方法、构造方法和接口方法为 -1
+    private int itableIndex = -1; // 接口方法在接口 itable 方法数组中的下标，其他方法为 -1
+
+    private DecodedCode decodedCode; // 预解码后的指令流，第一次执行该方法时生成
+    private DecodedCode fusedCode; // 融合了超级指令的指令流，不跟踪执行时使用
+    private FastCode fastCode; // 快速执行引擎使用的 int[] 指令流，同样在第一次执行时生成
+
+    // 分层编译的计数器，见 TierUpCompiler
+    private long invocationCount;
+    private long backedgeCount; // 向后跳转的次数，长时间运行的循环靠它触发编译
+    private CompiledMethod compiledMethod; // 编译成宿主类之后的版本
+    private boolean notCompilable; // 编译失败或含有不能直接翻译的指令，之后不再尝试
+
+    RtMethod(RtClass rtClass, MemberInfo info) {
+        super(rtClass, info);
+        this.info = info;
+        // 有字节码的方法也可能注册了内建实现 (例如 Arrays.fill)，执行引擎优先使用它
+        this.nativeMethod = NativeRegistry.find(rtClass.getName(), name, descriptor);
+
+        // 从描述符计算参数和返回值的槽位数：long/double 占两个，其余占一个
+        int slots = isStatic() ? 0 : 1;
+        int i = 1; // 跳过 '('
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+            } else {
+                slots += 1;
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) == 'L') {
+                    i = descriptor.indexOf(';', i);
+                }
+            }
+            i++;
+        }
+        char returnType = descriptor.charAt(i + 1);
+        this.argSlotCount = slots;
+        this.clinit = "<clinit>".equals(name);
+        this.returnSlotCount = returnType == 'V' ? 0 : (returnType == 'J' || returnType == 'D') ? 2 : 1;
+    }
+
+    public boolean isClinit() { return clinit; }
+    public boolean isSynchronized() { return (accessFlags & AccessFlags.ACC_SYNCHRONIZED) != 0; }
+    public boolean isNative() { return (accessFlags & AccessFlags.ACC_NATIVE) != 0; }
+    public boolean isAbstract() { return (accessFlags & AccessFlags.ACC_ABSTRACT) != 0; }
+
+    // 执行引擎、编译器都从这里取字节码，第一次取时先校验整个类 (见 RtClass.verify)，之后不再有额外开销
+    public CodeAttribute getCodeAttribute() {
+        CodeAttribute code = codeAttribute;
+        if (code == null && !isAbstract() && !isNative()) {
+            rtClass.ensureVerified();
+            code = info.getCodeAttribute();
+            codeAttribute = code;
+        }
+        return code;
+    }
+
+    // 校验器使用：直接解码，不触发校验
+    CodeAttribute readCodeAttribute() {
+        return isAbstract() || isNative() ? null : info.getCodeAttribute();
+    }
+
+    public NativeMethod getNativeMethod() { return nativeMethod; }
+    public int getMaxStack() { return getCodeAttribute().getMaxStack(); }
+    public int getMaxLocals() { return getCodeAttribute().getMaxLocals(); }
+    public int getArgSlotCount() { return argSlotCount; }
+    public int getReturnSlotCount() { return returnSlotCount; }
+    public int getVtableIndex() { return vtableIndex; }
+    void setVtableIndex(int vtableIndex) { this.vtableIndex = vtableIndex; }
+    public int getItableIndex() { return itableIndex; }
+    void setItableIndex(int itableIndex) { this.itableIndex = itableIndex; }
+
+    // 解释器通过这里取指令，字节码只在第一次调用时解码，之后一直复用
+    public DecodedCode getDecodedCode() {
+        if (decodedCode == null) {
+            decodedCode = DecodedCode.decode(getCodeAttribute().getCode());
+        }
+        return decodedCode;
+    }
+
+    public DecodedCode getFusedCode() {
+        if (fusedCode == null) {
+            fusedCode = getDecodedCode().fuse();
+        }
+        return fusedCode;
+    }
+
+    public FastCode getFastCode() {
+        if (fastCode == null) {
+            fastCode = FastCode.compile(getCodeAttribute().getCode());
+        }
+        return fastCode;
+    }
+
+    public long getInvocationCount() { return invocationCount; }
+    public void countInvocation() { invocationCount++; }
+    public long getBackedgeCount() { return backedgeCount; }
+    public void countBackedge() { backedgeCount++; }
+    public void addBackedges(long count) { backedgeCount += count; }
+
+    public CompiledMethod getCompiledMethod() { return compiledMethod; }
+    public void setCompiledMethod(CompiledMethod compiledMethod) { this.compiledMethod = compiledMethod; }
+    public boolean isNotCompilable() { return notCompilable; }
+    public void markNotCompilable() { notCompilable = true; }
+}
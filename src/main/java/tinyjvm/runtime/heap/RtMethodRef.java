@@ -0,0 +1,87 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 方法的符号引用 (Methodref 或 InterfaceMethodref)。
+ * 解析结果和 invokespecial 选择的方法都缓存在引用里；
+ * invokevirtual/invokeinterface 的选择结果和接收者的类有关，通过接收者的 vtable/itable 选择。
+ */
+public class RtMethodRef extends RtMemberRef {
+    private final boolean interfaceRef; // 是否是 InterfaceMethodref
+    private RtMethod method;
+    private RtMethod specialMethod;
+
+    RtMethodRef(RtConstantPool constantPool, String className, String name, String descriptor, boolean interfaceRef) {
+        super(constantPool, className, name, descriptor);
+        this.interfaceRef = interfaceRef;
+    }
+
+    /**
+     * 返回引用的方法，第一次调用时解析 (JVMS 5.4.3.3、5.4.3.4)
+     */
+    public RtMethod resolvedMethod() {
+        RtMethod m = method;
+        if (m == null) {
+            RtClass c = resolvedClass();
+            if (c.isInterface() != interfaceRef) {
+                throw new IncompatibleClassChangeError((interfaceRef ? "Expected interface " : "Found interface ") + className);
+            }
+            m = interfaceRef ? c.lookupInterfaceMethod(name, descriptor) : c.lookupMethod(name, descriptor);
+            if (m == null) {
+                throw new NoSuchMethodError(toString());
+            }
+            method = m;
+        }
+        return m;
+    }
+
+    /**
+     * 解析 invokestatic 的目标方法
+     */
+    public RtMethod resolvedStaticMethod() {
+        RtMethod m = resolvedMethod();
+        if (!m.isStatic()) {
+            throw new IncompatibleClassChangeError("Expected static method " + m);
+        }
+        return m;
+    }
+
+    /**
+     * 选择 invokespecial 真正调用的方法 (JVMS invokespecial)：
+     * 当前类设置了 ACC_SUPER、引用的类是当前类的父类、并且不是构造方法时，从当前类的直接父类开始重新查找，
+     * 这样 super.m() 调用的是离当前类最近的那个覆盖版本。结果只和当前类有关，第一次调用后缓存。
+     */
+    public RtMethod specialMethod() {
+        RtMethod m = specialMethod;
+        if (m == null) {
+            m = resolvedMethod();
+            if (m.isStatic()) {
+                throw new IncompatibleClassChangeError("Expected instance method " + m);
+            }
+            RtClass current = constantPool.getRtClass();
+            RtClass c = resolvedClass();
+            if (current.isSuper() && !c.isInterface() && current.isSubClassOf(c) && !"<init>".equals(name)) {
+                m = current.getSuperClass().lookupMethod(name, descriptor);
+                if (m == null) {
+                    throw new AbstractMethodError(toString());
+                }
+            }
+            if (m.isAbstract()) {
+                throw new AbstractMethodError(m.toString());
+            }
+            specialMethod = m;
+        }
+        return m;
+    }
+
+    /**
+     * 选择 invokevirtual/invokeinterface 对接收者真正调用的方法：类中声明的方法查 vtable，接口方法查 itable，
+     * 私有方法不参与覆盖，直接调用解析出的方法
+     */
+    public RtMethod selectVirtualMethod(RtClass receiverClass) {
+        RtMethod m = resolvedMethod();
+        if (m.isStatic()) {
+            throw new IncompatibleClassChangeError("Expected instance method " + m);
+        }
+        return receiverClass.selectMethod(m);
+    }
+}
@@ -0,0 +1,59 @@
+package tinyjvm.runtime.heap;
+
+/**
+ * 客体对象。局部变量表和操作数栈里的引用就是 RtObject (或 null)。
+ * 实例字段按类的字段布局存放：数值字段占 int 槽位 (long/double 占两个，低 32 位在前)，引用字段占引用槽位，
+ * 下标就是 RtField 的 slotId。
+ * 默认 (HostHeap) 字段放在对象自己的 int[] 和 Object[] 里，由宿主 GC 管理；没有某类字段的对象共享同一个空数组。
+ * -Xheap:offheap 时使用子类 OffHeapObject，字段放在 OffHeap 的堆外内存里。
+ * lockWord 和 monitor 是对象的监视器状态，由 ObjectMonitor 维护。
+ */
+public class RtObject {
+    private static final int[] NO_NUMS = new int[0];
+    private static final Object[] NO_REFS = new Object[0];
+
+    private final RtClass rtClass;
+    private final int[] nums;
+    private final Object[] refs;
+    volatile long lockWord; // 轻量锁，见 ObjectMonitor
+    ObjectMonitor monitor; // 锁膨胀之后的监视器
+
+    public RtObject(RtClass rtClass) {
+        this(rtClass, rtClass.getInstanceNumSlotCount() == 0 ? NO_NUMS : new int[rtClass.getInstanceNumSlotCount()],
+                rtClass.getInstanceRefSlotCount() == 0 ? NO_REFS : new Object[rtClass.getInstanceRefSlotCount()]);
+    }
+
+    // 子类自己存放字段时传入 null，并覆盖所有字段访问方法
+    protected RtObject(RtClass rtClass, int[] nums, Object[] refs) {
+        this.rtClass = rtClass;
+        this.nums = nums;
+        this.refs = refs;
+    }
+
+    public RtClass getRtClass() {
+        return rtClass;
+    }
+
+    // 数值字段，slot 是 RtField.getSlotId()
+    public int getInt(int slot) {
+        return nums[slot];
+    }
+
+    public void setInt(int slot, int value) {
+        nums[slot] = value;
+    }
+
+    // 引用字段，slot 是 RtField.getSlotId()
+    public Object getRef(int slot) {
+        return refs[slot];
+    }
+
+    public void setRef(int slot, Object ref) {
+        refs[slot] = ref;
+    }
+
+    @Override
+    public String toString() {
+        return rtClass.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.trace;
+
+import tinyjvm.instructions.Instruction;
+import tinyjvm.runtime.Frame;
+
+/**
+ * 完整跟踪：每条指令都打印操作数栈和局部变量表，只适合调试小程序
+ */
+public class FullTracer implements Tracer {
+    @Override
+    public void beforeExecute(Frame frame, int pc, int opcode, Instruction instruction) {
+        System.out.printf("PC: %2d | Opcode: 0x%02x | Inst: %-15s | OperandStack: %-30s | LocalVars: %s\n",
+                pc, opcode, instruction.getClass().getSimpleName(),
+                frame.getOperandStack(), frame.getLocalVars());
+    }
+}
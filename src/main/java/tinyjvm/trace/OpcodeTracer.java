@@ -0,0 +1,15 @@
+package tinyjvm.trace;
+
+import tinyjvm.instructions.Instruction;
+import tinyjvm.runtime.Frame;
+
+/**
+ * 只打印 PC 和操作码，不格式化操作数栈和局部变量表
+ */
+public class OpcodeTracer implements Tracer {
+    @Override
+    public void beforeExecute(Frame frame, int pc, int opcode, Instruction instruction) {
+        System.out.printf("PC: %2d | Opcode: 0x%02x | Inst: %s\n",
+                pc, opcode, instruction.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,72 @@
+package tinyjvm.trace;
+
+import tinyjvm.instructions.Instruction;
+import tinyjvm.runtime.Frame;
+import tinyjvm.runtime.heap.RtMethod;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制环形缓冲区 Tracer。
+ * 执行期间每条指令只往 long[] 里写一个打包好的记录 (方法编号 | PC | 操作码)，不做任何格式化；
+ * 缓冲区写满后覆盖最旧的记录。程序结束时 finish() 把最近的记录解码打印出来。
+ */
+public class RingBufferTracer implements Tracer {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final long[] records;
+    private final int mask;
+    private long count; // 一共记录过多少条指令
+
+    // 方法编号表，记录里只存编号，dump 时再还原成方法名
+    private final Map<RtMethod, Integer> methodIds = new IdentityHashMap<>();
+    private final List<RtMethod> methods = new ArrayList<>();
+    private RtMethod lastMethod;
+    private int lastMethodId;
+
+    public RingBufferTracer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.records = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void beforeExecute(Frame frame, int pc, int opcode, Instruction instruction) {
+        RtMethod method = frame.getMethod();
+        if (method != lastMethod) {
+            lastMethod = method;
+            lastMethodId = methodIds.computeIfAbsent(method, m -> {
+                methods.add(m);
+                return methods.size() - 1;
+            });
+        }
+        // 高 32 位: 方法编号; 中间 24 位: PC; 低 8 位: 操作码
+        records[(int) (count++ & mask)] = ((long) lastMethodId << 32) | ((long) pc << 8) | opcode;
+    }
+
+    @Override
+    public void finish() {
+        dump();
+    }
+
+    /**
+     * 按执行顺序打印缓冲区中保留的记录
+     */
+    public void dump() {
+        long start = Math.max(0, count - records.length);
+        System.out.printf("Trace ring buffer: %d instructions executed, showing last %d\n", count, count - start);
+        for (long i = start; i < count; i++) {
+            long record = records[(int) (i & mask)];
+            RtMethod method = methods.get((int) (record >>> 32));
+            int pc = (int) (record >>> 8) & 0xFFFFFF;
+            int opcode = (int) record & 0xFF;
+            System.out.printf("%s%s PC: %2d | Opcode: 0x%02x\n",
+                    method.getName(), method.getDescriptor(), pc, opcode);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package tinyjvm.trace;
+
+import tinyjvm.instructions.Instruction;
+import tinyjvm.runtime.Frame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计动态执行的指令序列：同一个栈帧里相继执行的两条 (pair) 和三条 (triple) 指令各出现了多少次。
+ * 程序结束时打印最热的序列，用来决定 Superinstructions 应该融合哪些序列。
+ * 执行期间只做计数：pair 用 256*256 的 long[]，triple 按打包后的操作码查 HashMap。
+ */
+public class SequenceTracer implements Tracer {
+    public static final int DEFAULT_TOP = 20;
+
+    private final int top;
+    private final long[] pairs = new long[256 * 256];
+    private final Map<Integer, long[]> triples = new HashMap<>();
+    private final String[] names = new String[256]; // 每个操作码第一次出现时记下指令名，打印时使用
+
+    private Frame lastFrame;
+    private int previous = -1; // 上一条指令的操作码，换了栈帧后重新开始
+    private int beforePrevious = -1;
+
+    public SequenceTracer(int top) {
+        this.top = top;
+    }
+
+    @Override
+    public void beforeExecute(Frame frame, int pc, int opcode, Instruction instruction) {
+        if (names[opcode] == null) {
+            names[opcode] = instruction.getClass().getSimpleName();
+        }
+        if (frame != lastFrame) {
+            lastFrame = frame;
+            previous = -1;
+            beforePrevious = -1;
+        }
+        if (previous >= 0) {
+            pairs[previous << 8 | opcode]++;
+            if (beforePrevious >= 0) {
+                triples.computeIfAbsent(beforePrevious << 16 | previous << 8 | opcode, k -> new long[1])[0]++;
+            }
+        }
+        beforePrevious = previous;
+        previous = opcode;
+    }
+
+    @Override
+    public void finish() {
+        List<long[]> pairCounts = new ArrayList<>(); // {打包的操作码, 次数}
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] != 0) {
+                pairCounts.add(new long[]{i, pairs[i]});
+            }
+        }
+        List<long[]> tripleCounts = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : triples.entrySet()) {
+            tripleCounts.add(new long[]{entry.getKey(), entry.getValue()[0]});
+        }
+        print("pairs", pairCounts, 2);
+        print("triples", tripleCounts, 3);
+    }
+
+    private void print(String title, List<long[]> counts, int length) {
+        counts.sort((a, b) -> Long.compare(b[1], a[1]));
+        System.out.printf("Hottest instruction %s (%d distinct):\n", title, counts.size());
+        for (int i = 0; i < Math.min(top, counts.size()); i++) {
+            long[] count = counts.get(i);
+            StringBuilder sequence = new StringBuilder();
+            for (int k = length - 1; k >= 0; k--) {
+                int opcode = (int) (count[0] >>> (8 * k)) & 0xFF;
+                sequence.append(String.format("0x%02x %-10s", opcode, names[opcode]));
+            }
+            System.out.printf("%12d  %s\n", count[1], sequence.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tinyjvm.trace;
+
+import tinyjvm.instructions.Instruction;
+import tinyjvm.runtime.Frame;
+
+import java.util.function.Supplier;
+
+/**
+ * 解释器的执行跟踪接口，由 -Xtrace:&lt;mode&gt; 选择具体实现。
+ * 默认模式 none 不创建任何 Tracer，解释循环里不会产生任何字符串拼接。
+ */
+public interface Tracer {
+
+    /**
+     * 每条指令执行之前回调
+     * @param frame 当前栈帧
+     * @param pc 指令地址
+     * @param opcode 操作码
+     * @param instruction 即将执行的指令
+     */
+    void beforeExecute(Frame frame, int pc, int opcode, Instruction instruction);
+
+    /**
+     * 程序执行结束后回调，缓存型的 Tracer 在这里输出结果
+     */
+    default void finish() {
+    }
+
+    /**
+     * 根据 -Xtrace 的取值返回 Tracer 的工厂。Tracer 的实现都不是线程安全的，解释器为每个客体线程创建一个
+     * @param mode none | opcodes | full | ring | sequences
+     * @return 创建对应 Tracer 的工厂；none 返回 null，表示不跟踪
+     */
+    static Supplier<Tracer> factory(String mode) {
+        if (create(mode) == null) {
+            return null;
+        }
+        return () -> create(mode);
+    }
+
+    /**
+     * 根据 -Xtrace 的取值创建 Tracer
+     * @param mode none | opcodes | full | ring | sequences
+     * @return 对应的 Tracer；none 返回 null，表示不跟踪
+     */
+    static Tracer create(String mode) {
+        if (mode == null) {
+            return null;
+        }
+        switch (mode) {
+            case "none":
+                return null;
+            case "opcodes":
+                return new OpcodeTracer();
+            case "full":
+                return new FullTracer();
+            case "ring":
+                return new RingBufferTracer(RingBufferTracer.DEFAULT_CAPACITY);
+            case "sequences":
+                return new SequenceTracer(SequenceTracer.DEFAULT_TOP);
+            default:
+                throw new IllegalArgumentException("Unknown trace mode: " + mode);
+        }
+    }
+}
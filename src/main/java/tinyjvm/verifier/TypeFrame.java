@@ -0,0 +1,57 @@
+package tinyjvm.verifier;
+
+import java.util.Arrays;
+
+/**
+ * 一条指令执行之前的类型状态：局部变量表和操作数栈每个槽位的类型，布局和执行引擎的栈帧相同。
+ * StackMapTable 中的帧展开后也是这个形式。
+ */
+final class TypeFrame {
+    final VerificationType[] locals;
+    final VerificationType[] stack;
+    int stackSize;
+
+    TypeFrame(int maxLocals, int maxStack) {
+        this.locals = new VerificationType[maxLocals];
+        this.stack = new VerificationType[maxStack];
+        Arrays.fill(locals, VerificationType.TOP);
+    }
+
+    private TypeFrame(TypeFrame other) {
+        this.locals = other.locals.clone();
+        this.stack = other.stack.clone();
+        this.stackSize = other.stackSize;
+    }
+
+    TypeFrame copy() {
+        return new TypeFrame(this);
+    }
+
+    // 把所有的 from 换成 to：调用 <init> 之后，同一个未初始化对象的所有副本都变成已初始化的类型
+    void replace(VerificationType from, VerificationType to) {
+        for (int i = 0; i < locals.length; i++) {
+            if (locals[i].equals(from)) {
+                locals[i] = to;
+            }
+        }
+        for (int i = 0; i < stackSize; i++) {
+            if (stack[i].equals(from)) {
+                stack[i] = to;
+            }
+        }
+    }
+
+    boolean containsInLocals(VerificationType type) {
+        for (VerificationType local : locals) {
+            if (local.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "locals=" + Arrays.toString(locals) + ", stack=" + Arrays.toString(Arrays.copyOf(stack, stackSize));
+    }
+}
@@ -0,0 +1,132 @@
+package tinyjvm.verifier;
+
+/**
+ * 校验时的类型 (JVMS 4.10.1.2)。
+ * 引用类型只记类名，数组类的名字就是它的描述符 (例如 [I、[Ljava/lang/String;)，和 RtClass 的命名一致。
+ * long/double 在局部变量表和操作数栈中都占两个槽位，低位槽位是 LONG/DOUBLE，高位槽位是 TOP，
+ * 和执行引擎的槽位布局一一对应；boolean/byte/char/short 都按 int 校验。
+ */
+final class VerificationType {
+    private static final int KIND_TOP = 0;
+    private static final int KIND_INTEGER = 1;
+    private static final int KIND_FLOAT = 2;
+    private static final int KIND_LONG = 3;
+    private static final int KIND_DOUBLE = 4;
+    private static final int KIND_NULL = 5;
+    private static final int KIND_UNINITIALIZED_THIS = 6;
+    private static final int KIND_UNINITIALIZED = 7;
+    private static final int KIND_OBJECT = 8;
+
+    static final VerificationType TOP = new VerificationType(KIND_TOP, null, -1);
+    static final VerificationType INTEGER = new VerificationType(KIND_INTEGER, null, -1);
+    static final VerificationType FLOAT = new VerificationType(KIND_FLOAT, null, -1);
+    static final VerificationType LONG = new VerificationType(KIND_LONG, null, -1);
+    static final VerificationType DOUBLE = new VerificationType(KIND_DOUBLE, null, -1);
+    static final VerificationType NULL = new VerificationType(KIND_NULL, null, -1);
+    static final VerificationType UNINITIALIZED_THIS = new VerificationType(KIND_UNINITIALIZED_THIS, null, -1);
+
+    private final int kind;
+    private final String className; // 只有对象和数组类型有
+    private final int offset; // 未初始化类型：创建它的 new 指令的字节码偏移量
+
+    private VerificationType(int kind, String className, int offset) {
+        this.kind = kind;
+        this.className = className;
+        this.offset = offset;
+    }
+
+    static VerificationType object(String className) {
+        return new VerificationType(KIND_OBJECT, className, -1);
+    }
+
+    // new 指令创建、还没有调用 <init> 的对象
+    static VerificationType uninitialized(int offset) {
+        return new VerificationType(KIND_UNINITIALIZED, null, offset);
+    }
+
+    /**
+     * 描述符中从 start 开始的一个字段类型
+     */
+    static VerificationType fromDescriptor(String descriptor, int start) {
+        switch (descriptor.charAt(start)) {
+            case 'Z':
+            case 'B':
+            case 'C':
+            case 'S':
+            case 'I':
+                return INTEGER;
+            case 'F':
+                return FLOAT;
+            case 'J':
+                return LONG;
+            case 'D':
+                return DOUBLE;
+            case 'L':
+                return object(descriptor.substring(start + 1, descriptor.indexOf(';', start)));
+            case '[':
+                return object(descriptor.substring(start, descriptorEnd(descriptor, start)));
+            default:
+                throw new ClassFormatError("Invalid descriptor: " + descriptor);
+        }
+    }
+
+    // 描述符中从 start 开始的那个类型之后的下标
+    static int descriptorEnd(String descriptor, int start) {
+        int i = start;
+        while (descriptor.charAt(i) == '[') {
+            i++;
+        }
+        return descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+    }
+
+    boolean isTop() { return kind == KIND_TOP; }
+    boolean isWide() { return kind == KIND_LONG || kind == KIND_DOUBLE; }
+    boolean isNull() { return kind == KIND_NULL; }
+    boolean isObject() { return kind == KIND_OBJECT; }
+    boolean isArray() { return kind == KIND_OBJECT && className.charAt(0) == '['; }
+    boolean isUninitialized() { return kind == KIND_UNINITIALIZED || kind == KIND_UNINITIALIZED_THIS; }
+    boolean isUninitializedThis() { return kind == KIND_UNINITIALIZED_THIS; }
+    // 引用类型包括 null 和未初始化的对象，astore、aload、ifnull 等接受它们
+    boolean isReference() { return kind >= KIND_NULL; }
+
+    String getClassName() { return className; }
+    int getOffset() { return offset; }
+
+    // 数组的元素类型
+    VerificationType componentType() {
+        return fromDescriptor(className, 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VerificationType)) {
+            return false;
+        }
+        VerificationType other = (VerificationType) o;
+        return kind == other.kind && offset == other.offset
+                && (className == null ? other.className == null : className.equals(other.className));
+    }
+
+    @Override
+    public int hashCode() {
+        return kind * 31 + (className != null ? className.hashCode() : offset);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case KIND_TOP: return "top";
+            case KIND_INTEGER: return "int";
+            case KIND_FLOAT: return "float";
+            case KIND_LONG: return "long";
+            case KIND_DOUBLE: return "double";
+            case KIND_NULL: return "null";
+            case KIND_UNINITIALIZED_THIS: return "uninitializedThis";
+            case KIND_UNINITIALIZED: return "uninitialized(" + offset + ")";
+            default: return className;
+        }
+    }
+}
@@ -0,0 +1,1091 @@
+package tinyjvm.verifier;
+
+import tinyjvm.classfile.ClassReader;
+import tinyjvm.classfile.constantpool.ConstantDynamicInfo;
+import tinyjvm.classfile.constantpool.ConstantNameAndTypeInfo;
+import tinyjvm.classfile.constantpool.ConstantPool;
+import tinyjvm.classfile.constantpool.ConstantTag;
+import tinyjvm.classfile.constantpool.attributes.CodeAttribute;
+import tinyjvm.classfile.constantpool.attributes.StackMapTableAttribute;
+import tinyjvm.runtime.ClassLoader;
+import tinyjvm.runtime.heap.RtClass;
+import tinyjvm.runtime.heap.RtMethod;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 字节码校验器：按 JVMS 4.10.1 的类型检查规则校验一个方法，借助 StackMapTable 只需顺序扫描一遍。
+ * 跳转目标、异常处理器入口和无条件跳转之后的指令都必须有栈映射帧，校验器在这些位置检查当前类型状态能否流向帧中声明的状态，
+ * 然后从帧声明的状态继续往下走，不需要迭代求不动点。
+ * <p>
+ * 执行引擎不检查操作数栈的深度、局部变量的下标和槽位里值的类型：FastInterpreter 按 max_locals + max_stack
+ * 在共享的槽位数组里开栈帧，操作数栈下溢会读到局部变量甚至调用者的槽位，按 int 读一个引用槽位会读到过期的值。
+ * 通过校验的方法保证这些都不会发生：栈深度不超过 max_stack、局部变量下标小于 max_locals、
+ * 每条指令弹出的槽位都是它期望的类型、不会把 long/double 拆开、跳转目标都是指令的开头、不会执行到代码末尾之外。
+ * <p>
+ * 没有实现的部分：protected 成员的访问检查；版本 50 以前的 class 文件没有 StackMapTable，需要类型推导校验，
+ * 这里不校验它们 (见 RtClass.verify)；jsr/ret 一律拒绝 (带 StackMapTable 的 class 文件里本来就不允许)。
+ * <p>
+ * 校验只保证槽位的布局，不保证引用的类型在运行时都成立：执行引擎保留的运行时检查只有空引用和数组下标。
+ * checkcast 还不支持 (执行到时抛出 UnsupportedOperationException)，aastore 不检查元素类型，不会抛出 ArrayStoreException。
+ */
+public final class Verifier {
+    private static final VerificationType TOP = VerificationType.TOP;
+    private static final VerificationType INT = VerificationType.INTEGER;
+    private static final VerificationType FLOAT = VerificationType.FLOAT;
+    private static final VerificationType LONG = VerificationType.LONG;
+    private static final VerificationType DOUBLE = VerificationType.DOUBLE;
+    private static final VerificationType NULL = VerificationType.NULL;
+    private static final VerificationType OBJECT = VerificationType.object("java/lang/Object");
+    private static final VerificationType THROWABLE = VerificationType.object("java/lang/Throwable");
+
+    // xload/xstore、x<op> 按 i、l、f、d (、a) 的顺序排列
+    private static final VerificationType[] NUMERIC = {INT, LONG, FLOAT, DOUBLE};
+    // 0x85 (i2l) ~ 0x93 (i2s) 的操作数类型和结果类型
+    private static final VerificationType[][] CONVERSIONS = {
+            {INT, LONG}, {INT, FLOAT}, {INT, DOUBLE}, {LONG, INT}, {LONG, FLOAT}, {LONG, DOUBLE},
+            {FLOAT, INT}, {FLOAT, LONG}, {FLOAT, DOUBLE}, {DOUBLE, INT}, {DOUBLE, LONG}, {DOUBLE, FLOAT},
+            {INT, INT}, {INT, INT}, {INT, INT}};
+    // newarray 的 atype (4 ~ 11) 对应的数组类型
+    private static final String[] PRIMITIVE_ARRAYS = {null, null, null, null, "[Z", "[C", "[F", "[D", "[B", "[S", "[I", "[J"};
+    // 每个 opcode 的指令长度；0 表示非法的 opcode，或者长度可变 (tableswitch、lookupswitch、wide)
+    private static final byte[] LENGTHS = new byte[256];
+
+    static {
+        Arrays.fill(LENGTHS, 0, 0xca, (byte) 1);
+        setLength(2, 0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3a, 0xa9, 0xbc);
+        setLength(3, 0x11, 0x13, 0x14, 0x84, 0xbb, 0xbd, 0xc0, 0xc1, 0xc6, 0xc7);
+        for (int opcode = 0x99; opcode <= 0xa8; opcode++) {
+            LENGTHS[opcode] = 3; // if<cond>、if_icmp<cond>、if_acmp<cond>、goto、jsr
+        }
+        for (int opcode = 0xb2; opcode <= 0xb8; opcode++) {
+            LENGTHS[opcode] = 3; // 字段访问和 invokevirtual/invokespecial/invokestatic
+        }
+        setLength(4, 0xc5);
+        setLength(5, 0xb9, 0xba, 0xc8, 0xc9);
+        setLength(0, 0xaa, 0xab, 0xc4);
+    }
+
+    private final RtMethod method;
+    private final String className;
+    private final String superClassName;
+    private final ClassLoader loader;
+    private final ConstantPool cp;
+    private final CodeAttribute codeAttribute;
+    private final ByteBuffer code;
+    private final int codeLength;
+    private final int maxLocals;
+    private final int maxStack;
+    private String returnDescriptor;
+
+    private boolean[] starts; // 每条指令的开头
+    private TypeFrame[] frames; // 栈映射帧，下标是字节码偏移量，没有帧的位置为 null
+    private TypeFrame current; // 当前指令执行之前的类型状态
+    private int pc; // 当前指令，出错时报告它的位置
+
+    private Verifier(RtMethod method, CodeAttribute codeAttribute) {
+        RtClass rtClass = method.getRtClass();
+        this.method = method;
+        this.className = rtClass.getName();
+        this.superClassName = rtClass.getSuperClass() == null ? null : rtClass.getSuperClass().getName();
+        this.loader = rtClass.getLoader();
+        this.cp = codeAttribute.getConstantPool();
+        this.codeAttribute = codeAttribute;
+        this.code = codeAttribute.getCode();
+        this.codeLength = code.limit();
+        this.maxLocals = codeAttribute.getMaxLocals();
+        this.maxStack = codeAttribute.getMaxStack();
+    }
+
+    /**
+     * 校验一个有字节码的方法，类型检查不通过时抛出 VerifyError。
+     * 检查引用类型之间的赋值关系时会通过方法所在类的类加载器加载用到的类
+     */
+    public static void verify(RtMethod method, CodeAttribute codeAttribute) {
+        new Verifier(method, codeAttribute).verify();
+    }
+
+    private void verify() {
+        if (codeLength == 0) {
+            throw error("Code is empty");
+        }
+        findInstructions();
+        List<VerificationType> initialLocals = new ArrayList<>();
+        TypeFrame initial = initialFrame(initialLocals);
+        readStackMapTable(initialLocals);
+        int[] handlers = checkExceptionTable();
+
+        current = initial;
+        boolean reachable = true; // 上一条指令能否顺序执行到这一条
+        pc = 0;
+        while (pc < codeLength) {
+            TypeFrame frame = frames[pc];
+            if (frame != null) {
+                if (reachable) {
+                    checkFlow(frame, "offset " + pc);
+                }
+                current = frame.copy();
+            } else if (!reachable) {
+                throw error("Expecting a stack map frame after an unconditional branch");
+            }
+            checkHandlers(handlers);
+            int next = pc + instructionLength(pc);
+            reachable = execute(u1(pc));
+            pc = next;
+        }
+        if (reachable) {
+            throw error("Falling off the end of the code");
+        }
+    }
+
+    // ---- 指令边界、初始状态、栈映射帧和异常表 ----
+
+    private void findInstructions() {
+        starts = new boolean[codeLength];
+        pc = 0;
+        while (pc < codeLength) {
+            starts[pc] = true;
+            pc += instructionLength(pc);
+        }
+    }
+
+    private int instructionLength(int at) {
+        int opcode = u1(at);
+        int length = LENGTHS[opcode];
+        if (length != 0) {
+            return length;
+        }
+        long variable;
+        switch (opcode) {
+            case 0xaa: { // tableswitch：对齐到 4 字节，然后是 default、low、high 和 high - low + 1 个跳转偏移
+                int table = (at + 4) & ~3;
+                int low = s4(table + 4);
+                int high = s4(table + 8);
+                if (low > high) {
+                    throw error("tableswitch low " + low + " is greater than high " + high);
+                }
+                variable = table + 12L + ((long) high - low + 1) * 4 - at;
+                break;
+            }
+            case 0xab: { // lookupswitch：对齐到 4 字节，然后是 default、npairs 和 npairs 个 (key, offset)
+                int table = (at + 4) & ~3;
+                int npairs = s4(table + 4);
+                if (npairs < 0) {
+                    throw error("lookupswitch npairs " + npairs + " is negative");
+                }
+                variable = table + 8L + npairs * 8L - at;
+                break;
+            }
+            case 0xc4: // wide
+                variable = u1(at + 1) == 0x84 ? 6 : 4;
+                break;
+            default:
+                throw error("Illegal opcode " + String.format("0x%x", opcode));
+        }
+        if (at + variable > codeLength) {
+            throw error("Truncated instruction");
+        }
+        return (int) variable;
+    }
+
+    // 方法入口的类型状态：this (构造方法里是 uninitializedThis) 和参数，其余局部变量是 top
+    private TypeFrame initialFrame(List<VerificationType> locals) {
+        if (!method.isStatic()) {
+            boolean constructing = "<init>".equals(method.getName()) && superClassName != null;
+            locals.add(constructing ? VerificationType.UNINITIALIZED_THIS : VerificationType.object(className));
+        }
+        String descriptor = method.getDescriptor();
+        int i = 1; // 跳过 '('
+        while (descriptor.charAt(i) != ')') {
+            locals.add(VerificationType.fromDescriptor(descriptor, i));
+            i = VerificationType.descriptorEnd(descriptor, i);
+        }
+        returnDescriptor = descriptor.substring(i + 1);
+        return expand(locals, new ArrayList<>());
+    }
+
+    /**
+     * 解码 StackMapTable。帧里的局部变量是压缩形式 (long/double 只占一项)，chop/append 帧在上一帧的基础上增减，
+     * 第一个帧的"上一帧"是方法入口的状态
+     */
+    private void readStackMapTable(List<VerificationType> initialLocals) {
+        frames = new TypeFrame[codeLength];
+        StackMapTableAttribute table = codeAttribute.getStackMapTable();
+        if (table == null) {
+            return;
+        }
+        ClassReader reader = table.getEntries();
+        List<VerificationType> locals = new ArrayList<>(initialLocals);
+        int offset = -1;
+        for (int i = 0; i < table.getNumberOfEntries(); i++) {
+            List<VerificationType> stack = new ArrayList<>();
+            int frameType = reader.readU1();
+            int delta;
+            if (frameType < 64) { // same_frame
+                delta = frameType;
+            } else if (frameType < 128) { // same_locals_1_stack_item_frame
+                delta = frameType - 64;
+                stack.add(readType(reader));
+            } else if (frameType < 247) {
+                throw error("Reserved stack map frame type " + frameType);
+            } else if (frameType == 247) { // same_locals_1_stack_item_frame_extended
+                delta = reader.readU2();
+                stack.add(readType(reader));
+            } else if (frameType < 251) { // chop_frame
+                delta = reader.readU2();
+                int chop = 251 - frameType;
+                if (chop > locals.size()) {
+                    throw error("chop_frame removes more locals than the previous frame has");
+                }
+                locals.subList(locals.size() - chop, locals.size()).clear();
+            } else if (frameType == 251) { // same_frame_extended
+                delta = reader.readU2();
+            } else if (frameType < 255) { // append_frame
+                delta = reader.readU2();
+                for (int k = 251; k < frameType; k++) {
+                    locals.add(readType(reader));
+                }
+            } else { // full_frame
+                delta = reader.readU2();
+                locals.clear();
+                int localCount = reader.readU2();
+                for (int k = 0; k < localCount; k++) {
+                    locals.add(readType(reader));
+                }
+                int stackCount = reader.readU2();
+                for (int k = 0; k < stackCount; k++) {
+                    stack.add(readType(reader));
+                }
+            }
+            offset = i == 0 ? delta : offset + delta + 1;
+            pc = offset;
+            if (offset >= codeLength || !starts[offset]) {
+                throw error("Stack map frame is not at the start of an instruction");
+            }
+            frames[offset] = expand(locals, stack);
+        }
+    }
+
+    private VerificationType readType(ClassReader reader) {
+        int tag = reader.readU1();
+        switch (tag) {
+            case 0: return TOP;
+            case 1: return INT;
+            case 2: return FLOAT;
+            case 3: return DOUBLE;
+            case 4: return LONG;
+            case 5: return NULL;
+            case 6: return VerificationType.UNINITIALIZED_THIS;
+            case 7: return VerificationType.object(classNameAt(reader.readU2()));
+            case 8: {
+                int offset = reader.readU2();
+                if (offset >= codeLength || !starts[offset] || u1(offset) != 0xbb) {
+                    throw error("Uninitialized type refers to offset " + offset + ", which is not a new instruction");
+                }
+                return VerificationType.uninitialized(offset);
+            }
+            default:
+                throw error("Illegal verification type tag " + tag);
+        }
+    }
+
+    // 压缩形式的局部变量和操作数栈展开成槽位
+    private TypeFrame expand(List<VerificationType> locals, List<VerificationType> stack) {
+        TypeFrame frame = new TypeFrame(maxLocals, maxStack);
+        int slot = 0;
+        for (VerificationType type : locals) {
+            slot = put(frame.locals, slot, type, "max_locals");
+        }
+        slot = 0;
+        for (VerificationType type : stack) {
+            slot = put(frame.stack, slot, type, "max_stack");
+        }
+        frame.stackSize = slot;
+        return frame;
+    }
+
+    private int put(VerificationType[] slots, int slot, VerificationType type, String limit) {
+        int size = type.isWide() ? 2 : 1;
+        if (slot + size > slots.length) {
+            throw error("Type state does not fit in " + limit + " " + slots.length);
+        }
+        slots[slot] = type;
+        if (size == 2) {
+            slots[slot + 1] = TOP;
+        }
+        return slot + size;
+    }
+
+    /**
+     * 检查异常表：范围和处理器入口都在指令的开头，处理器入口有栈映射帧，帧的操作数栈只有一个能接收捕获类型的值
+     * @return 异常表，每项 4 个 int：start_pc, end_pc, handler_pc, catch_type
+     */
+    private int[] checkExceptionTable() {
+        int[] table = codeAttribute.getExceptionTable();
+        for (int i = 0; i < table.length; i += 4) {
+            int start = table[i];
+            int end = table[i + 1];
+            int handler = table[i + 2];
+            pc = start;
+            if (start >= end || end > codeLength || !starts[start] || (end < codeLength && !starts[end])) {
+                throw error("Illegal exception table range [" + start + ", " + end + ")");
+            }
+            pc = handler;
+            if (handler >= codeLength || !starts[handler]) {
+                throw error("Illegal exception handler");
+            }
+            TypeFrame frame = frames[handler];
+            if (frame == null) {
+                throw error("Expecting a stack map frame at exception handler");
+            }
+            VerificationType caught = table[i + 3] == 0 ? THROWABLE : VerificationType.object(classNameAt(table[i + 3]));
+            if (!isAssignable(caught, THROWABLE)) {
+                throw error("Catch type " + caught + " is not a subclass of Throwable");
+            }
+            if (frame.stackSize != 1 || !isAssignable(caught, frame.stack[0])) {
+                throw error("Stack map frame at exception handler does not accept " + caught + ": " + frame);
+            }
+        }
+        return table;
+    }
+
+    // 当前指令在某个 try 范围内时，它之前的局部变量必须能流向处理器入口的帧
+    private void checkHandlers(int[] handlers) {
+        for (int i = 0; i < handlers.length; i += 4) {
+            if (pc >= handlers[i] && pc < handlers[i + 1]) {
+                TypeFrame frame = frames[handlers[i + 2]];
+                for (int j = 0; j < maxLocals; j++) {
+                    if (!isAssignable(current.locals[j], frame.locals[j])) {
+                        throw error("Type state is not assignable to the stack map frame at exception handler "
+                                + handlers[i + 2] + ": current " + current + ", frame " + frame);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---- 指令 ----
+
+    /**
+     * 按指令改变 current，并检查跳转目标
+     * @return 能否顺序执行到下一条指令
+     */
+    private boolean execute(int opcode) {
+        switch (opcode) {
+            case 0x00: break; // nop
+            case 0x01: push(NULL); break; // aconst_null
+            case 0x02: case 0x03: case 0x04: case 0x05: case 0x06: case 0x07: case 0x08: // iconst_<i>
+            case 0x10: case 0x11: push(INT); break; // bipush, sipush
+            case 0x09: case 0x0a: push(LONG); break; // lconst_<l>
+            case 0x0b: case 0x0c: case 0x0d: push(FLOAT); break; // fconst_<f>
+            case 0x0e: case 0x0f: push(DOUBLE); break; // dconst_<d>
+            case 0x12: push(constantType(u1(pc + 1), false)); break; // ldc
+            case 0x13: push(constantType(u2(pc + 1), false)); break; // ldc_w
+            case 0x14: push(constantType(u2(pc + 1), true)); break; // ldc2_w
+            case 0x15: case 0x16: case 0x17: case 0x18: case 0x19: load(opcode - 0x15, u1(pc + 1)); break; // xload
+            case 0x2e: arrayLoad("[I", INT); break; // iaload
+            case 0x2f: arrayLoad("[J", LONG); break; // laload
+            case 0x30: arrayLoad("[F", FLOAT); break; // faload
+            case 0x31: arrayLoad("[D", DOUBLE); break; // daload
+            case 0x32: { // aaload
+                pop(INT);
+                VerificationType array = popArray();
+                push(array.isNull() ? NULL : referenceComponent(array));
+                break;
+            }
+            case 0x33: arrayLoad("[B", INT); break; // baload
+            case 0x34: arrayLoad("[C", INT); break; // caload
+            case 0x35: arrayLoad("[S", INT); break; // saload
+            case 0x36: case 0x37: case 0x38: case 0x39: case 0x3a: store(opcode - 0x36, u1(pc + 1)); break; // xstore
+            case 0x4f: arrayStore("[I", INT); break; // iastore
+            case 0x50: arrayStore("[J", LONG); break; // lastore
+            case 0x51: arrayStore("[F", FLOAT); break; // fastore
+            case 0x52: arrayStore("[D", DOUBLE); break; // dastore
+            case 0x53: { // aastore：JVMS 把元素类型的检查留给运行时 (ArrayStoreException)，但 AASTORE 目前不做这个检查
+                pop(OBJECT);
+                pop(INT);
+                VerificationType array = popArray();
+                if (!array.isNull()) {
+                    referenceComponent(array);
+                }
+                break;
+            }
+            case 0x54: arrayStore("[B", INT); break; // bastore
+            case 0x55: arrayStore("[C", INT); break; // castore
+            case 0x56: arrayStore("[S", INT); break; // sastore
+            case 0x57: popSlots(1); break; // pop
+            case 0x58: popSlots(2); break; // pop2
+            case 0x59: dup(1, 0); break; // dup
+            case 0x5a: dup(1, 1); break; // dup_x1
+            case 0x5b: dup(1, 2); break; // dup_x2
+            case 0x5c: dup(2, 0); break; // dup2
+            case 0x5d: dup(2, 1); break; // dup2_x1
+            case 0x5e: dup(2, 2); break; // dup2_x2
+            case 0x5f: swap(); break; // swap
+            case 0x84: { // iinc
+                int index = u1(pc + 1);
+                checkLocal(index, INT);
+                break;
+            }
+            case 0x94: binary(LONG, INT); break; // lcmp
+            case 0x95: case 0x96: binary(FLOAT, INT); break; // fcmpl, fcmpg
+            case 0x97: case 0x98: binary(DOUBLE, INT); break; // dcmpl, dcmpg
+            case 0x99: case 0x9a: case 0x9b: case 0x9c: case 0x9d: case 0x9e: // if<cond>
+                pop(INT);
+                branch(pc + s2(pc + 1));
+                break;
+            case 0x9f: case 0xa0: case 0xa1: case 0xa2: case 0xa3: case 0xa4: // if_icmp<cond>
+                pop(INT);
+                pop(INT);
+                branch(pc + s2(pc + 1));
+                break;
+            case 0xa5: case 0xa6: // if_acmp<cond>
+                popReference();
+                popReference();
+                branch(pc + s2(pc + 1));
+                break;
+            case 0xc6: case 0xc7: // ifnull, ifnonnull
+                popReference();
+                branch(pc + s2(pc + 1));
+                break;
+            case 0xa7: branch(pc + s2(pc + 1)); return false; // goto
+            case 0xc8: branch(pc + s4(pc + 1)); return false; // goto_w
+            case 0xa8: case 0xa9: case 0xc9: // jsr, ret, jsr_w
+                throw error("jsr/ret are not allowed in class files with stack maps");
+            case 0xaa: tableSwitch(); return false;
+            case 0xab: lookupSwitch(); return false;
+            case 0xac: returnValue(INT); return false; // ireturn
+            case 0xad: returnValue(LONG); return false; // lreturn
+            case 0xae: returnValue(FLOAT); return false; // freturn
+            case 0xaf: returnValue(DOUBLE); return false; // dreturn
+            case 0xb0: returnValue(OBJECT); return false; // areturn
+            case 0xb1: returnVoid(); return false; // return
+            case 0xb2: case 0xb3: case 0xb4: case 0xb5: field(opcode); break; // getstatic, putstatic, getfield, putfield
+            case 0xb6: case 0xb7: case 0xb8: case 0xb9: case 0xba: invoke(opcode); break; // invoke*
+            case 0xbb: newObject(); break; // new
+            case 0xbc: { // newarray
+                int atype = u1(pc + 1);
+                if (atype < 4 || atype >= PRIMITIVE_ARRAYS.length) {
+                    throw error("Illegal newarray type " + atype);
+                }
+                pop(INT);
+                push(VerificationType.object(PRIMITIVE_ARRAYS[atype]));
+                break;
+            }
+            case 0xbd: { // anewarray
+                String component = classNameAt(u2(pc + 1));
+                pop(INT);
+                push(VerificationType.object(component.charAt(0) == '[' ? "[" + component : "[L" + component + ";"));
+                break;
+            }
+            case 0xbe: popArray(); push(INT); break; // arraylength
+            case 0xbf: pop(THROWABLE); return false; // athrow
+            case 0xc0: pop(OBJECT); push(VerificationType.object(classNameAt(u2(pc + 1)))); break; // checkcast (执行引擎还不支持，执行到时抛出 UnsupportedOperationException)
+            case 0xc1: classNameAt(u2(pc + 1)); pop(OBJECT); push(INT); break; // instanceof
+            case 0xc2: case 0xc3: popReference(); break; // monitorenter, monitorexit
+            case 0xc4: wide(); break;
+            case 0xc5: { // multianewarray
+                String arrayName = classNameAt(u2(pc + 1));
+                int dimensions = u1(pc + 3);
+                if (dimensions < 1 || dimensions > VerificationType.descriptorEnd(arrayName, 0) - 1
+                        || arrayName.charAt(dimensions - 1) != '[') {
+                    throw error("Illegal dimensions " + dimensions + " for " + arrayName);
+                }
+                for (int i = 0; i < dimensions; i++) {
+                    pop(INT);
+                }
+                push(VerificationType.object(arrayName));
+                break;
+            }
+            default:
+                if (opcode >= 0x1a && opcode <= 0x2d) { // xload_<n>
+                    load((opcode - 0x1a) / 4, (opcode - 0x1a) % 4);
+                } else if (opcode >= 0x3b && opcode <= 0x4e) { // xstore_<n>
+                    store((opcode - 0x3b) / 4, (opcode - 0x3b) % 4);
+                } else if (opcode >= 0x60 && opcode <= 0x73) { // add, sub, mul, div, rem
+                    VerificationType type = NUMERIC[(opcode - 0x60) % 4];
+                    binary(type, type);
+                } else if (opcode >= 0x74 && opcode <= 0x77) { // neg
+                    VerificationType type = NUMERIC[opcode - 0x74];
+                    pop(type);
+                    push(type);
+                } else if (opcode >= 0x78 && opcode <= 0x7d) { // shl, shr, ushr：移位量是 int
+                    VerificationType type = (opcode & 1) == 0 ? INT : LONG;
+                    pop(INT);
+                    pop(type);
+                    push(type);
+                } else if (opcode >= 0x7e && opcode <= 0x83) { // and, or, xor
+                    VerificationType type = (opcode & 1) == 0 ? INT : LONG;
+                    binary(type, type);
+                } else if (opcode >= 0x85 && opcode <= 0x93) { // 类型转换
+                    VerificationType[] conversion = CONVERSIONS[opcode - 0x85];
+                    pop(conversion[0]);
+                    push(conversion[1]);
+                } else {
+                    throw error("Illegal opcode " + String.format("0x%x", opcode));
+                }
+        }
+        return true;
+    }
+
+    // kind: 0 ~ 4 依次是 i、l、f、d、a
+    private void load(int kind, int index) {
+        if (kind == 4) {
+            checkLocalIndex(index, 1);
+            VerificationType type = current.locals[index];
+            if (!type.isReference()) {
+                throw error("Bad local variable type: expected a reference in local " + index + ", found " + type);
+            }
+            push(type);
+            return;
+        }
+        VerificationType type = NUMERIC[kind];
+        checkLocal(index, type);
+        push(type);
+    }
+
+    private void store(int kind, int index) {
+        VerificationType type = kind == 4 ? popReference() : pop(NUMERIC[kind]);
+        int size = type.isWide() ? 2 : 1;
+        checkLocalIndex(index, size);
+        VerificationType[] locals = current.locals;
+        // 覆盖了某个 long/double 的高位槽位，它的低位槽位也不能再当 long/double 用了
+        if (index > 0 && locals[index - 1].isWide()) {
+            locals[index - 1] = TOP;
+        }
+        locals[index] = type;
+        if (size == 2) {
+            locals[index + 1] = TOP;
+        }
+    }
+
+    private void wide() {
+        int opcode = u1(pc + 1);
+        int index = u2(pc + 2);
+        if (opcode >= 0x15 && opcode <= 0x19) {
+            load(opcode - 0x15, index);
+        } else if (opcode >= 0x36 && opcode <= 0x3a) {
+            store(opcode - 0x36, index);
+        } else if (opcode == 0x84) {
+            checkLocal(index, INT);
+        } else {
+            throw error("Illegal wide opcode " + String.format("0x%x", opcode));
+        }
+    }
+
+    private void checkLocal(int index, VerificationType expected) {
+        checkLocalIndex(index, expected.isWide() ? 2 : 1);
+        VerificationType type = current.locals[index];
+        if (!type.equals(expected)) {
+            throw error("Bad local variable type: expected " + expected + " in local " + index + ", found " + type);
+        }
+    }
+
+    private void checkLocalIndex(int index, int size) {
+        if (index + size > maxLocals) {
+            throw error("Local variable index " + index + " is out of range (max_locals " + maxLocals + ")");
+        }
+    }
+
+    private void binary(VerificationType operand, VerificationType result) {
+        pop(operand);
+        pop(operand);
+        push(result);
+    }
+
+    private void arrayLoad(String arrayName, VerificationType element) {
+        pop(INT);
+        checkPrimitiveArray(popArray(), arrayName);
+        push(element);
+    }
+
+    private void arrayStore(String arrayName, VerificationType element) {
+        pop(element);
+        pop(INT);
+        checkPrimitiveArray(popArray(), arrayName);
+    }
+
+    // null 可以当作任何数组；baload/bastore 既能用于 byte[] 也能用于 boolean[]
+    private void checkPrimitiveArray(VerificationType array, String expected) {
+        if (array.isNull()) {
+            return;
+        }
+        String name = array.getClassName();
+        if (!name.equals(expected) && !(expected.equals("[B") && name.equals("[Z"))) {
+            throw error("Bad type on operand stack: expected " + expected + ", found " + array);
+        }
+    }
+
+    private VerificationType referenceComponent(VerificationType array) {
+        char component = array.getClassName().charAt(1);
+        if (component != 'L' && component != '[') {
+            throw error("Bad type on operand stack: expected an array of references, found " + array);
+        }
+        return array.componentType();
+    }
+
+    private void tableSwitch() {
+        pop(INT);
+        int table = (pc + 4) & ~3;
+        branch(pc + s4(table));
+        int low = s4(table + 4);
+        int high = s4(table + 8);
+        for (long i = 0; i <= (long) high - low; i++) {
+            branch(pc + s4(table + 12 + (int) i * 4));
+        }
+    }
+
+    private void lookupSwitch() {
+        pop(INT);
+        int table = (pc + 4) & ~3;
+        branch(pc + s4(table));
+        int npairs = s4(table + 4);
+        for (int i = 0; i < npairs; i++) {
+            int pair = table + 8 + i * 8;
+            if (i > 0 && s4(pair) <= s4(pair - 8)) {
+                throw error("lookupswitch keys are not sorted");
+            }
+            branch(pc + s4(pair + 4));
+        }
+    }
+
+    private void returnValue(VerificationType kind) {
+        if (returnDescriptor.equals("V")) {
+            throw error("Method returns void but the instruction returns a value");
+        }
+        VerificationType expected = VerificationType.fromDescriptor(returnDescriptor, 0);
+        boolean reference = expected.isObject();
+        if (kind == OBJECT ? !reference : !expected.equals(kind)) {
+            throw error("Wrong return instruction for return type " + returnDescriptor);
+        }
+        pop(expected);
+    }
+
+    private void returnVoid() {
+        if (!returnDescriptor.equals("V")) {
+            throw error("Method must return a value of type " + returnDescriptor);
+        }
+        // 构造方法返回之前必须调用过 this() 或 super()
+        if ("<init>".equals(method.getName()) && current.containsInLocals(VerificationType.UNINITIALIZED_THIS)) {
+            throw error("Constructor returns before calling this() or super()");
+        }
+    }
+
+    private void field(int opcode) {
+        int index = u2(pc + 1);
+        if (tag(index) != ConstantTag.FIELD_REF) {
+            throw error("Constant pool entry " + index + " is not a field reference");
+        }
+        String owner = cp.getMemberClassName(index);
+        VerificationType type = VerificationType.fromDescriptor(cp.getMemberDescriptor(index), 0);
+        switch (opcode) {
+            case 0xb2: // getstatic
+                push(type);
+                break;
+            case 0xb3: // putstatic
+                pop(type);
+                break;
+            case 0xb4: // getfield
+                pop(VerificationType.object(owner));
+                push(type);
+                break;
+            default: { // putfield
+                pop(type);
+                VerificationType receiver = popSingle();
+                // 构造方法在调用 super() 之前可以给本类声明的字段赋值 (例如内部类的 this$0)
+                if (receiver.isUninitializedThis() && owner.equals(className)) {
+                    break;
+                }
+                if (!isAssignable(receiver, VerificationType.object(owner))) {
+                    throw error("Bad type on operand stack: expected " + owner + ", found " + receiver);
+                }
+                break;
+            }
+        }
+    }
+
+    private void invoke(int opcode) {
+        int index = u2(pc + 1);
+        int tag = tag(index);
+        String owner = null;
+        String name;
+        String descriptor;
+        if (opcode == 0xba) { // invokedynamic
+            if (tag != ConstantTag.INVOKE_DYNAMIC) {
+                throw error("Constant pool entry " + index + " is not an InvokeDynamic entry");
+            }
+            if (u2(pc + 3) != 0) {
+                throw error("invokedynamic operand bytes 3 and 4 must be zero");
+            }
+            ConstantNameAndTypeInfo nameAndType = nameAndType(((ConstantDynamicInfo) cp.getConstantInfo(index)).nameAndTypeIndex);
+            name = cp.getUtf8(nameAndType.nameIndex);
+            descriptor = cp.getUtf8(nameAndType.descriptorIndex);
+        } else {
+            boolean interfaceRef = tag == ConstantTag.INTERFACE_METHOD_REF;
+            if (tag != ConstantTag.METHOD_REF && !interfaceRef) {
+                throw error("Constant pool entry " + index + " is not a method reference");
+            }
+            if ((opcode == 0xb6 && interfaceRef) || (opcode == 0xb9 && !interfaceRef)) {
+                throw error("Constant pool entry " + index + " has the wrong method reference kind");
+            }
+            owner = cp.getMemberClassName(index);
+            name = cp.getMemberName(index);
+            descriptor = cp.getMemberDescriptor(index);
+        }
+        boolean init = "<init>".equals(name);
+        if (name.charAt(0) == '<' && !(init && opcode == 0xb7)) {
+            throw error("Illegal call to " + name);
+        }
+
+        List<VerificationType> arguments = new ArrayList<>();
+        int slots = 0;
+        int i = 1; // 跳过 '('
+        while (descriptor.charAt(i) != ')') {
+            VerificationType argument = VerificationType.fromDescriptor(descriptor, i);
+            arguments.add(argument);
+            slots += argument.isWide() ? 2 : 1;
+            i = VerificationType.descriptorEnd(descriptor, i);
+        }
+        String returnType = descriptor.substring(i + 1);
+        if (opcode == 0xb9 && (u1(pc + 3) != slots + 1 || u1(pc + 4) != 0)) {
+            throw error("Inconsistent invokeinterface count " + u1(pc + 3));
+        }
+        for (int k = arguments.size() - 1; k >= 0; k--) {
+            pop(arguments.get(k));
+        }
+
+        if (init) {
+            if (!returnType.equals("V")) {
+                throw error("<init> must return void");
+            }
+            initialize(owner, popSingle());
+        } else if (opcode == 0xb7) {
+            // invokespecial 调用私有方法或父类方法，接收者只能是当前类的对象
+            pop(VerificationType.object(className));
+        } else if (opcode == 0xb6 || opcode == 0xb9) {
+            pop(VerificationType.object(owner));
+        }
+        if (!returnType.equals("V")) {
+            push(VerificationType.fromDescriptor(returnType, 0));
+        }
+    }
+
+    // invokespecial <init>：接收者的所有副本都变成已初始化的类型
+    private void initialize(String owner, VerificationType receiver) {
+        VerificationType initialized;
+        if (receiver.isUninitializedThis()) {
+            // 构造方法里只能调用本类的另一个构造方法 (this(...)) 或直接父类的构造方法 (super(...))
+            if (!owner.equals(className) && !owner.equals(superClassName)) {
+                throw error("Bad <init> call: " + owner + " is neither " + className + " nor its superclass");
+            }
+            initialized = VerificationType.object(className);
+        } else if (receiver.isUninitialized()) {
+            String created = classNameAt(u2(receiver.getOffset() + 1));
+            if (!owner.equals(created)) {
+                throw error("Call to the wrong <init>: object was created as " + created + ", not " + owner);
+            }
+            initialized = VerificationType.object(created);
+        } else {
+            throw error("Bad type on operand stack: <init> receiver must be uninitialized, found " + receiver);
+        }
+        current.replace(receiver, initialized);
+    }
+
+    private void newObject() {
+        String name = classNameAt(u2(pc + 1));
+        if (name.charAt(0) == '[') {
+            throw error("new of an array class " + name);
+        }
+        VerificationType created = VerificationType.uninitialized(pc);
+        // 循环里再次执行同一条 new 时，上一次创建的未初始化对象不能再使用
+        for (int i = 0; i < current.stackSize; i++) {
+            if (current.stack[i].equals(created)) {
+                throw error("Uninitialized object created at " + pc + " is still on the operand stack");
+            }
+        }
+        current.replace(created, TOP);
+        push(created);
+    }
+
+    private VerificationType constantType(int index, boolean wide) {
+        VerificationType type;
+        switch (tag(index)) {
+            case ConstantTag.INTEGER: type = INT; break;
+            case ConstantTag.FLOAT: type = FLOAT; break;
+            case ConstantTag.LONG: type = LONG; break;
+            case ConstantTag.DOUBLE: type = DOUBLE; break;
+            case ConstantTag.STRING: type = VerificationType.object("java/lang/String"); break;
+            case ConstantTag.CLASS: type = VerificationType.object("java/lang/Class"); break;
+            case ConstantTag.METHOD_TYPE: type = VerificationType.object("java/lang/invoke/MethodType"); break;
+            case ConstantTag.METHOD_HANDLE: type = VerificationType.object("java/lang/invoke/MethodHandle"); break;
+            case ConstantTag.DYNAMIC: {
+                ConstantNameAndTypeInfo nameAndType = nameAndType(((ConstantDynamicInfo) cp.getConstantInfo(index)).nameAndTypeIndex);
+                type = VerificationType.fromDescriptor(cp.getUtf8(nameAndType.descriptorIndex), 0);
+                break;
+            }
+            default:
+                throw error("Constant pool entry " + index + " cannot be loaded by ldc");
+        }
+        if (type.isWide() != wide) {
+            throw error(wide ? "ldc2_w of a category 1 constant" : "ldc of a long or double constant");
+        }
+        return type;
+    }
+
+    // ---- 跳转 ----
+
+    private void branch(int target) {
+        if (target < 0 || target >= codeLength || !starts[target]) {
+            throw error("Illegal branch target " + target);
+        }
+        TypeFrame frame = frames[target];
+        if (frame == null) {
+            throw error("Expecting a stack map frame at branch target " + target);
+        }
+        checkFlow(frame, "branch target " + target);
+    }
+
+    // 当前类型状态能否流向 frame：局部变量逐个可赋值，操作数栈深度相同且逐个可赋值
+    private void checkFlow(TypeFrame frame, String where) {
+        boolean assignable = current.stackSize == frame.stackSize;
+        for (int i = 0; assignable && i < maxLocals; i++) {
+            assignable = isAssignable(current.locals[i], frame.locals[i]);
+        }
+        for (int i = 0; assignable && i < current.stackSize; i++) {
+            assignable = isAssignable(current.stack[i], frame.stack[i]);
+        }
+        if (!assignable) {
+            throw error("Type state is not assignable to the stack map frame at " + where
+                    + ": current " + current + ", frame " + frame);
+        }
+    }
+
+    // ---- 操作数栈 ----
+
+    private void push(VerificationType type) {
+        int size = type.isWide() ? 2 : 1;
+        if (current.stackSize + size > maxStack) {
+            throw error("Operand stack overflow (max_stack " + maxStack + ")");
+        }
+        current.stack[current.stackSize++] = type;
+        if (size == 2) {
+            current.stack[current.stackSize++] = TOP;
+        }
+    }
+
+    // 弹出一个值，它必须能赋值给 expected
+    private VerificationType pop(VerificationType expected) {
+        VerificationType actual = expected.isWide() ? popWide() : popSingle();
+        if (!isAssignable(actual, expected)) {
+            throw error("Bad type on operand stack: expected " + expected + ", found " + actual);
+        }
+        return actual;
+    }
+
+    // 弹出一个占一个槽位的值 (JVMS 的 category 1)
+    private VerificationType popSingle() {
+        if (current.stackSize == 0) {
+            throw error("Operand stack underflow");
+        }
+        VerificationType type = current.stack[--current.stackSize];
+        if (type.isTop() || type.isWide()) {
+            throw error("Bad type on operand stack: expected a category 1 value, found half of a long or double");
+        }
+        return type;
+    }
+
+    private VerificationType popWide() {
+        if (current.stackSize < 2) {
+            throw error("Operand stack underflow");
+        }
+        VerificationType type = current.stack[current.stackSize - 2];
+        if (!type.isWide() || !current.stack[current.stackSize - 1].isTop()) {
+            throw error("Bad type on operand stack: expected a long or double, found " + type);
+        }
+        current.stackSize -= 2;
+        return type;
+    }
+
+    private VerificationType popReference() {
+        VerificationType type = popSingle();
+        if (!type.isReference()) {
+            throw error("Bad type on operand stack: expected a reference, found " + type);
+        }
+        return type;
+    }
+
+    private VerificationType popArray() {
+        VerificationType type = popSingle();
+        if (!type.isNull() && !type.isArray()) {
+            throw error("Bad type on operand stack: expected an array, found " + type);
+        }
+        return type;
+    }
+
+    // ---- pop/dup/swap：按槽位搬运，只要求不把 long/double 拆开 ----
+
+    // 栈顶 n 个槽位恰好是若干个完整的值
+    private boolean wholeValues(int n) {
+        int i = current.stackSize - n;
+        if (i < 0) {
+            return false;
+        }
+        while (i < current.stackSize) {
+            VerificationType type = current.stack[i];
+            if (type.isTop()) {
+                return false;
+            }
+            i += type.isWide() ? 2 : 1;
+        }
+        return i == current.stackSize;
+    }
+
+    private void popSlots(int n) {
+        if (!wholeValues(n)) {
+            throw error("Bad operand stack for pop" + (n == 2 ? "2" : ""));
+        }
+        current.stackSize -= n;
+    }
+
+    // 和 OperandStack.dup 相同：复制栈顶 n 个槽位，插入到它们下方 depth 个槽位之下
+    private void dup(int n, int depth) {
+        if (!wholeValues(n) || !wholeValues(n + depth)) {
+            throw error("Bad operand stack for dup: it would split a long or double");
+        }
+        if (current.stackSize + n > maxStack) {
+            throw error("Operand stack overflow (max_stack " + maxStack + ")");
+        }
+        VerificationType[] stack = current.stack;
+        int bottom = current.stackSize - n - depth;
+        System.arraycopy(stack, bottom, stack, bottom + n, n + depth);
+        System.arraycopy(stack, bottom + depth + n, stack, bottom, n);
+        current.stackSize += n;
+    }
+
+    private void swap() {
+        if (!wholeValues(1) || !wholeValues(2)) {
+            throw error("Bad operand stack for swap");
+        }
+        VerificationType[] stack = current.stack;
+        int top = current.stackSize - 1;
+        VerificationType type = stack[top];
+        stack[top] = stack[top - 1];
+        stack[top - 1] = type;
+    }
+
+    // ---- 类型之间的赋值关系 (JVMS 4.10.1.2) ----
+
+    private boolean isAssignable(VerificationType from, VerificationType to) {
+        if (to.isTop() || from.equals(to)) {
+            return true;
+        }
+        if (!to.isObject()) {
+            return false;
+        }
+        if (from.isNull()) {
+            return true;
+        }
+        return from.isObject() && isJavaAssignable(from.getClassName(), to.getClassName());
+    }
+
+    // 接口类型当作 Object：任何对象都能赋值给接口类型，是否真的实现了接口留给 invokeinterface 在运行时检查
+    private boolean isJavaAssignable(String from, String to) {
+        if (from.equals(to) || to.equals("java/lang/Object")) {
+            return true;
+        }
+        if (to.charAt(0) == '[') {
+            if (from.charAt(0) != '[') {
+                return false;
+            }
+            // 基本类型的数组只能赋值给同样的数组，上面已经比较过名字
+            if (!isReferenceArray(from) || !isReferenceArray(to)) {
+                return false;
+            }
+            return isJavaAssignable(componentName(from), componentName(to));
+        }
+        if (from.charAt(0) == '[') {
+            return to.equals("java/lang/Cloneable") || to.equals("java/io/Serializable");
+        }
+        RtClass toClass = loader.loadClass(to);
+        if (toClass.isInterface()) {
+            return true;
+        }
+        return loader.loadClass(from).isSubClassOf(toClass);
+    }
+
+    private static boolean isReferenceArray(String arrayName) {
+        char component = arrayName.charAt(1);
+        return component == 'L' || component == '[';
+    }
+
+    // [Ljava/lang/String; 的元素类是 java/lang/String，[[I 的元素类是 [I
+    private static String componentName(String arrayName) {
+        return arrayName.charAt(1) == 'L' ? arrayName.substring(2, arrayName.length() - 1) : arrayName.substring(1);
+    }
+
+    // ---- 常量池和字节码读取 ----
+
+    private int tag(int index) {
+        if (index <= 0 || index >= cp.size()) {
+            throw error("Invalid constant pool index " + index);
+        }
+        try {
+            return cp.getTag(index);
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid constant pool index " + index);
+        }
+    }
+
+    private String classNameAt(int index) {
+        if (tag(index) != ConstantTag.CLASS) {
+            throw error("Constant pool entry " + index + " is not a class");
+        }
+        return cp.getClassName(index);
+    }
+
+    private ConstantNameAndTypeInfo nameAndType(int index) {
+        if (tag(index) != ConstantTag.NAME_AND_TYPE) {
+            throw error("Constant pool entry " + index + " is not a NameAndType entry");
+        }
+        return (ConstantNameAndTypeInfo) cp.getConstantInfo(index);
+    }
+
+    private int u1(int at) {
+        checkCode(at, 1);
+        return code.get(at) & 0xFF;
+    }
+
+    private int u2(int at) {
+        checkCode(at, 2);
+        return code.getShort(at) & 0xFFFF;
+    }
+
+    private int s2(int at) {
+        checkCode(at, 2);
+        return code.getShort(at);
+    }
+
+    private int s4(int at) {
+        checkCode(at, 4);
+        return code.getInt(at);
+    }
+
+    private void checkCode(int at, int length) {
+        if (at + length > codeLength) {
+            throw error("Truncated instruction");
+        }
+    }
+
+    private VerifyError error(String message) {
+        return new VerifyError(method + " @" + pc + ": " + message);
+    }
+
+    private static void setLength(int length, int... opcodes) {
+        for (int opcode : opcodes) {
+            LENGTHS[opcode] = (byte) length;
+        }
+    }
+}
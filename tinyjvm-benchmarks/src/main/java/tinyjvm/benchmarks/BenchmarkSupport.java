@@ -0,0 +1,120 @@
+package tinyjvm.benchmarks;
+
+import tinyjvm.classfile.ClassFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 各个基准测试共用的工具方法：读取测试用的类文件、定位测试程序
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 读取宿主类路径上某个类的 class 文件字节
+     */
+    static byte[] classBytes(Class<?> clazz) {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Class file not found: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 宿主类路径上某个类所在的目录或 JAR，用作 tinyJVM 的用户类路径
+     */
+    static String codeLocation(Class<?> clazz) {
+        try {
+            return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 运行测试程序用的 JRE 目录。tinyJVM 从 lib/rt.jar 加载 java/lang/Object 等类，JDK 9 以后的 JDK 没有这个文件
+     * @param jre 参数指定的目录，为空时使用运行基准测试的 JDK (java.home)
+     */
+    static String guestJre(String jre) {
+        String dir = jre == null || jre.isEmpty() ? System.getProperty("java.home") : jre;
+        if (!Files.isRegularFile(Paths.get(dir, "lib", "rt.jar"))) {
+            throw new IllegalStateException("No lib/rt.jar in " + dir + ", pass a JDK 8 JRE with -p jre=<path>");
+        }
+        return dir;
+    }
+
+    /**
+     * 读取一组真实的类文件作为语料 (类文件名 -> 字节)。
+     * @param jarPath JAR 路径，例如 JDK 8 的 jre/lib/rt.jar；为空时使用 tinyJVM 自身的类文件
+     */
+    static Map<String, byte[]> corpus(String jarPath) {
+        try {
+            if (jarPath != null && !jarPath.isEmpty()) {
+                return readJar(Paths.get(jarPath), "");
+            }
+            Path location = Paths.get(ClassFile.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                return readDir(location);
+            }
+            return readJar(location, "tinyjvm/");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, byte[]> readJar(Path jar, String prefix) throws IOException {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (isCorpusClass(name) && name.startsWith(prefix)) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        classes.put(name, in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static Map<String, byte[]> readDir(Path dir) throws IOException {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = dir.relativize(file).toString().replace('\\', '/');
+                if (isCorpusClass(name)) {
+                    classes.put(name, Files.readAllBytes(file));
+                }
+            }
+        }
+        return classes;
+    }
+
+    // 基准测试自己的类不算在语料里
+    private static boolean isCorpusClass(String name) {
+        return name.endsWith(".class") && !name.startsWith("tinyjvm/benchmarks/") && !name.startsWith("META-INF/");
+    }
+}
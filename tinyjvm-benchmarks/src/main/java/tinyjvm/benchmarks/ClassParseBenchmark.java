@@ -0,0 +1,47 @@
+package tinyjvm.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tinyjvm.classfile.ClassFile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassFile.parse 的吞吐量 (每秒解析的类文件数)。
+ * 默认语料是 tinyJVM 自己的类文件，可以用 -p corpus=/path/to/jre/lib/rt.jar 换成真实的 JRE。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassParseBenchmark {
+
+    @Param({""})
+    public String corpus;
+
+    private byte[][] classes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        classes = BenchmarkSupport.corpus(corpus).values().toArray(new byte[0][]);
+    }
+
+    @Benchmark
+    public ClassFile parse() {
+        byte[] data = classes[next];
+        next = next + 1 == classes.length ? 0 : next + 1;
+        return ClassFile.parse(data);
+    }
+}
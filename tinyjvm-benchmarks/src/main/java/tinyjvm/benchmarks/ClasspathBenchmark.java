@@ -0,0 +1,112 @@
+package tinyjvm.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tinyjvm.classpath.Classpath;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Classpath.readClass 的单次查找延迟，分别测量目录、JAR 和通配符 (dir/*) 三种用户类路径。
+ * 语料在临时目录中生成，启动类路径指向一个空的 JRE 目录，所以每次查找都会落到用户类路径上。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClasspathBenchmark {
+
+    @Param({"dir", "jar", "wildcard"})
+    public String kind;
+
+    @Param({""})
+    public String corpus;
+
+    private Path workDir;
+    private Classpath classpath;
+    private String[] classNames;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        Map<String, byte[]> classes = BenchmarkSupport.corpus(corpus);
+        workDir = Files.createTempDirectory("tinyjvm-classpath-bench");
+        Path jre = Files.createDirectories(workDir.resolve("jre"));
+
+        String cp;
+        switch (kind) {
+            case "dir":
+                Path dir = workDir.resolve("classes");
+                for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                    Path file = dir.resolve(e.getKey());
+                    Files.createDirectories(file.getParent());
+                    Files.write(file, e.getValue());
+                }
+                cp = dir.toString();
+                break;
+            case "jar":
+                cp = writeJar(workDir.resolve("classes.jar"), classes).toString();
+                break;
+            case "wildcard":
+                Path lib = Files.createDirectories(workDir.resolve("lib"));
+                writeJar(lib.resolve("classes.jar"), classes);
+                cp = lib + "/*";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown classpath kind: " + kind);
+        }
+
+        classpath = new Classpath(jre.toString(), cp);
+        classNames = classes.keySet().stream()
+                .map(name -> name.substring(0, name.length() - ".class".length()))
+                .toArray(String[]::new);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        classpath.close();
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public byte[] readClass() throws IOException {
+        String name = classNames[next];
+        next = next + 1 == classNames.length ? 0 : next + 1;
+        return classpath.readClass(name);
+    }
+
+    private static Path writeJar(Path jar, Map<String, byte[]> classes) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                zip.putNextEntry(new ZipEntry(e.getKey()));
+                zip.write(e.getValue());
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,103 @@
+package tinyjvm.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tinyjvm.ExecutionEngine;
+import tinyjvm.FastInterpreter;
+import tinyjvm.Interpreter;
+import tinyjvm.classpath.Classpath;
+import tinyjvm.jit.TierUpCompiler;
+import tinyjvm.runtime.ClassLoader;
+import tinyjvm.runtime.JvmThread;
+import tinyjvm.runtime.heap.RtMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解释器吞吐量：反复解释执行 guest 包中的程序 (循环、递归调用和数组读写)。
+ * 主指标是每秒执行完整程序的次数，辅助指标 instructions 是每秒执行的字节码条数。
+ * engine 参数对比参考解释器 (Instruction 对象)、快速引擎 (switch + int[] 指令流)
+ * 和分层执行 (快速引擎 + 热点方法编译成宿主类，预热阶段即完成编译)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @Param({"IntLoop", "LongLoop", "Fib", "Ackermann", "ArraySort"})
+    public String guest;
+
+    @Param({"reference", "fast", "jit"})
+    public String engine;
+
+    // 提供 java/lang/Object 等类的 JRE 目录 (JDK 8 的 jre，需要 lib/rt.jar)；为空时使用运行基准测试的 JDK
+    @Param({""})
+    public String jre;
+
+    private Classpath classpath;
+    private RtMethod mainMethod;
+    private ExecutionEngine interpreter;
+    private long instructionsPerRun;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long instructions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            instructions = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        // 测试程序会调用自己的其他方法，要通过 ClassLoader 加载，才能解析方法引用；加载时会连同父类 java/lang/Object 一起加载
+        Class<?> guestClass = Class.forName("tinyjvm.benchmarks.guest." + guest);
+        classpath = new Classpath(BenchmarkSupport.guestJre(jre), BenchmarkSupport.codeLocation(guestClass));
+        mainMethod = new ClassLoader(classpath).loadClass(guestClass.getName().replace('.', '/')).getMainMethod();
+
+        // 先用一个计数的 Tracer 跑一遍，得到每次执行的指令条数
+        long[] count = new long[1];
+        new Interpreter(() -> (frame, pc, opcode, instruction) -> count[0]++).interpret(mainMethod);
+        instructionsPerRun = count[0];
+
+        switch (engine) {
+            case "fast":
+                interpreter = new FastInterpreter();
+                break;
+            case "jit":
+                interpreter = new FastInterpreter(new TierUpCompiler(), JvmThread.DEFAULT_MAX_DEPTH);
+                break;
+            default:
+                interpreter = new Interpreter(null);
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        classpath.close();
+    }
+
+    @Benchmark
+    public void interpret(Counters counters) {
+        interpreter.interpret(mainMethod);
+        counters.instructions += instructionsPerRun;
+    }
+}
@@ -0,0 +1,20 @@
+package tinyjvm.benchmarks.guest;
+
+/**
+ * 被 tinyJVM 解释执行的测试程序：Ackermann 函数，调用次数多、调用栈深 (ack(2, n) 的深度约为 2n)
+ */
+public class Ackermann {
+    public static void main(String[] args) {
+        ack(2, 100);
+    }
+
+    static int ack(int m, int n) {
+        if (m == 0) {
+            return n + 1;
+        }
+        if (n == 0) {
+            return ack(m - 1, 1);
+        }
+        return ack(m - 1, ack(m, n - 1));
+    }
+}
@@ -0,0 +1,31 @@
+package tinyjvm.benchmarks.guest;
+
+/**
+ * 被 tinyJVM 解释执行的测试程序：对 int[] 做插入排序，再用 System.arraycopy 复制回去，以数组读写为主
+ */
+public class ArraySort {
+    public static void main(String[] args) {
+        int n = 1000;
+        int[] a = new int[n];
+        int seed = 17;
+        for (int i = 0; i < n; i++) {
+            seed = seed * 31 + 7;
+            a[i] = seed >>> 16;
+        }
+        sort(a);
+        int[] copy = new int[n];
+        System.arraycopy(a, 0, copy, 0, n);
+    }
+
+    static void sort(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            int v = a[i];
+            int j = i - 1;
+            while (j >= 0 && a[j] > v) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = v;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package tinyjvm.benchmarks.guest;
+
+/**
+ * 被 tinyJVM 解释执行的测试程序：递归计算斐波那契数，主要开销是 invokestatic 和 ireturn
+ */
+public class Fib {
+    public static void main(String[] args) {
+        fib(20);
+    }
+
+    static int fib(int n) {
+        return n < 2 ? n : fib(n - 1) + fib(n - 2);
+    }
+}
@@ -0,0 +1,16 @@
+package tinyjvm.benchmarks.guest;
+
+/**
+ * 被 tinyJVM 解释执行的测试程序：纯 int 运算的嵌套循环，只用到解释器已经支持的指令
+ */
+public class IntLoop {
+    public static void main(String[] args) {
+        int sum = 0;
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                sum += (i * j) ^ (sum >>> 3);
+                sum -= j & 7;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package tinyjvm.benchmarks.guest;
+
+/**
+ * 被 tinyJVM 解释执行的测试程序：long/double 混合运算，覆盖两个槽位的读写路径
+ */
+public class LongLoop {
+    public static void main(String[] args) {
+        int three = 3;
+        long acc = 1;
+        double d = 1;
+        for (int i = 0; i < 1000; i++) {
+            acc = acc * three + i;
+            acc ^= acc >>> 13;
+            d = d / three + i;
+        }
+    }
+}